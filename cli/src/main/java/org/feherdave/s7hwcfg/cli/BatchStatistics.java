@@ -0,0 +1,154 @@
+package org.feherdave.s7hwcfg.cli;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Throughput, latency and heap statistics of a batch run. Files are recorded concurrently by the workers.
+ */
+class BatchStatistics {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private long[] latencies = new long[64];
+    private int fileCount;
+    private int failedCount;
+    private long byteCount;
+    private long sectionCount;
+    private long startTime;
+    private long wallTime;
+
+    /**
+     * Starts the measurement: resets the peak usage of the heap pools and the wall clock.
+     */
+    void start() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Stops the wall clock.
+     */
+    void stop() {
+        wallTime = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Records a parsed file.
+     *
+     * @param latency Time of reading and parsing the file, in nanoseconds.
+     * @param bytes File size.
+     * @param sections Number of sections of the file.
+     */
+    synchronized void recordFile(long latency, long bytes, int sections) {
+        if (fileCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, fileCount * 2);
+        }
+
+        latencies[fileCount++] = latency;
+        byteCount += bytes;
+        sectionCount += sections;
+    }
+
+    /**
+     * Records a file which couldn't be read or parsed.
+     */
+    synchronized void recordFailure() {
+        failedCount++;
+    }
+
+    synchronized int getFileCount() {
+        return fileCount;
+    }
+
+    synchronized int getFailedCount() {
+        return failedCount;
+    }
+
+    synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    synchronized long getSectionCount() {
+        return sectionCount;
+    }
+
+    long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Gets a latency percentile (nearest rank).
+     *
+     * @param percentile 0..100
+     * @return Latency in nanoseconds, 0 if no file was parsed.
+     */
+    synchronized long getLatency(double percentile) {
+        if (fileCount == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, fileCount);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100 * fileCount);
+
+        return sorted[Math.max(0, Math.min(fileCount, rank) - 1)];
+    }
+
+    /**
+     * Gets the peak heap usage since {@link #start()}, the sum of the peaks of the heap pools.
+     *
+     * @return Bytes.
+     */
+    static long getPeakHeap() {
+        long res = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage peak = pool.getType() == MemoryType.HEAP ? pool.getPeakUsage() : null;
+
+            if (peak != null) {
+                res += peak.getUsed();
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Prints the report.
+     *
+     * @param out
+     * @param jobs Number of workers.
+     * @param diagnostics Number of problems reported while parsing.
+     */
+    synchronized void print(PrintStream out, int jobs, long diagnostics) {
+        double seconds = Math.max(wallTime, 1) / NANOS_PER_SECOND;
+
+        out.println(format("Files:       %d parsed, %d failed (%d workers)", fileCount, failedCount, jobs));
+        out.println(format("Input:       %.1f MB, %d sections, %d diagnostics", byteCount / BYTES_PER_MB, sectionCount, diagnostics));
+        out.println(format("Wall time:   %.3f s", seconds));
+        out.println(format("Throughput:  %.1f files/s, %.2f MB/s, %.0f sections/s",
+                fileCount / seconds, byteCount / BYTES_PER_MB / seconds, sectionCount / seconds));
+        out.println(format("Latency:     p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                getLatency(50) / NANOS_PER_MILLI, getLatency(90) / NANOS_PER_MILLI, getLatency(99) / NANOS_PER_MILLI,
+                getLatency(100) / NANOS_PER_MILLI));
+        out.println(format("Peak heap:   %.1f MB", getPeakHeap() / BYTES_PER_MB));
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.ROOT, format, args);
+    }
+}
@@ -0,0 +1,149 @@
+package org.feherdave.s7hwcfg.cli;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Command line options of the batch tool.
+ */
+class CliOptions {
+
+    enum OutputFormat { JSON, CSV, BINARY }
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: s7hwcfg [options] <file|directory|glob>...",
+            "",
+            "Parses STEP7 HW config files in parallel and prints throughput statistics.",
+            "Directories are searched recursively for .cfg files, globs (e.g. \"plants/**/*.cfg\") are",
+            "matched below their leading directory. Outputs are named after the path of a file below its",
+            "argument, files with the same name (e.g. a/x.cfg and b/x.cfg) after their absolute path.",
+            "",
+            "Options:",
+            "  -j, --jobs <n>         Number of worker threads (default: number of processors)",
+            "  -f, --format <list>    Output formats, comma separated: json, csv, binary",
+            "  -o, --output <dir>     Output directory (required with --format)",
+            "      --warmup <n>       Parse all files n times before the measured run (default: 0)",
+            "  -h, --help             Print this help");
+
+    private int jobs = Runtime.getRuntime().availableProcessors();
+    private final Set<OutputFormat> formats = EnumSet.noneOf(OutputFormat.class);
+    private Path outputDirectory;
+    private int warmup;
+    private boolean help;
+    private final List<String> inputs = new ArrayList<>();
+
+    /**
+     * Parses command line arguments.
+     *
+     * @param args
+     * @return CliOptions
+     * @throws IllegalArgumentException if an option is unknown or invalid.
+     */
+    static CliOptions parse(String[] args) {
+        CliOptions res = new CliOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            switch (arg) {
+                case "-j":
+                case "--jobs":
+                    res.jobs = number(arg, value(args, ++i, arg), 1);
+                    break;
+                case "-f":
+                case "--format":
+                    for (String format : value(args, ++i, arg).split(",")) {
+                        res.formats.add(format(format.trim()));
+                    }
+                    break;
+                case "-o":
+                case "--output":
+                    res.outputDirectory = Path.of(value(args, ++i, arg));
+                    break;
+                case "--warmup":
+                    res.warmup = number(arg, value(args, ++i, arg), 0);
+                    break;
+                case "-h":
+                case "--help":
+                    res.help = true;
+                    break;
+                default:
+                    if (arg.startsWith("-") && arg.length() > 1) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+
+                    res.inputs.add(arg);
+            }
+        }
+
+        if (!res.help) {
+            if (res.inputs.isEmpty()) {
+                throw new IllegalArgumentException("No input files");
+            }
+
+            if (!res.formats.isEmpty() && res.outputDirectory == null) {
+                throw new IllegalArgumentException("Output directory required for --format");
+            }
+        }
+
+        return res;
+    }
+
+    int getJobs() {
+        return jobs;
+    }
+
+    Set<OutputFormat> getFormats() {
+        return formats;
+    }
+
+    Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    int getWarmup() {
+        return warmup;
+    }
+
+    boolean isHelp() {
+        return help;
+    }
+
+    List<String> getInputs() {
+        return inputs;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value of " + option);
+        }
+
+        return args[i];
+    }
+
+    private static int number(String option, String value, int min) {
+        try {
+            int res = Integer.parseInt(value);
+
+            if (res >= min) {
+                return res;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("Invalid value of " + option + ": " + value);
+    }
+
+    private static OutputFormat format(String value) {
+        try {
+            return OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.feherdave.s7hwcfg.cli;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Expands the input arguments of the batch tool (files, directories and globs) into config files.
+ */
+class InputFiles {
+
+    private static final String CFG_FILE_EXTENSION = ".cfg";
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * Config file with its path relative to the argument it was found by, used to name output files.
+     */
+    static class InputFile {
+        private final Path path;
+        private final Path relativePath;
+
+        InputFile(Path path, Path relativePath) {
+            this.path = path;
+            this.relativePath = relativePath;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        Path getRelativePath() {
+            return relativePath;
+        }
+    }
+
+    private InputFiles() {
+    }
+
+    /**
+     * Expands arguments. Files are taken as they are, directories are searched recursively for .cfg files, globs
+     * are matched against the files below the directory preceding the first glob character. Files found by more
+     * than one argument are listed once.
+     *
+     * Files whose outputs would overwrite each other (e.g. "a/x.cfg" and "b/x.cfg", both "x.cfg" relative to their
+     * arguments) get their absolute path without the root as relative path.
+     *
+     * @param arguments
+     * @return Files in argument order, files of a directory or glob in path order.
+     * @throws NoSuchFileException if a file or directory doesn't exist.
+     * @throws IllegalArgumentException if the outputs of two files can't be told apart (e.g. on a case-sensitive
+     * file system, files which only differ in case).
+     */
+    static List<InputFile> expand(List<String> arguments) throws IOException {
+        Map<Path, InputFile> res = new LinkedHashMap<>();
+
+        for (String argument : arguments) {
+            for (InputFile file : expand(argument)) {
+                res.putIfAbsent(file.getPath().toAbsolutePath().normalize(), file);
+            }
+        }
+
+        return renameClashing(res.values());
+    }
+
+    private static List<InputFile> renameClashing(Collection<InputFile> files) {
+        Map<String, Long> outputCounts = files.stream()
+                .collect(Collectors.groupingBy(file -> outputKey(file.getRelativePath()), Collectors.counting()));
+        Set<String> outputKeys = new HashSet<>();
+        List<InputFile> res = new ArrayList<>(files.size());
+
+        for (InputFile file : files) {
+            if (outputCounts.get(outputKey(file.getRelativePath())) > 1) {
+                Path absolutePath = file.getPath().toAbsolutePath().normalize();
+                file = new InputFile(file.getPath(), absolutePath.getRoot().relativize(absolutePath));
+            }
+
+            if (!outputKeys.add(outputKey(file.getRelativePath()))) {
+                throw new IllegalArgumentException("Output files of " + file.getPath() + " clash with the outputs of another input file");
+            }
+
+            res.add(file);
+        }
+
+        return res;
+    }
+
+    /**
+     * Key of the output files of a file: relative path without the extension, ignoring case (outputs on
+     * case-insensitive file systems would overwrite each other).
+     */
+    private static String outputKey(Path relativePath) {
+        String res = relativePath.toString().toLowerCase(Locale.ROOT);
+
+        return res.endsWith(CFG_FILE_EXTENSION) ? res.substring(0, res.length() - CFG_FILE_EXTENSION.length()) : res;
+    }
+
+    private static List<InputFile> expand(String argument) throws IOException {
+        int globStart = indexOfGlob(argument);
+
+        if (globStart >= 0) {
+            int separator = Math.max(argument.lastIndexOf('/', globStart), argument.lastIndexOf('\\', globStart));
+            Path base = Path.of(separator >= 0 ? argument.substring(0, separator + 1) : ".");
+            PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + argument.substring(separator + 1));
+
+            return walk(base, relativePath -> matcher.matches(relativePath));
+        }
+
+        Path path = Path.of(argument);
+
+        if (Files.isDirectory(path)) {
+            return walk(path, relativePath -> relativePath.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(CFG_FILE_EXTENSION));
+        }
+
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(argument);
+        }
+
+        return List.of(new InputFile(path, path.getFileName()));
+    }
+
+    private static List<InputFile> walk(Path base, Predicate<Path> filter) throws IOException {
+        if (!Files.isDirectory(base)) {
+            throw new NoSuchFileException(base.toString());
+        }
+
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> new InputFile(file, base.relativize(file)))
+                    .filter(file -> filter.test(file.getRelativePath()))
+                    .sorted(Comparator.comparing(InputFile::getRelativePath))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOfGlob(String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(argument.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
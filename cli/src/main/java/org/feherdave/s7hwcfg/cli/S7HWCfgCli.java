@@ -0,0 +1,216 @@
+package org.feherdave.s7hwcfg.cli;
+
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFile;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileDiagnosticsSink;
+import org.feherdave.s7hwcfg.export.StationBinaryWriter;
+import org.feherdave.s7hwcfg.export.StationJsonWriter;
+import org.feherdave.s7hwcfg.export.StationTableExporter;
+import org.feherdave.s7hwcfg.s7.Station;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Batch tool: parses STEP7 HW config files in parallel, optionally writes JSON, CSV and binary snapshots of the
+ * stations, and prints throughput, latency and peak heap statistics.
+ *
+ * Latencies cover reading, parsing and freezing a file (stations are frozen, as an application would keep them).
+ * Writing the outputs is included in the wall time (and so in the throughput) only.
+ */
+public class S7HWCfgCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED_FILES = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String CFG_FILE_EXTENSION = ".cfg";
+
+    private final CliOptions options;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final STEP7HWCfgFileDiagnosticsSink.Counter diagnostics = new STEP7HWCfgFileDiagnosticsSink.Counter();
+
+    private S7HWCfgCli(CliOptions options, PrintStream out, PrintStream err) {
+        this.options = options;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the tool.
+     *
+     * @param args Command line arguments.
+     * @param out Stream of the report.
+     * @param err Stream of errors.
+     * @return Exit code: 0 if all files were parsed, 1 if some failed, 2 for invalid arguments.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        CliOptions options;
+        List<InputFiles.InputFile> files;
+
+        try {
+            options = CliOptions.parse(args);
+
+            if (options.isHelp()) {
+                out.println(CliOptions.USAGE);
+                return EXIT_OK;
+            }
+
+            files = InputFiles.expand(options.getInputs());
+        } catch (IllegalArgumentException | IOException e) {
+            err.println("s7hwcfg: " + message(e));
+            err.println(CliOptions.USAGE);
+            return EXIT_USAGE;
+        }
+
+        try {
+            return new S7HWCfgCli(options, out, err).run(files);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("s7hwcfg: interrupted");
+            return EXIT_FAILED_FILES;
+        }
+    }
+
+    private int run(List<InputFiles.InputFile> files) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getJobs());
+        // Tables are rendered on their own threads, workers waiting for them mustn't block the rendering
+        ExecutorService renderers = options.getFormats().contains(CliOptions.OutputFormat.CSV) ? Executors.newCachedThreadPool() : null;
+
+        try {
+            for (int i = 0; i < options.getWarmup(); i++) {
+                List<Future<?>> warmup = new ArrayList<>(files.size());
+
+                for (InputFiles.InputFile file : files) {
+                    // Warmup diagnostics aren't counted, the report covers the measured run only
+                    warmup.add(workers.submit(() -> read(file.getPath(), STEP7HWCfgFileDiagnosticsSink.NONE).parseSections().freeze()));
+                }
+
+                await(warmup, null, null);
+            }
+
+            BatchStatistics statistics = new BatchStatistics();
+            List<Future<?>> tasks = new ArrayList<>(files.size());
+
+            statistics.start();
+
+            for (InputFiles.InputFile file : files) {
+                tasks.add(workers.submit(() -> process(file, statistics, renderers)));
+            }
+
+            await(tasks, files, statistics);
+            statistics.stop();
+            statistics.print(out, options.getJobs(), diagnostics.getTotalCount());
+
+            return statistics.getFailedCount() == 0 ? EXIT_OK : EXIT_FAILED_FILES;
+        } finally {
+            workers.shutdownNow();
+
+            if (renderers != null) {
+                renderers.shutdownNow();
+            }
+        }
+    }
+
+    private void process(InputFiles.InputFile file, BatchStatistics statistics, ExecutorService renderers) {
+        try {
+            long start = System.nanoTime();
+            STEP7HWCfgFile cfgFile = read(file.getPath(), diagnostics);
+            Station station = cfgFile.parseSections().freeze();
+            long latency = System.nanoTime() - start;
+
+            if (!options.getFormats().isEmpty()) {
+                write(station, file.getRelativePath(), renderers);
+            }
+
+            statistics.recordFile(latency, Files.size(file.getPath()), cfgFile.getSections().size());
+        } catch (Exception e) {
+            statistics.recordFailure();
+            err.println(file.getPath() + ": " + message(e));
+        }
+    }
+
+    private static STEP7HWCfgFile read(Path path, STEP7HWCfgFileDiagnosticsSink diagnostics) throws Exception {
+        STEP7HWCfgFile res = new STEP7HWCfgFile(path.toFile());
+
+        res.setDiagnosticsSink(diagnostics);
+
+        return res;
+    }
+
+    private void write(Station station, Path relativePath, ExecutorService renderers) throws IOException {
+        Path base = options.getOutputDirectory().resolve(baseName(relativePath));
+
+        Files.createDirectories(base.getParent());
+
+        for (CliOptions.OutputFormat format : options.getFormats()) {
+            switch (format) {
+                case JSON:
+                    try (OutputStream stream = Files.newOutputStream(sibling(base, ".json"));
+                         StationJsonWriter writer = new StationJsonWriter(stream)) {
+                        writer.write(station);
+                    }
+                    break;
+                case CSV:
+                    new StationTableExporter(StationTableExporter.Format.CSV, renderers, 1)
+                            .export(List.of(station), sibling(base, ".modules.csv"), sibling(base, ".address-areas.csv"));
+                    break;
+                case BINARY:
+                    try (OutputStream stream = Files.newOutputStream(sibling(base, ".bin"));
+                         StationBinaryWriter writer = new StationBinaryWriter(stream)) {
+                        writer.write(station);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static Path baseName(Path relativePath) {
+        String name = relativePath.toString();
+
+        if (name.toLowerCase(Locale.ROOT).endsWith(CFG_FILE_EXTENSION)) {
+            name = name.substring(0, name.length() - CFG_FILE_EXTENSION.length());
+        }
+
+        return Path.of(name);
+    }
+
+    private static Path sibling(Path base, String suffix) {
+        return base.resolveSibling(base.getFileName() + suffix);
+    }
+
+    /**
+     * Waits for the tasks of a run. Errors escaping a task (e.g. OutOfMemoryError) are recorded as failed files, in
+     * the warmup (without statistics) they are ignored, the measured run reports them.
+     */
+    private void await(List<Future<?>> tasks, List<InputFiles.InputFile> files, BatchStatistics statistics) throws InterruptedException {
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException e) {
+                if (statistics != null) {
+                    statistics.recordFailure();
+                    err.println(files.get(i).getPath() + ": " + e.getCause());
+                }
+            }
+        }
+    }
+
+    private static String message(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,126 @@
+import org.feherdave.s7hwcfg.cli.S7HWCfgCli;
+import org.feherdave.s7hwcfg.export.StationBinaryWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class S7HWCfgCliTest {
+
+    @Test
+    public void testBatchRun() throws Exception {
+        Path dir = Files.createTempDirectory("s7hwcfg");
+
+        try {
+            Path input = dir.resolve("in");
+            Path output = dir.resolve("out");
+            Files.createDirectories(input.resolve("plant"));
+
+            try (InputStream sample = S7HWCfgCliTest.class.getResourceAsStream("/sample.cfg")) {
+                Files.copy(sample, input.resolve("plant/winder.cfg"));
+            }
+            Files.copy(input.resolve("plant/winder.cfg"), input.resolve("unwinder.CFG"));
+            Files.writeString(input.resolve("notes.txt"), "not a config");
+
+            // Directory and glob finding the same file, which is processed once
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int exitCode = run(out, err, "-j", "2", "--warmup", "1", "-f", "json,csv,binary", "-o", output.toString(),
+                    input.toString(), input + "/**/*.cfg");
+
+            assertEquals(0, exitCode, err.toString());
+            assertTrue(out.toString().contains("2 parsed, 0 failed (2 workers)"), out.toString());
+            assertTrue(out.toString().contains("files/s"));
+            assertTrue(out.toString().contains("p99"));
+
+            // Outputs are named after the path below the input directory
+            assertTrue(Files.readString(output.resolve("plant/winder.json")).startsWith("{"));
+            assertTrue(Files.readString(output.resolve("unwinder.modules.csv")).startsWith("station,kind,"));
+            assertTrue(Files.exists(output.resolve("plant/winder.address-areas.csv")));
+            try (DataInputStream bin = new DataInputStream(Files.newInputStream(output.resolve("plant/winder.bin")))) {
+                assertEquals(StationBinaryWriter.MAGIC, bin.readInt());
+            }
+
+            // Broken files are reported, the others are still processed
+            Files.writeString(input.resolve("broken.cfg"), "garbage");
+            err.reset();
+            assertEquals(1, run(new ByteArrayOutputStream(), err, input.toString()));
+            assertTrue(err.toString().contains("broken.cfg"));
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testOutputNameClashes() throws Exception {
+        Path dir = Files.createTempDirectory("s7hwcfg").toRealPath();
+
+        try {
+            Path output = dir.resolve("out");
+            String content;
+
+            try (InputStream sample = S7HWCfgCliTest.class.getResourceAsStream("/sample.cfg")) {
+                content = new String(sample.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            // A member of a subnet which doesn't exist is reported once per measured parse
+            Files.createDirectories(dir.resolve("a"));
+            Files.createDirectories(dir.resolve("b"));
+            Files.writeString(dir.resolve("a/plant.cfg"), content.replace("CONTROLLER IOSUBSYSTEM 100,", "CONTROLLER IOSUBSYSTEM 101,"));
+            Files.writeString(dir.resolve("b/plant.cfg"), content);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int exitCode = run(out, err, "--warmup", "2", "-f", "json", "-o", output.toString(),
+                    dir.resolve("a").toString(), dir.resolve("b").toString());
+
+            assertEquals(0, exitCode, err.toString());
+            assertTrue(out.toString().contains("2 parsed, 0 failed"), out.toString());
+            assertTrue(out.toString().contains(", 1 diagnostics"), out.toString());
+
+            // Both are "plant.cfg" below their arguments, their outputs are named after their absolute paths
+            assertFalse(Files.exists(output.resolve("plant.json")));
+
+            for (String name : new String[] { "a/plant", "b/plant" }) {
+                Path file = dir.resolve(name);
+                assertTrue(Files.exists(output.resolve(file.getRoot().relativize(file) + ".json")), name);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testUsageErrors() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertEquals(2, run(new ByteArrayOutputStream(), err));
+        assertEquals(2, run(new ByteArrayOutputStream(), err, "-j", "0", "x.cfg"));
+        assertEquals(2, run(new ByteArrayOutputStream(), err, "-f", "xml", "-o", "out", "x.cfg"));
+        assertEquals(2, run(new ByteArrayOutputStream(), err, "-f", "json", "x.cfg"));
+        assertEquals(2, run(new ByteArrayOutputStream(), err, "--no-such-option", "x.cfg"));
+        assertEquals(2, run(new ByteArrayOutputStream(), err, "no-such-file.cfg"));
+        assertTrue(err.toString().contains("Usage:"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, run(out, err, "--help"));
+        assertTrue(out.toString().contains("--jobs"));
+    }
+
+    private static int run(ByteArrayOutputStream out, ByteArrayOutputStream err, String... args) {
+        return S7HWCfgCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+}
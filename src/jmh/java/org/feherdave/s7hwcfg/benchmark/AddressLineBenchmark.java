@@ -0,0 +1,102 @@
+package org.feherdave.s7hwcfg.benchmark;
+
+import org.feherdave.s7hwcfg.s7.hw.AddressLineScanner;
+import org.feherdave.s7hwcfg.s7.system.Address;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsing ADDRESS lines with the regex the parser used before and with {@link AddressLineScanner}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AddressLineBenchmark {
+
+    private static final String ADDRESS_REGEX = "^\\s*ADDRESS\\s*(?<startByte>\\d+)\\s*,\\s*(?<startBit>\\d+)\\s*,\\s*(?<lengthByte>\\d+)\\s*,\\s*(?<lengthBit>\\d+)\\s*,\\s*(?<addressType1>\\d+)\\s*,\\s*(?<addressType2>\\d+)\\s*$";
+
+    private final String[] lines = {
+            "ADDRESS  0, 0, 4, 0, 1, 0",
+            "ADDRESS  512, 0, 16, 0, 8, 0",
+            "ADDRESS  12, 3, 1, 0, 3, 0",
+            "ADDRESS  8190, 0, 2, 0, 0, 16"
+    };
+
+    private final AddressLineScanner scanner = new AddressLineScanner();
+    private int next;
+
+    private String nextLine() {
+        return lines[next++ & 3];
+    }
+
+    /**
+     * The previous parser: matches, compiles the pattern and matches again, then maps boxed values.
+     */
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        String line = nextLine();
+
+        if (line.matches(ADDRESS_REGEX)) {
+            Matcher m = Pattern.compile(ADDRESS_REGEX).matcher(line);
+
+            if (m.matches()) {
+                Integer startByte = Integer.parseInt(m.group("startByte"));
+                Integer startBit = Integer.parseInt(m.group("startBit"));
+                Integer areaLength = Integer.parseInt(m.group("lengthByte"));
+                Integer addressType1 = Integer.parseInt(m.group("addressType1"));
+                Integer addressType2 = Integer.parseInt(m.group("addressType2"));
+                Address startAddress;
+                Address addrAreaLength = Address.Plain().b(areaLength);
+
+                switch (addressType1) {
+                    case 0:
+                        if (addressType2 == 16) {
+                            addrAreaLength = Address.Plain().x(areaLength, 0);
+                        }
+                    case 1:
+                    case 2:
+                        startAddress = Address.Input().b(startByte);
+                        break;
+                    case 7:
+                    case 8:
+                        startAddress = Address.Input().w(startByte);
+                        break;
+                    default:
+                        startAddress = Address.Input().x(startByte, startBit);
+                }
+
+                blackhole.consume(startAddress);
+                blackhole.consume(addrAreaLength);
+            }
+        }
+    }
+
+    /**
+     * Scanning to packed addresses only.
+     */
+    @Benchmark
+    public void scanPacked(Blackhole blackhole) {
+        if (scanner.scan(nextLine())) {
+            blackhole.consume(scanner.packedStartAddress(true));
+            blackhole.consume(scanner.packedAreaLength());
+        }
+    }
+
+    /**
+     * Scanning and creating the addresses of the area, as the parser does.
+     */
+    @Benchmark
+    public void scanToAddresses(Blackhole blackhole) {
+        if (scanner.scan(nextLine()) && scanner.isPackable()) {
+            blackhole.consume(Address.unpack(scanner.packedStartAddress(true)));
+            blackhole.consume(Address.unpack(scanner.packedAreaLength()));
+        }
+    }
+}
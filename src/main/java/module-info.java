@@ -1,6 +1,13 @@
 module org.feherdave.s7hwcfg {
     exports org.feherdave.s7hwcfg;
+    exports org.feherdave.s7hwcfg.cfgfile;
     exports org.feherdave.s7hwcfg.s7;
     exports org.feherdave.s7hwcfg.s7.hw;
+    exports org.feherdave.s7hwcfg.s7.hw.module;
+    exports org.feherdave.s7hwcfg.s7.hw.rack;
     exports org.feherdave.s7hwcfg.s7.system;
+    exports org.feherdave.s7hwcfg.export;
+    exports org.feherdave.s7hwcfg.validation;
+
+    uses org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionHandler;
 }
\ No newline at end of file
@@ -1,12 +1,20 @@
 package org.feherdave.s7hwcfg;
 
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFile;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileDiagnosticsSink;
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileFormatException;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileReadMonitor;
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionFormatErrorException;
+import org.feherdave.s7hwcfg.s7.Deduplicator;
 import org.feherdave.s7hwcfg.s7.Station;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class HWConfig {
 
@@ -19,14 +27,163 @@ public class HWConfig {
      * @return HWConfig object.
      */
     public static HWConfig readFromFile(File hwCfgFile) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        return readFromFile(hwCfgFile, STEP7HWCfgFileDiagnosticsSink.SYSTEM_ERR);
+    }
+
+    /**
+     * Parses a .cfg file exported from a STEP7 HW config, reporting problems which don't stop parsing to a sink.
+     *
+     * @param hwCfgFile Exported HW config file.
+     * @param diagnostics Sink of problems (e.g. a module in a rack that does not exist).
+     * @return HWConfig object.
+     */
+    public static HWConfig readFromFile(File hwCfgFile, STEP7HWCfgFileDiagnosticsSink diagnostics) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
         STEP7HWCfgFile step7HWCfgFile = new STEP7HWCfgFile(hwCfgFile);
         HWConfig res = new HWConfig();
 
+        step7HWCfgFile.setDiagnosticsSink(diagnostics);
+
         res.setStation(step7HWCfgFile.parseSections());
 
         return res;
     }
 
+    /**
+     * Parses a .cfg file exported from a STEP7 HW config, splitting the file into chunks that are read in parallel.
+     * See {@link STEP7HWCfgFile#readParallel(File, ExecutorService)}.
+     *
+     * @param hwCfgFile Exported HW config file.
+     * @param executor Executor chunks are read on.
+     * @return HWConfig object.
+     */
+    public static HWConfig readFromFileParallel(File hwCfgFile, ExecutorService executor) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        return readFromFileParallel(hwCfgFile, executor, STEP7HWCfgFileDiagnosticsSink.SYSTEM_ERR);
+    }
+
+    /**
+     * Parses a .cfg file like {@link #readFromFileParallel(File, ExecutorService)}, reporting problems which don't
+     * stop parsing to a sink.
+     *
+     * @param hwCfgFile Exported HW config file.
+     * @param executor Executor chunks are read on.
+     * @param diagnostics Sink of problems (e.g. a module in a rack that does not exist).
+     * @return HWConfig object.
+     */
+    public static HWConfig readFromFileParallel(File hwCfgFile, ExecutorService executor, STEP7HWCfgFileDiagnosticsSink diagnostics) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        STEP7HWCfgFile step7HWCfgFile = STEP7HWCfgFile.readParallel(hwCfgFile, executor);
+        HWConfig res = new HWConfig();
+
+        step7HWCfgFile.setDiagnosticsSink(diagnostics);
+
+        res.setStation(step7HWCfgFile.parseSections());
+
+        return res;
+    }
+
+    /**
+     * Parses a .cfg file asynchronously on the given executor.
+     *
+     * Progress (bytes and sections read, sections parsed) is reported to the monitor. Cancelling the returned future
+     * stops reading at the next section boundary, the sections read so far are released. The monitor can cancel
+     * reading as well, the future is cancelled then.
+     *
+     * @param hwCfgFile Exported HW config file.
+     * @param executor Executor the file is parsed on.
+     * @param monitor Progress monitor, called on the parsing thread.
+     * @return Future of the HWConfig object.
+     */
+    public static CompletableFuture<HWConfig> readFromFileAsync(File hwCfgFile, Executor executor, STEP7HWCfgFileReadMonitor monitor) {
+        return readFromFileAsync(hwCfgFile, executor, monitor, STEP7HWCfgFileDiagnosticsSink.SYSTEM_ERR);
+    }
+
+    /**
+     * Parses a .cfg file asynchronously like {@link #readFromFileAsync(File, Executor, STEP7HWCfgFileReadMonitor)},
+     * reporting problems which don't stop parsing to a sink.
+     *
+     * @param hwCfgFile Exported HW config file.
+     * @param executor Executor the file is parsed on.
+     * @param monitor Progress monitor, called on the parsing thread.
+     * @param diagnostics Sink of problems, called on the parsing thread.
+     * @return Future of the HWConfig object.
+     */
+    public static CompletableFuture<HWConfig> readFromFileAsync(File hwCfgFile, Executor executor, STEP7HWCfgFileReadMonitor monitor, STEP7HWCfgFileDiagnosticsSink diagnostics) {
+        CompletableFuture<HWConfig> res = new CompletableFuture<>();
+
+        STEP7HWCfgFileReadMonitor cancellableMonitor = new STEP7HWCfgFileReadMonitor() {
+            @Override
+            public void sectionRead(long bytesRead, long fileSize, int sectionCount) {
+                monitor.sectionRead(bytesRead, fileSize, sectionCount);
+            }
+
+            @Override
+            public void sectionParsed(int parsedCount, int sectionCount) {
+                monitor.sectionParsed(parsedCount, sectionCount);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return res.isDone() || monitor.isCancelled();
+            }
+        };
+
+        try {
+            executor.execute(() -> {
+                if (res.isDone()) {
+                    return;
+                }
+
+                try {
+                    STEP7HWCfgFile step7HWCfgFile = new STEP7HWCfgFile(hwCfgFile, null, cancellableMonitor);
+                    HWConfig hwConfig = new HWConfig();
+
+                    step7HWCfgFile.setDiagnosticsSink(diagnostics);
+                    hwConfig.setStation(step7HWCfgFile.parseSections());
+                    res.complete(hwConfig);
+                } catch (CancellationException e) {
+                    res.cancel(false);
+                } catch (Throwable e) {
+                    res.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            res.completeExceptionally(e);
+        }
+
+        return res;
+    }
+
+    /**
+     * Get the station described by the HW config.
+     *
+     * @return Station
+     */
+    public Station getStation() {
+        return station;
+    }
+
+    /**
+     * Freezes the station, see {@link Station#freeze()}.
+     *
+     * @return This HWConfig.
+     */
+    public HWConfig freeze() {
+        station.freeze();
+
+        return this;
+    }
+
+    /**
+     * Freezes the station, sharing payloads with equal payloads of a pool, see {@link Station#freeze(Deduplicator)}.
+     *
+     * @param deduplicator Pool of shared payloads.
+     * @return This HWConfig.
+     */
+    public HWConfig freeze(Deduplicator deduplicator) {
+        station.freeze(deduplicator);
+
+        return this;
+    }
+
     private void setStation(Station station) {
         this.station = station;
     }
@@ -0,0 +1,347 @@
+package org.feherdave.s7hwcfg;
+
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileDiagnosticsSink;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileFormatException;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionFormatErrorException;
+import org.feherdave.s7hwcfg.s7.SlotTable;
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Stations of a STEP7 project with their subnets merged into one network index.
+ *
+ * Every station file declares the subnets it is attached to, so a subnet shared by several stations appears as a
+ * separate Subsystem in each of them. The project merges them: subsystems with the same name and number are one
+ * subnet, holding the nodes of all stations. The subnets of the stations are collected in parallel, then merged in
+ * station order and indexed by name and node address.
+ *
+ * Stations must not be modified after the project has been built.
+ */
+public class Project {
+
+    /**
+     * Subnet shared by one or more stations.
+     */
+    public static class Subnet {
+        private final String name;
+        private final Integer number;
+        private final Subsystem.SubnetType subnetType;
+        private final List<Subsystem> subsystems = new ArrayList<>();
+        private final List<Member> members = new ArrayList<>();
+        private final SlotTable<List<Member>> membersByAddress = new SlotTable<>();
+
+        private Subnet(Subsystem subsystem) {
+            this.name = subsystem.getName();
+            this.number = subsystem.getNumber();
+            this.subnetType = subsystem.getSubnetType();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getNumber() {
+            return number;
+        }
+
+        public Subsystem.SubnetType getSubnetType() {
+            return subnetType;
+        }
+
+        /**
+         * Gets the subsystems of the stations merged into this subnet.
+         *
+         * @return Read-only list in station order.
+         */
+        public List<Subsystem> getSubsystems() {
+            return Collections.unmodifiableList(subsystems);
+        }
+
+        /**
+         * Gets the nodes of all stations attached to the subnet.
+         *
+         * @return Read-only list in station order, then address order.
+         */
+        public List<Member> getMembers() {
+            return Collections.unmodifiableList(members);
+        }
+
+        /**
+         * Gets the nodes at an address. More than one node at an address is an addressing conflict between stations.
+         *
+         * @param address
+         * @return Nodes at the address, empty if there is none.
+         */
+        public List<Member> getMembers(int address) {
+            List<Member> res = membersByAddress.get(address);
+
+            return res != null ? res : List.of();
+        }
+
+        private void buildIndex() {
+            for (Member member : members) {
+                List<Member> atAddress = membersByAddress.get(member.address);
+
+                if (atAddress == null) {
+                    membersByAddress.put(member.address, List.of(member));
+                } else {
+                    List<Member> more = new ArrayList<>(atAddress);
+                    more.add(member);
+                    membersByAddress.put(member.address, Collections.unmodifiableList(more));
+                }
+            }
+
+            membersByAddress.freeze();
+        }
+
+        @Override
+        public String toString() {
+            return "Subnet{" +
+                    "name='" + name + '\'' +
+                    ", number=" + number +
+                    ", type=" + subnetType +
+                    ", members=" + members.size() +
+                    '}';
+        }
+    }
+
+    /**
+     * Node of a subnet.
+     */
+    public static class Member {
+        private final Station station;
+        private final Module module;
+        private final int address;
+        private final Enum<?> role;
+
+        private Member(Station station, Module module, int address, Enum<?> role) {
+            this.station = station;
+            this.module = module;
+            this.address = address;
+            this.role = role;
+        }
+
+        public Station getStation() {
+            return station;
+        }
+
+        public Module getModule() {
+            return module;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        /**
+         * Gets the role of the node.
+         *
+         * @return Role (e.g. MASTER, SLAVE, CONTROLLER or DEVICE), null if the module is not a member of the subnet.
+         */
+        public Enum<?> getRole() {
+            return role;
+        }
+    }
+
+    private final List<Station> stations;
+    private final Map<String, Map<Integer, Subnet>> subnets = new LinkedHashMap<>();
+    private final List<Subnet> subnetList = new ArrayList<>();
+    private final Map<String, List<Member>> nodesByName = new HashMap<>();
+
+    private Project(List<Station> stations) {
+        this.stations = List.copyOf(stations);
+    }
+
+    /**
+     * Parses station files in parallel and builds a project of the (frozen) stations.
+     *
+     * @param files Exported HW config files.
+     * @param executor Executor files are parsed on.
+     * @return Project with stations in the order of the files.
+     */
+    public static Project readFromFiles(Collection<File> files, ExecutorService executor) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        return readFromFiles(files, executor, STEP7HWCfgFileDiagnosticsSink.SYSTEM_ERR);
+    }
+
+    /**
+     * Parses station files in parallel and builds a project of the (frozen) stations, reporting problems which don't
+     * stop parsing to a sink shared by the files.
+     *
+     * @param files Exported HW config files.
+     * @param executor Executor files are parsed on.
+     * @param diagnostics Thread-safe sink of problems.
+     * @return Project with stations in the order of the files.
+     */
+    public static Project readFromFiles(Collection<File> files, ExecutorService executor, STEP7HWCfgFileDiagnosticsSink diagnostics) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        List<Future<Station>> futures = new ArrayList<>(files.size());
+
+        for (File file : files) {
+            futures.add(executor.submit(() -> HWConfig.readFromFile(file, diagnostics).freeze().getStation()));
+        }
+
+        List<Station> stations = new ArrayList<>(files.size());
+
+        for (Future<Station> future : futures) {
+            stations.add(await(future));
+        }
+
+        return of(stations, executor);
+    }
+
+    /**
+     * Builds a project of stations.
+     *
+     * @param stations
+     * @param executor Executor the subnets of the stations are collected on.
+     * @return Project
+     */
+    public static Project of(Collection<Station> stations, ExecutorService executor) {
+        Project res = new Project(new ArrayList<>(stations));
+        List<Future<List<Subnet>>> futures = new ArrayList<>(stations.size());
+
+        for (Station station : res.stations) {
+            futures.add(executor.submit(() -> collectSubnets(station)));
+        }
+
+        try {
+            for (Future<List<Subnet>> future : futures) {
+                future.get().forEach(res::merge);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Collecting subnets failed", e.getCause());
+        }
+
+        for (Subnet subnet : res.subnetList) {
+            subnet.buildIndex();
+            res.nodesByName.computeIfAbsent(subnet.name, key -> new ArrayList<>()).addAll(subnet.members);
+        }
+
+        res.nodesByName.replaceAll((name, nodes) -> Collections.unmodifiableList(nodes));
+
+        return res;
+    }
+
+    /**
+     * Gets the stations.
+     *
+     * @return Read-only list of stations.
+     */
+    public List<Station> getStations() {
+        return stations;
+    }
+
+    /**
+     * Gets the merged subnets.
+     *
+     * @return Read-only list of subnets in the order they first appear in the stations.
+     */
+    public List<Subnet> getSubnets() {
+        return Collections.unmodifiableList(subnetList);
+    }
+
+    /**
+     * Gets the subnets of a name. Usually there is only one, unless different subnets share a name.
+     *
+     * @param name
+     * @return Subnets of the name, empty if there is none.
+     */
+    public List<Subnet> getSubnetsByName(String name) {
+        return List.copyOf(subnets.getOrDefault(name, Map.of()).values());
+    }
+
+    /**
+     * Gets a subnet.
+     *
+     * @param name
+     * @param number
+     * @return
+     */
+    public Optional<Subnet> getSubnet(String name, Integer number) {
+        return Optional.ofNullable(subnets.getOrDefault(name, Map.of()).get(number));
+    }
+
+    /**
+     * Gets all nodes of the subnets of a name, plant-wide.
+     *
+     * @param name Name of subnet (e.g. "PROFIBUS(1)").
+     * @return Read-only list of nodes of all stations, empty if there is no such subnet.
+     */
+    public List<Member> getNodes(String name) {
+        return nodesByName.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Collects the subnets of a station with their nodes, as single station subnets.
+     */
+    private static List<Subnet> collectSubnets(Station station) {
+        List<Subnet> res = new ArrayList<>(station.getSubnets().size());
+
+        for (Subsystem subsystem : station.getSubnets().values()) {
+            Subnet subnet = new Subnet(subsystem);
+            subnet.subsystems.add(subsystem);
+
+            subsystem.getNodes().forEach((address, module) -> {
+                SubsystemMemberShip memberShip = ((HWComponent) module).getSubsystemMemberShip();
+                Enum<?> role = memberShip != null && memberShip.getSubsystem() == subsystem ? memberShip.getRole() : null;
+
+                subnet.members.add(new Member(station, module, address, role));
+            });
+
+            res.add(subnet);
+        }
+
+        return res;
+    }
+
+    private void merge(Subnet stationSubnet) {
+        Subnet subnet = subnets.computeIfAbsent(stationSubnet.name, key -> new LinkedHashMap<>())
+                .computeIfAbsent(stationSubnet.number, key -> {
+                    subnetList.add(stationSubnet);
+                    return stationSubnet;
+                });
+
+        if (subnet != stationSubnet) {
+            subnet.subsystems.addAll(stationSubnet.subsystems);
+            subnet.members.addAll(stationSubnet.members);
+        }
+    }
+
+    /**
+     * Waits for a task, rethrowing its parse and I/O exceptions.
+     */
+    private static <T> T await(Future<T> future) throws STEP7HWCfgFileFormatException, IOException, STEP7HWCfgFileSectionFormatErrorException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof STEP7HWCfgFileFormatException) {
+                throw (STEP7HWCfgFileFormatException) cause;
+            } else if (cause instanceof STEP7HWCfgFileSectionFormatErrorException) {
+                throw (STEP7HWCfgFileSectionFormatErrorException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+}
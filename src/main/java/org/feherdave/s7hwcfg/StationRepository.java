@@ -0,0 +1,400 @@
+package org.feherdave.s7hwcfg;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.TextIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory repository of the stations of a directory of .cfg files.
+ *
+ * The directory is watched for changes. Change events of a file are debounced, then the file is re-parsed on the
+ * given executor and the new (frozen) station replaces the old one atomically. Readers never block: they always
+ * see either the old or the new station. Reloads of a file run one after the other, so an older parse never replaces
+ * the station of a newer one. If a file cannot be parsed, the previously loaded station is kept and the error is
+ * available from {@link #getLastFailure(Path)}.
+ *
+ * The names and data values of the loaded stations are kept in a full-text index, updated with every reload.
+ */
+public class StationRepository implements Closeable {
+
+    /**
+     * Snapshot of repository metrics.
+     */
+    public static class Metrics {
+        private final long reloads;
+        private final long failedReloads;
+        private final long lastReloadNanos;
+        private final long maxReloadNanos;
+        private final long totalReloadNanos;
+        private final int pendingReloads;
+        private final int queueDepth;
+        private final long watchErrors;
+
+        private Metrics(long reloads, long failedReloads, long lastReloadNanos, long maxReloadNanos, long totalReloadNanos, int pendingReloads, int queueDepth, long watchErrors) {
+            this.reloads = reloads;
+            this.failedReloads = failedReloads;
+            this.lastReloadNanos = lastReloadNanos;
+            this.maxReloadNanos = maxReloadNanos;
+            this.totalReloadNanos = totalReloadNanos;
+            this.pendingReloads = pendingReloads;
+            this.queueDepth = queueDepth;
+            this.watchErrors = watchErrors;
+        }
+
+        /** Number of successful (re)loads. */
+        public long getReloads() {
+            return reloads;
+        }
+
+        /** Number of (re)loads that failed. */
+        public long getFailedReloads() {
+            return failedReloads;
+        }
+
+        /** Parse time of the last (re)load in nanoseconds. */
+        public long getLastReloadNanos() {
+            return lastReloadNanos;
+        }
+
+        /** Maximum parse time of a (re)load in nanoseconds. */
+        public long getMaxReloadNanos() {
+            return maxReloadNanos;
+        }
+
+        /** Average parse time of a (re)load in nanoseconds. */
+        public long getAverageReloadNanos() {
+            long count = reloads + failedReloads;
+
+            return count == 0 ? 0 : totalReloadNanos / count;
+        }
+
+        /** Number of files waiting for the debounce delay to expire. */
+        public int getPendingReloads() {
+            return pendingReloads;
+        }
+
+        /** Number of reloads submitted to the executor and not yet finished. */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /** Number of errors while watching the directory (e.g. listing it after lost events). */
+        public long getWatchErrors() {
+            return watchErrors;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{" +
+                    "reloads=" + reloads +
+                    ", failedReloads=" + failedReloads +
+                    ", lastReloadNanos=" + lastReloadNanos +
+                    ", maxReloadNanos=" + maxReloadNanos +
+                    ", averageReloadNanos=" + getAverageReloadNanos() +
+                    ", pendingReloads=" + pendingReloads +
+                    ", queueDepth=" + queueDepth +
+                    ", watchErrors=" + watchErrors +
+                    '}';
+        }
+    }
+
+    private static final String CFG_FILE_EXTENSION = ".cfg";
+
+    private final Path directory;
+    private final Executor parseExecutor;
+    private final long debounceMillis;
+    private final Map<Path, Station> stations = new ConcurrentHashMap<>();
+    private final TextIndex textIndex = new TextIndex();
+    private final Map<Path, ScheduledFuture<?>> pendingReloads = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<Void>> runningReloads = new ConcurrentHashMap<>();
+    private final Map<Path, Exception> lastFailures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService debounceScheduler;
+    private final WatchService watchService;
+    private final Thread watcherThread;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder failedReloads = new LongAdder();
+    private final LongAdder totalReloadNanos = new LongAdder();
+    private final AtomicLong lastReloadNanos = new AtomicLong();
+    private final AtomicLong maxReloadNanos = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder watchErrors = new LongAdder();
+
+    private StationRepository(Path directory, Executor parseExecutor, long debounceMillis) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.parseExecutor = parseExecutor;
+        this.debounceMillis = debounceMillis;
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.debounceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "station-repository-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        this.watcherThread = new Thread(this::watch, "station-repository-watcher");
+        this.watcherThread.setDaemon(true);
+    }
+
+    /**
+     * Loads all .cfg files of a directory and starts watching it.
+     *
+     * @param directory Directory containing exported HW config files.
+     * @param parseExecutor Executor the files are parsed on.
+     * @param debounce Quiet period to wait after the last change event of a file before re-parsing it.
+     * @return StationRepository
+     * @throws RejectedExecutionException if the executor rejects parsing the files.
+     */
+    public static StationRepository open(Path directory, Executor parseExecutor, Duration debounce) throws IOException {
+        StationRepository res = new StationRepository(directory, parseExecutor, debounce.toMillis());
+
+        try {
+            res.loadAll();
+        } catch (IOException | RuntimeException e) {
+            res.close();
+            throw e;
+        }
+
+        res.watcherThread.start();
+
+        return res;
+    }
+
+    /**
+     * Gets the station parsed from the given file.
+     *
+     * @param file Path of .cfg file (absolute or relative to the repository directory).
+     * @return Optional containing the station, empty if the file is not loaded.
+     */
+    public Optional<Station> getStation(Path file) {
+        return Optional.ofNullable(stations.get(directory.resolve(file).normalize()));
+    }
+
+    /**
+     * Gets all loaded stations.
+     *
+     * @return Read-only view of file path to station.
+     */
+    public Map<Path, Station> getStations() {
+        return Collections.unmodifiableMap(stations);
+    }
+
+    /**
+     * Gets the full-text index of the loaded stations.
+     *
+     * @return TextIndex
+     */
+    public TextIndex getTextIndex() {
+        return textIndex;
+    }
+
+    /**
+     * Gets the error of the last failed (re)load of a file. Errors of listing the directory while watching it are
+     * recorded for the directory.
+     *
+     * @param file Path of .cfg file (absolute or relative to the repository directory), or the directory.
+     * @return Optional containing the error, empty if the last (re)load succeeded.
+     */
+    public Optional<Exception> getLastFailure(Path file) {
+        return Optional.ofNullable(lastFailures.get(directory.resolve(file).normalize()));
+    }
+
+    /**
+     * Gets the repository directory.
+     *
+     * @return
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets a snapshot of reload metrics.
+     *
+     * @return Metrics
+     */
+    public Metrics getMetrics() {
+        return new Metrics(reloads.sum(), failedReloads.sum(), lastReloadNanos.get(), maxReloadNanos.get(),
+                totalReloadNanos.sum(), pendingReloads.size(), queueDepth.get(), watchErrors.sum());
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcherThread.interrupt();
+        debounceScheduler.shutdownNow();
+        watchService.close();
+    }
+
+    /**
+     * Loads all .cfg files of the directory and waits until they are parsed.
+     */
+    private void loadAll() throws IOException {
+        List<Path> files;
+
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(StationRepository::isCfgFile).collect(Collectors.toList());
+        }
+
+        try {
+            CompletableFuture.allOf(files.stream().map(this::reload).toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Processes watch events until the repository is closed.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, check every file
+                        try (Stream<Path> list = Files.list(directory)) {
+                            list.filter(StationRepository::isCfgFile).forEach(this::scheduleReload);
+                        } catch (IOException | UncheckedIOException e) {
+                            // Keep watching, the files are checked again with the next events
+                            watchErrors.increment();
+                            lastFailures.put(directory, e);
+                        }
+                        stations.keySet().stream().filter(file -> !Files.exists(file)).forEach(this::scheduleReload);
+                    } else {
+                        Path file = directory.resolve((Path) event.context());
+
+                        if (isCfgFile(file)) {
+                            scheduleReload(file);
+                        }
+                    }
+                }
+
+                if (!key.reset()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Repository closed
+        }
+    }
+
+    /**
+     * Schedules a reload of the file after the debounce delay, replacing an already scheduled reload.
+     *
+     * @param file
+     */
+    private void scheduleReload(Path file) {
+        try {
+            pendingReloads.compute(file, (path, pending) -> {
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+
+                return debounceScheduler.schedule(() -> {
+                    pendingReloads.remove(path);
+                    reload(path);
+                }, debounceMillis, TimeUnit.MILLISECONDS);
+            });
+        } catch (RejectedExecutionException e) {
+            // Repository closed
+        }
+    }
+
+    /**
+     * Re-parses a file on the parse executor and swaps in the new station, after the running reloads of the file
+     * have finished. Removes the station if the file doesn't exist anymore.
+     *
+     * If the executor rejects the reload (e.g. it has been shut down), the error is recorded as the last failure of
+     * the file and the returned future fails with it.
+     *
+     * @param file
+     * @return Future completed when the reload has finished.
+     */
+    private CompletableFuture<Void> reload(Path file) {
+        CompletableFuture<Void> parsed;
+
+        // Counted before submitting, parse() may finish before the submit returns
+        queueDepth.incrementAndGet();
+
+        try {
+            parsed = runningReloads.compute(file, (path, running) -> running == null
+                    ? CompletableFuture.runAsync(() -> parse(path), parseExecutor)
+                    : running.exceptionally(e -> null).thenRunAsync(() -> parse(path), parseExecutor));
+        } catch (RejectedExecutionException e) {
+            rejected(file, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return parsed.whenComplete((result, e) -> {
+            runningReloads.remove(file, parsed);
+
+            // Rejected after the previous reload of the file, parse() hasn't run
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+
+            if (cause instanceof RejectedExecutionException) {
+                rejected(file, (RejectedExecutionException) cause);
+            }
+        });
+    }
+
+    private void rejected(Path file, RejectedExecutionException e) {
+        queueDepth.decrementAndGet();
+        failedReloads.increment();
+        lastFailures.put(file, e);
+    }
+
+    /**
+     * Parses a file and swaps in the new station.
+     *
+     * @param file
+     */
+    private void parse(Path file) {
+        long start = System.nanoTime();
+
+        try {
+            if (Files.exists(file)) {
+                Station station = HWConfig.readFromFile(file.toFile()).freeze().getStation();
+                stations.compute(file, (path, old) -> {
+                    textIndex.replace(old, station);
+                    return station;
+                });
+            } else {
+                stations.computeIfPresent(file, (path, old) -> {
+                    textIndex.remove(old);
+                    return null;
+                });
+            }
+
+            reloads.increment();
+            lastFailures.remove(file);
+        } catch (Exception e) {
+            failedReloads.increment();
+            lastFailures.put(file, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+
+            totalReloadNanos.add(elapsed);
+            lastReloadNanos.set(elapsed);
+            maxReloadNanos.accumulateAndGet(elapsed, Math::max);
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    private static boolean isCfgFile(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(CFG_FILE_EXTENSION);
+    }
+}
@@ -2,144 +2,613 @@ package org.feherdave.s7hwcfg.cfgfile;
 
 import org.feherdave.s7hwcfg.s7.Station;
 import org.feherdave.s7hwcfg.s7.StationBuilder;
+import org.feherdave.s7hwcfg.s7.UnresolvedReference;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
 import org.feherdave.s7hwcfg.s7.hw.module.*;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
 import org.feherdave.s7hwcfg.s7.system.Subsystem;
 import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
 import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class STEP7HWCfgFile {
 
-    enum FileFormat { READABLE, COMPACT }
+    public enum FileFormat { READABLE, COMPACT }
+
+    private static final Pattern FILE_VERSION_PATTERN = Pattern.compile("^FILEVERSION \\\"([a-zA-Z0-9]+\\.[a-zA-Z0-9]+)\\\"$");
+    private static final Pattern META_DATA_PATTERN = Pattern.compile("^\\#(?<metatag>[A-Z0-9_]+)\\s(?<metadata>.+)$");
+    private static final Pattern COMPACT_FORMAT_PATTERN = Pattern.compile("^FORMAT\\sCOMPACT$");
 
     private String fileVersion;
+    private Charset charset;
     private FileFormat format = FileFormat.READABLE;
     private Map<String, String> metaData = new HashMap<>();
     private List<STEP7HWCfgFileSection> sections = new ArrayList<>();
     private StationBuilder actualStationBuilder;
+    private Map<Long, SubsystemRack> subsystemRacks;
+    private STEP7HWCfgFileSectionHandlers sectionHandlers;
+    private STEP7HWCfgFileReadMonitor monitor = STEP7HWCfgFileReadMonitor.NONE;
+    private STEP7HWCfgFileDiagnosticsSink diagnostics = STEP7HWCfgFileDiagnosticsSink.SYSTEM_ERR;
+    private int parsedCount;
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 8192;
 
     public STEP7HWCfgFile(File file) throws STEP7HWCfgFileFormatException, IOException {
+        this(file, null);
+    }
+
+    /**
+     * Reads a config file.
+     *
+     * @param file Config file.
+     * @param charset Encoding of the file, or null to detect it from the first bytes of the file
+     *                (byte order mark, UTF-16 pattern, valid UTF-8, Windows-1252 otherwise).
+     */
+    public STEP7HWCfgFile(File file, Charset charset) throws STEP7HWCfgFileFormatException, IOException {
+        this(file, charset, STEP7HWCfgFileReadMonitor.NONE);
+    }
+
+    /**
+     * Reads a config file, reporting progress to a monitor. Sections are built as they are read, the monitor is
+     * notified and checked for cancellation after each section. The monitor is kept for {@link #parseSections()}.
+     *
+     * @param file Config file.
+     * @param charset Encoding of the file, or null to detect it.
+     * @param monitor Progress monitor.
+     * @throws java.util.concurrent.CancellationException if the monitor cancels reading.
+     */
+    public STEP7HWCfgFile(File file, Charset charset, STEP7HWCfgFileReadMonitor monitor) throws STEP7HWCfgFileFormatException, IOException {
+        this.monitor = monitor;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            STEP7HWCfgFileEncoding encoding = detectEncoding(channel, charset);
+            channel.position(encoding.getBomLength());
+
+            try (STEP7HWCfgFileLineReader reader = new STEP7HWCfgFileLineReader(channel, encoding)) {
+                read(reader, encoding, fileSize);
+            }
+        }
+    }
+
+    private STEP7HWCfgFile() {
+    }
 
-        try (Scanner scanner = new Scanner(file)) {
+    /**
+     * Reads a config file using several threads.
+     *
+     * The file is memory-mapped and split into chunks at blank lines (section boundaries). The chunks are decoded
+     * and split into sections in parallel, then the sections are merged in file order. The result is the same
+     * as the one of {@link #STEP7HWCfgFile(File)}.
+     * UTF-16 files can't be split on the byte level, they are read sequentially.
+     *
+     * @param file Config file.
+     * @param executor Executor chunks are processed on.
+     * @return STEP7HWCfgFile
+     */
+    public static STEP7HWCfgFile readParallel(File file, ExecutorService executor) throws STEP7HWCfgFileFormatException, IOException {
+        return readParallel(file, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads a config file using several threads, see {@link #readParallel(File, ExecutorService)}.
+     *
+     * @param file Config file.
+     * @param executor Executor chunks are processed on.
+     * @param chunkSize Target size of chunks in bytes (chunks end at the first blank line after this size).
+     * @return STEP7HWCfgFile
+     */
+    public static STEP7HWCfgFile readParallel(File file, ExecutorService executor, int chunkSize) throws STEP7HWCfgFileFormatException, IOException {
+        STEP7HWCfgFile res = new STEP7HWCfgFile();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
 
-            if (!scanner.hasNext()) {
+            if (size == 0) {
                 throw new STEP7HWCfgFileFormatException("File too short (line count 0).");
             }
 
-            List<String> headerLines = new ArrayList<>();
-            List<String> sectionLines = new ArrayList<>();
+            STEP7HWCfgFileEncoding encoding = detectEncoding(channel, null);
 
-            // Read lines
-            if (scanner.hasNext()) {
+            if (!encoding.isAsciiCompatible()) {
+                // Chunks can't be split on the byte level
+                return new STEP7HWCfgFile(file, encoding.getCharset());
+            }
 
-                // Read header
-                boolean contentStartFound = false;
-                String line;
+            res.charset = encoding.getCharset();
+
+            // Read header
+            long contentStart = findContentStart(channel, encoding.getBomLength());
+            MappedByteBuffer headerBytes = channel.map(FileChannel.MapMode.READ_ONLY, encoding.getBomLength(), contentStart - encoding.getBomLength());
+            List<String> headerLines = readLines(new STEP7HWCfgFileLineReader(headerBytes, encoding));
+            int headerLineCount = headerLines.size();
+            res.parseHeader(headerLines);
 
-                do {
-                    line = scanner.nextLine();
+            // Split content into chunks at section boundaries
+            List<long[]> chunks = new ArrayList<>();
+            long chunkStart = contentStart;
+
+            while (chunkStart < size) {
+                long chunkEnd = findSectionBoundary(channel, Math.min(chunkStart + chunkSize, size));
+                chunks.add(new long[] { chunkStart, chunkEnd });
+                chunkStart = chunkEnd;
+            }
 
-                    contentStartFound = line.startsWith("STATION");
+            // Read sections of chunks in parallel
+            List<Future<Chunk>> chunkSections = new ArrayList<>(chunks.size());
+
+            for (long[] chunk : chunks) {
+                MappedByteBuffer chunkBytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                chunkSections.add(executor.submit(() -> new Chunk(readLines(new STEP7HWCfgFileLineReader(chunkBytes, encoding)))));
+            }
+
+            try {
+                // Line numbers of chunks are known once the lines of the previous chunks are counted
+                int lineOffset = headerLineCount;
+
+                for (Future<Chunk> future : chunkSections) {
+                    Chunk chunk = future.get();
+
+                    for (STEP7HWCfgFileSection section : chunk.sections) {
+                        section.setLineNumber(section.getLineNumber() + lineOffset);
+                    }
+
+                    res.sections.addAll(chunk.sections);
+                    lineOffset += chunk.lineCount;
+                }
+            } catch (InterruptedException e) {
+                chunkSections.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IOException("Reading interrupted", e);
+            } catch (ExecutionException e) {
+                chunkSections.forEach(future -> future.cancel(true));
+
+                if (e.getCause() instanceof STEP7HWCfgFileFormatException) {
+                    throw (STEP7HWCfgFileFormatException) e.getCause();
+                }
+
+                throw new IOException("Reading a chunk failed", e.getCause());
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Reads a config file into a single buffer outside the Java heap.
+     *
+     * The buffer is either a read-only mapping of the file or a direct buffer holding a copy of it. Lines of ASCII
+     * characters (i.e. nearly all lines) are kept in the sections as {@link STEP7HWCfgFileTextView}s into the buffer
+     * instead of Strings, see {@link STEP7HWCfgFileSection#getRawBody()}. The String getters of the sections create
+     * Strings on demand. UTF-16 files are read into Strings, as by {@link #STEP7HWCfgFile(File)}.
+     *
+     * @param file Config file (at most 2 GB).
+     * @param mapped true to map the file, false to copy it into a direct buffer (the file may change afterwards).
+     * @return STEP7HWCfgFile
+     */
+    public static STEP7HWCfgFile readOffHeap(File file, boolean mapped) throws STEP7HWCfgFileFormatException, IOException {
+        STEP7HWCfgFile res = new STEP7HWCfgFile();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large for a single buffer: " + size + " bytes");
+            }
+
+            STEP7HWCfgFileEncoding encoding = detectEncoding(channel, null);
+
+            if (!encoding.isAsciiCompatible()) {
+                return new STEP7HWCfgFile(file, encoding.getCharset());
+            }
+
+            ByteBuffer text;
+
+            if (mapped) {
+                text = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                text = ByteBuffer.allocateDirect((int) size);
+
+                while (text.hasRemaining() && channel.read(text) >= 0) {
+                    // Read until full
+                }
+
+                text.flip();
+            }
+
+            text.position(encoding.getBomLength());
+            res.read(new STEP7HWCfgFileText(text, encoding), encoding, size);
+        }
+
+        return res;
+    }
+
+    /**
+     * Reads only the header and the title of the STATION section of a config file, for indexing many files. Reading
+     * stops at the STATION line, usually after the first few kilobytes of the file.
+     *
+     * @param file Config file.
+     * @return Header of the file.
+     * @throws STEP7HWCfgFileFormatException if the header or the STATION line is missing.
+     * @throws STEP7HWCfgFileSectionFormatErrorException if the STATION line can't be parsed.
+     */
+    public static STEP7HWCfgFileHeader readHeader(File file) throws STEP7HWCfgFileFormatException, STEP7HWCfgFileSectionFormatErrorException, IOException {
+        STEP7HWCfgFile res = new STEP7HWCfgFile();
+        List<String> headerLines = new ArrayList<>();
+        String stationLine = null;
+        long bytesRead;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            STEP7HWCfgFileEncoding encoding = detectEncoding(channel, null);
+            channel.position(encoding.getBomLength());
+            res.charset = encoding.getCharset();
+
+            try (STEP7HWCfgFileLineReader reader = new STEP7HWCfgFileLineReader(channel, encoding, SCAN_BUFFER_SIZE)) {
+                String line;
 
-                    if (!contentStartFound) {
-                        headerLines.add(line);
+                while ((line = reader.readLine()) != null) {
+                    if (startsWith(line, "STATION")) {
+                        stationLine = line.trim();
+                        break;
                     }
-                } while (scanner.hasNext() && !contentStartFound);
 
-                if (!contentStartFound) {
-                    throw new STEP7HWCfgFileFormatException("STATION section missing.");
+                    headerLines.add(line);
                 }
 
-                // Read content
+                bytesRead = channel.position() - encoding.getBomLength();
+            }
+        }
+
+        if (headerLines.isEmpty() && stationLine == null) {
+            throw new STEP7HWCfgFileFormatException("File too short (line count 0).");
+        }
+
+        if (stationLine == null) {
+            throw new STEP7HWCfgFileFormatException("STATION section missing.");
+        }
+
+        res.parseHeader(headerLines);
+
+        Matcher m = Pattern.compile(STEP7HWCfgFileSection.SECTHEAD_REGEXP_STATION).matcher(stationLine);
+
+        if (!m.matches()) {
+            throw new STEP7HWCfgFileSectionFormatErrorException("Format error in STATION section.");
+        }
+
+        return new STEP7HWCfgFileHeader(res.fileVersion, res.charset, res.format, res.metaData,
+                stationType(m.group("stationtype")), m.group("stationname"), bytesRead);
+    }
+
+    /**
+     * Reads the header and the sections from a line source.
+     *
+     * @param source
+     * @param encoding Encoding of the file.
+     * @param fileSize Size of the file in bytes.
+     */
+    private void read(STEP7HWCfgFileLineSource source, STEP7HWCfgFileEncoding encoding, long fileSize) throws IOException, STEP7HWCfgFileFormatException {
+        List<String> headerLines = new ArrayList<>();
+
+        // Read header
+        CharSequence line = source.readLine();
+
+        if (line == null) {
+            throw new STEP7HWCfgFileFormatException("File too short (line count 0).");
+        }
+
+        while (line != null && !startsWith(line, "STATION")) {
+            headerLines.add(line.toString());
+            line = source.readLine();
+        }
+
+        if (line == null) {
+            throw new STEP7HWCfgFileFormatException("STATION section missing.");
+        }
+
+        this.charset = encoding.getCharset();
+        parseHeader(headerLines);
+
+        // Read content section by section
+        SectionCollector collector = new SectionCollector(headerLines.size() + 1);
 
-                do {
-                    sectionLines.add(line);
+        while (line != null) {
+            CharSequence next = source.readLine();
+            STEP7HWCfgFileSection section = collector.add(line, next == null);
 
-                    if (scanner.hasNext()) {
-                        line = scanner.nextLine();
+            if (section != null) {
+                sections.add(section);
+                monitor.sectionRead(source.getBytesRead() + encoding.getBomLength(), fileSize, sections.size());
+                checkCancelled();
+            }
+
+            line = next;
+        }
+    }
+
+    private static boolean startsWith(CharSequence line, String prefix) {
+        if (line.length() < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the offset of the first line starting with STATION.
+     *
+     * @param channel
+     * @param start Offset of the first line.
+     * @return Offset of STATION line.
+     * @throws STEP7HWCfgFileFormatException if there is no STATION line.
+     */
+    private static long findContentStart(FileChannel channel, long start) throws IOException, STEP7HWCfgFileFormatException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        byte[] station = "STATION".getBytes(StandardCharsets.US_ASCII);
+        long position = start;
+        long lineStart = start;
+        int matched = 0;
+        boolean atLineStart = true;
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+
+                if (b == '\n' || b == '\r') {
+                    atLineStart = true;
+                    matched = 0;
+                    lineStart = position + 1;
+                } else if (atLineStart && b == station[matched]) {
+                    if (++matched == station.length) {
+                        return lineStart;
                     }
-                } while (scanner.hasNext());
+                } else {
+                    atLineStart = false;
+                }
 
-                parseHeader(headerLines);
-                readSections(sectionLines);
+                position++;
             }
+
+            buffer.clear();
         }
+
+        throw new STEP7HWCfgFileFormatException("STATION section missing.");
     }
 
     /**
-     * Parse header lines.
+     * Finds the end of the first blank line at or after the given offset.
      *
-     * @param headerLines
-     * @throws STEP7HWCfgFileFormatException
+     * @param channel
+     * @param from Offset to start searching from.
+     * @return Offset of the first byte after the blank line, or the size of the file.
      */
-    private void parseHeader(List<String> headerLines) throws STEP7HWCfgFileFormatException {
-        String fileVersionRegex = "^FILEVERSION \\\"([a-zA-Z0-9]+\\.[a-zA-Z0-9]+)\\\"$";
-        String metaDataRegex = "^\\#(?<metatag>[A-Z0-9_]+)\\s(?<metadata>.+)$";
-        String compactFormatRegex = "^FORMAT\\sCOMPACT$";
+    private static long findSectionBoundary(FileChannel channel, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        byte previous = 0;
+        byte beforePrevious = 0;
+
+        if (from > 0 && from < channel.size()) {
+            // Include the terminator of the line the search starts in
+            ByteBuffer previousBytes = ByteBuffer.allocate((int) Math.min(2, from));
+            channel.read(previousBytes, from - previousBytes.capacity());
+            previousBytes.flip();
+
+            while (previousBytes.hasRemaining()) {
+                beforePrevious = previous;
+                previous = previousBytes.get();
+            }
+        }
 
-        // Read file version
-        Pattern fileVersionPattern = Pattern.compile(fileVersionRegex);
-        String fileVersionLine = headerLines.stream().filter(line -> line.matches(fileVersionRegex)).findFirst().orElseThrow(() -> new STEP7HWCfgFileFormatException("FILEVERSION entry missing from file"));
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
 
-        Matcher ma =  fileVersionPattern.matcher(fileVersionLine);
-        ma.matches();
-        this.fileVersion = ma.group(1);
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                position++;
 
-        // Collect metadata
-        Pattern p = Pattern.compile(metaDataRegex);
+                // "\n\n" or "\n\r\n" ends a blank line
+                if (b == '\n' && (previous == '\n' || (previous == '\r' && beforePrevious == '\n'))) {
+                    return position;
+                }
 
-        headerLines.stream()
-                .filter(line -> line.matches(metaDataRegex))
-                .forEach(line -> {
-                            Matcher m = p.matcher(line);
+                beforePrevious = previous;
+                previous = b;
+            }
 
-                            if (m.matches()) {
-                                metaData.put(m.group("metatag"), m.group("metadata"));
-                            }
-                        }
-                    );
+            buffer.clear();
+        }
+
+        return channel.size();
+    }
+
+    /**
+     * Detects the encoding of a file.
+     *
+     * @param channel
+     * @param charset Encoding set by the caller or null.
+     * @return Encoding of the file.
+     */
+    private static STEP7HWCfgFileEncoding detectEncoding(FileChannel channel, Charset charset) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        channel.read(head, 0);
+        head.flip();
+
+        STEP7HWCfgFileEncoding detected = STEP7HWCfgFileEncoding.detect(head);
 
-        // Check format
-        if (headerLines.stream().anyMatch(line -> line.matches(compactFormatRegex))) {
-            this.format = FileFormat.COMPACT;
+        if (charset == null || charset.equals(detected.getCharset())) {
+            return detected;
         }
+
+        return new STEP7HWCfgFileEncoding(charset, 0);
     }
 
     /**
-     * Read sections.
+     * Reads all lines of a line reader.
+     *
+     * @param reader
+     * @return List of lines.
+     */
+    private static List<String> readLines(STEP7HWCfgFileLineReader reader) throws IOException {
+        List<String> res = new ArrayList<>();
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            res.add(line);
+        }
+
+        return res;
+    }
+
+    /**
+     * Parse header lines.
+     *
+     * @param headerLines
+     * @throws STEP7HWCfgFileFormatException
+     */
+    private void parseHeader(List<String> headerLines) throws STEP7HWCfgFileFormatException {
+        for (String line : headerLines) {
+            Matcher m;
+
+            if (fileVersion == null && (m = FILE_VERSION_PATTERN.matcher(line)).matches()) {
+                // Read file version
+                this.fileVersion = m.group(1);
+            } else if ((m = META_DATA_PATTERN.matcher(line)).matches()) {
+                // Collect metadata
+                metaData.put(m.group("metatag"), m.group("metadata"));
+            } else if (COMPACT_FORMAT_PATTERN.matcher(line).matches()) {
+                // Check format
+                this.format = FileFormat.COMPACT;
+            }
+        }
+
+        if (fileVersion == null) {
+            throw new STEP7HWCfgFileFormatException("FILEVERSION entry missing from file");
+        }
+    }
+
+    /**
+     * Read sections. Sections are separated by blank lines, each section has to end with END. Line numbers of the
+     * sections start at 1 with the first line.
      *
      * @param sectionLines
+     * @return List of sections.
      * @throws STEP7HWCfgFileFormatException
      */
-    private void readSections(List<String> sectionLines) throws STEP7HWCfgFileFormatException {
+    static List<STEP7HWCfgFileSection> readSections(List<String> sectionLines) throws STEP7HWCfgFileFormatException {
+        List<STEP7HWCfgFileSection> res = new ArrayList<>();
+        SectionCollector collector = new SectionCollector(1);
         Iterator<String> iter = sectionLines.iterator();
 
-        if (iter.hasNext()) {
-            List<String> sectionStringData = new ArrayList<>();
+        while (iter.hasNext()) {
+            STEP7HWCfgFileSection section = collector.add(iter.next(), !iter.hasNext());
 
-            do {
-                String line = iter.next();
+            if (section != null) {
+                res.add(section);
+            }
+        }
 
-                if (!line.isEmpty()) {
-                    sectionStringData.add(line.trim());
-                } else {
-                    if (!sectionStringData.get(sectionStringData.size() - 1).equals("END")) {
-                        throw new STEP7HWCfgFileFormatException("END missing in the following section: " + String.join("\n", sectionStringData));
-                    }
+        return res;
+    }
+
+    /**
+     * Sections of a chunk of a file with their line numbers relative to the chunk.
+     */
+    private static class Chunk {
+
+        private final List<STEP7HWCfgFileSection> sections;
+        private final int lineCount;
 
-                    sections.add(new STEP7HWCfgFileSection(sectionStringData));
-                    sectionStringData = new ArrayList<>();
+        Chunk(List<String> lines) throws STEP7HWCfgFileFormatException {
+            this.sections = readSections(lines);
+            this.lineCount = lines.size();
+        }
+    }
+
+    /**
+     * Collects the lines of sections. Sections are separated by blank lines, each section has to end with END.
+     */
+    private static class SectionCollector {
+
+        private List<CharSequence> sectionStringData = new ArrayList<>();
+        private int lineNumber;
+        private int sectionLineNumber;
+
+        /**
+         * @param firstLineNumber Line number of the first line added.
+         */
+        SectionCollector(int firstLineNumber) {
+            this.lineNumber = firstLineNumber - 1;
+        }
+
+        /**
+         * Adds a line.
+         *
+         * @param line String or text view.
+         * @param last true if this is the last line.
+         * @return The section ended by the line, or null.
+         * @throws STEP7HWCfgFileFormatException
+         */
+        STEP7HWCfgFileSection add(CharSequence line, boolean last) throws STEP7HWCfgFileFormatException {
+            boolean blank = STEP7HWCfgFileSection.isBlank(line);
+            lineNumber++;
+
+            if (!blank) {
+                if (sectionStringData.isEmpty()) {
+                    sectionLineNumber = lineNumber;
                 }
-            } while (iter.hasNext());
-        } else {
-            throw new STEP7HWCfgFileFormatException("STATION section doesn't follow rules");
+
+                sectionStringData.add(line instanceof String ? ((String) line).trim() : ((STEP7HWCfgFileTextView) line).trim());
+            }
+
+            if ((blank || last) && !sectionStringData.isEmpty()) {
+                if (!"END".contentEquals(sectionStringData.get(sectionStringData.size() - 1))) {
+                    throw new STEP7HWCfgFileFormatException("END missing in the following section: " + String.join("\n", sectionStringData));
+                }
+
+                STEP7HWCfgFileSection res = new STEP7HWCfgFileSection(sectionStringData);
+                res.setLineNumber(sectionLineNumber);
+                sectionStringData = new ArrayList<>();
+
+                return res;
+            }
+
+            return null;
         }
     }
 
+    /**
+     * Sets the sink of the problems found by {@link #parseSections()} which don't stop parsing. Problems are printed
+     * to System.err by default.
+     *
+     * @param diagnostics
+     */
+    public void setDiagnosticsSink(STEP7HWCfgFileDiagnosticsSink diagnostics) {
+        this.diagnostics = Objects.requireNonNull(diagnostics);
+    }
+
     /**
      * Get file version.
      *
@@ -149,6 +618,15 @@ public class STEP7HWCfgFile {
         return fileVersion;
     }
 
+    /**
+     * Get the character encoding the file was read with.
+     *
+     * @return Charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
     /**
      * Get file format (compact or readable).
      *
@@ -179,80 +657,204 @@ public class STEP7HWCfgFile {
     /**
      * Parses sections and builds HW config objects.
      *
+     * Sections are sorted into the phases of their handlers in one pass, then parsed phase by phase (see
+     * {@link STEP7HWCfgFileSectionHandler.Phase}). Sections without a handler are skipped, they are reported to the
+     * monitor as parsed while sorting.
+     *
      * @return Station The main object of S7 hardware configuration.
      */
     public Station parseSections() throws STEP7HWCfgFileSectionFormatErrorException {
+        STEP7HWCfgFileSectionHandlers handlers = sectionHandlers != null ? sectionHandlers : STEP7HWCfgFileSectionHandlers.defaults();
+        STEP7HWCfgFileSectionHandler.Phase[] phases = STEP7HWCfgFileSectionHandler.Phase.values();
+        List<List<STEP7HWCfgFileSection>> phaseSections = new ArrayList<>(phases.length);
+        List<List<STEP7HWCfgFileSectionHandler>> phaseHandlers = new ArrayList<>(phases.length);
+
+        for (int i = 0; i < phases.length; i++) {
+            phaseSections.add(new ArrayList<>());
+            phaseHandlers.add(new ArrayList<>());
+        }
+
+        parsedCount = 0;
 
-        // Parse station data
         for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.STATION) {
-                actualStationBuilder = parseStationSection(section);
-                break;
+            STEP7HWCfgFileSectionHandler handler = handlers.get(section);
+
+            if (handler != null) {
+                phaseSections.get(handler.getPhase().ordinal()).add(section);
+                phaseHandlers.get(handler.getPhase().ordinal()).add(handler);
+            } else {
+                monitor.sectionParsed(++parsedCount, sections.size());
             }
         }
 
-        // Add racks
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.RACK) {
-                actualStationBuilder.addRack(parseRackSection(section));
+        actualStationBuilder = null;
+        subsystemRacks = new HashMap<>();
+
+        STEP7HWCfgFileSectionContext context = new SectionContext();
+
+        for (int i = 0; i < phases.length; i++) {
+            List<STEP7HWCfgFileSection> sectionsOfPhase = phaseSections.get(i);
+            List<STEP7HWCfgFileSectionHandler> handlersOfPhase = phaseHandlers.get(i);
+
+            for (int j = 0; j < sectionsOfPhase.size(); j++) {
+                checkCancelled();
+                handlersOfPhase.get(j).handle(sectionsOfPhase.get(j), context);
+                monitor.sectionParsed(++parsedCount, sections.size());
             }
         }
 
-        // Add subnets
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.DPSUBSYS ||
-                section.getSectionType() == STEP7HWCfgFileSection.SectionType.IOSUBSYS) {
-                actualStationBuilder.addSubnet(parseSubnetSection(section));
-            }
+        subsystemRacks = null;
+
+        return actualStationBuilder.build();
+    }
+
+    /**
+     * Sets the handlers sections are parsed by.
+     *
+     * @param sectionHandlers Handlers, null for {@link STEP7HWCfgFileSectionHandlers#defaults()}.
+     */
+    public void setSectionHandlers(STEP7HWCfgFileSectionHandlers sectionHandlers) {
+        this.sectionHandlers = sectionHandlers;
+    }
+
+    /**
+     * Parses the STATION section. Only the first one is used.
+     */
+    void handleStationSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        if (actualStationBuilder == null) {
+            actualStationBuilder = parseStationSection(section);
         }
+    }
 
-        // Add modules to racks
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.RACK_SLOT) {
-                SlotModule sm = parseRackSlotModuleSection(section);
+    /**
+     * Parses a rack section and adds the rack to the station.
+     */
+    void handleRackSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        actualStationBuilder.addRack(parseRackSection(section));
+    }
 
-                // Add module to parent rack
-                actualStationBuilder.getRacks().get(sm.getRackNumber()).addModule(sm);
-            }
+    /**
+     * Parses a subnet section and adds the subnet to the station.
+     */
+    void handleSubnetSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        actualStationBuilder.addSubnet(parseSubnetSection(section));
+    }
+
+    /**
+     * Parses a rack slot module section and adds the module to its rack.
+     */
+    void handleRackSlotSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        SlotModule sm = parseRackSlotModuleSection(section);
+
+        // Add module to parent rack
+        Rack rack = actualStationBuilder.getRacks().get(sm.getRackNumber());
+
+        if (rack == null) {
+            diagnostics.report(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_RACK, section.getRawTitle(), section.getLineNumber());
+            actualStationBuilder.addUnresolvedReference(new UnresolvedReference(UnresolvedReference.Kind.RACK, sm, sm.getRackNumber(), null, null));
+        } else {
+            rack.addModule(sm);
         }
+    }
 
-        // Add submodules to modules
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.RACK_SLOT_SUBSLOT) {
-                SubSlotModule ssm = parseRackSubSlotModuleSection(section);
+    /**
+     * Parses a rack subslot module section and adds the submodule to its module.
+     */
+    void handleRackSubSlotSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        SubSlotModule ssm = parseRackSubSlotModuleSection(section);
+
+        // Add submodule to parent module
+        Rack rack = actualStationBuilder.getRacks().get(ssm.getRackNumber());
+        Module parent = rack != null ? rack.getModule(ssm.getSlotNumber()) : null;
+
+        if (rack == null) {
+            diagnostics.report(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_RACK, section.getRawTitle(), section.getLineNumber());
+            actualStationBuilder.addUnresolvedReference(new UnresolvedReference(UnresolvedReference.Kind.RACK, ssm, ssm.getRackNumber(), null, null));
+        } else if (parent == null) {
+            diagnostics.report(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_SLOT, section.getRawTitle(), section.getLineNumber());
+            actualStationBuilder.addUnresolvedReference(new UnresolvedReference(UnresolvedReference.Kind.SLOT, ssm, ssm.getSlotNumber(), null, null));
+        } else {
+            parent.addModule(ssm.getSubslotNumber(), ssm);
+        }
+    }
 
-                // Add submodule to parent module
-                actualStationBuilder.getRacks().get(ssm.getRackNumber()).getModule(ssm.getSlotNumber()).addModule(ssm.getSubslotNumber(), ssm);
-            }
+    /**
+     * Parses a DP slave or IO device section and adds the subsystem rack to the station.
+     */
+    void handleSubsystemRackSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        SubsystemRack ssr = parseSubsystemRackSection(section);
+
+        actualStationBuilder.addSubsystemRack(ssr);
+        subsystemRacks.putIfAbsent(subsystemRackKey(ssr.getSubsystemNumber(), ssr.getAddress()), ssr);
+    }
+
+    /**
+     * Parses a section of a DP slave or IO device module and adds the module to its subsystem rack.
+     */
+    void handleSubsystemRackSlotSection(STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException {
+        SubsystemRackSlotModule ssrsm = parseSubsystemRackSlotModuleSection(section);
+
+        // Add module to corresponding subsystem rack
+        SubsystemRack subsystemRack = subsystemRacks.get(subsystemRackKey(ssrsm.getSubsystemNumber(), ssrsm.getAddress()));
+
+        if (subsystemRack == null) {
+            diagnostics.report(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_SUBSYSTEM_RACK, section.getRawTitle(), section.getLineNumber());
+            actualStationBuilder.addUnresolvedReference(new UnresolvedReference(UnresolvedReference.Kind.SUBSYSTEM_RACK, ssrsm, ssrsm.getSubsystemNumber(), ssrsm.getAddress(), null));
+        } else {
+            subsystemRack.addModule(ssrsm.getSlotNumber(), ssrsm);
         }
+    }
 
-        // Add subsystem racks
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.DPSUBSYS_DPADDR ||
-                    section.getSectionType() == STEP7HWCfgFileSection.SectionType.IOSUBSYS_IOADDR) {
-                SubsystemRack ssr = parseSubsystemRackSection(section);
+    /**
+     * State of the file passed to the section handlers.
+     */
+    private class SectionContext implements STEP7HWCfgFileSectionContext {
 
-                actualStationBuilder.addSubsystemRack(ssr);
-            }
+        @Override
+        public STEP7HWCfgFile getFile() {
+            return STEP7HWCfgFile.this;
         }
 
-        // Add modules to subsystem racks
-        for (STEP7HWCfgFileSection section : sections) {
-            if (section.getSectionType() == STEP7HWCfgFileSection.SectionType.DPSUBSYS_DPADDR_SLOT ||
-                    section.getSectionType() == STEP7HWCfgFileSection.SectionType.IOSUBSYS_IOADDR_SLOT) {
-                SubsystemRackSlotModule ssrsm = parseSubsystemRackSlotModuleSection(section);
-
-                // Add module to corresponding subsystem rack
-                actualStationBuilder.getSubsystemRacks().stream()
-                        .filter(subsystemRack ->
-                                (subsystemRack.getSubsystemMemberShip().getSubsystem().getNumber() == ssrsm.getSubsystemNumber() &&
-                                        subsystemRack.getSubsystemMemberShip().getAddress() == ssrsm.getAddress()
-                                 )).findFirst().ifPresent(subsystemRack -> subsystemRack.addModule(ssrsm.getSlotNumber(), ssrsm));
-            }
+        @Override
+        public StationBuilder getStationBuilder() {
+            return actualStationBuilder;
         }
 
+        @Override
+        public void setStationBuilder(StationBuilder stationBuilder) {
+            actualStationBuilder = stationBuilder;
+        }
 
-        return actualStationBuilder.build();
+        @Override
+        public SubsystemRack getSubsystemRack(int subsystemNumber, int address) {
+            return subsystemRacks.get(subsystemRackKey(subsystemNumber, address));
+        }
+
+        @Override
+        public void report(STEP7HWCfgFileDiagnosticsSink.Code code, STEP7HWCfgFileSection section) {
+            diagnostics.report(code, section.getRawTitle(), section.getLineNumber());
+        }
+    }
+
+    /**
+     * Key of a subsystem rack by subsystem number and address.
+     */
+    private static long subsystemRackKey(Integer subsysNumber, Integer address) {
+        return ((long) subsysNumber << 32) | (address & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Records a member of a subsystem which does not exist in the station.
+     */
+    private void unresolvedSubsystem(STEP7HWCfgFileSection section, HWComponent component, Integer subsysNumber, Integer address, Enum<?> role) {
+        diagnostics.report(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_SUBSYSTEM, section.getRawTitle(), section.getLineNumber());
+        actualStationBuilder.addUnresolvedReference(new UnresolvedReference(UnresolvedReference.Kind.SUBSYSTEM, component, subsysNumber, address, role));
+    }
+
+    private void checkCancelled() {
+        if (monitor.isCancelled()) {
+            throw new CancellationException("Reading cancelled");
+        }
     }
 
     /**
@@ -272,21 +874,8 @@ public class STEP7HWCfgFile {
         // Check header
         if (m.matches()) {
 
-            Station.StationType stationType;
-
             // Store data from header
-            switch (m.group("stationtype")) {
-                case "S7400":
-                    stationType = Station.StationType.S7_400;
-                    break;
-                case "S7300":
-                    stationType = Station.StationType.S7_300;
-                    break;
-                default:
-                    stationType = Station.StationType.NOT_IMPLEMENTED;
-            }
-
-            res.type(stationType).name(m.group("stationname")).configData(section.getBody());
+            res.type(stationType(m.group("stationtype"))).name(m.group("stationname")).configData(section.getBody());
         } else {
             throw new STEP7HWCfgFileSectionFormatErrorException("Format error in STATION section.");
         }
@@ -294,6 +883,23 @@ public class STEP7HWCfgFile {
         return res;
     }
 
+    /**
+     * Maps the station type of a STATION line to the station type.
+     *
+     * @param stationType Station type (e.g. "S7400").
+     * @return StationType
+     */
+    private static Station.StationType stationType(String stationType) {
+        switch (stationType) {
+            case "S7400":
+                return Station.StationType.S7_400;
+            case "S7300":
+                return Station.StationType.S7_300;
+            default:
+                return Station.StationType.NOT_IMPLEMENTED;
+        }
+    }
+
     /**
      * Parses a section containing rack data.
      *
@@ -358,7 +964,7 @@ public class STEP7HWCfgFile {
                     Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
                     if (subsystem == null) {
-                        System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                        unresolvedSubsystem(section, res, subsysNumber, address, DPSubsystemMemberShip.Role.MASTER);
                     } else {
                         res.setSubsystemMemberShip(new DPSubsystemMemberShip(subsystem, address, DPSubsystemMemberShip.Role.MASTER));
 
@@ -371,7 +977,7 @@ public class STEP7HWCfgFile {
                         Optional<String> ioBusSettingString = parameters.stream().filter(line -> line.matches(ioBusSettingsRegex)).findFirst();
 
                         ioBusSettingString.ifPresent(str -> {
-                            Matcher m2 = Pattern.compile(dpBusSettingsRegex).matcher(str);
+                            Matcher m2 = Pattern.compile(ioBusSettingsRegex).matcher(str);
 
                             if (m2.matches()) {
                                 // Yeeeaaaahhh!! Module is a controller
@@ -381,7 +987,7 @@ public class STEP7HWCfgFile {
                                 Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
                                 if (subsystem == null) {
-                                    System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                                    unresolvedSubsystem(section, res, subsysNumber, address, PNIOSubsystemMemberShip.Role.CONTROLLER);
                                 } else {
                                     res.setSubsystemMemberShip(new PNIOSubsystemMemberShip(subsystem, address, PNIOSubsystemMemberShip.Role.CONTROLLER));
 
@@ -435,7 +1041,7 @@ public class STEP7HWCfgFile {
                     Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
                     if (subsystem == null) {
-                        System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                        unresolvedSubsystem(section, res, subsysNumber, address, DPSubsystemMemberShip.Role.MASTER);
                     } else {
                         res.setSubsystemMemberShip(new DPSubsystemMemberShip(subsystem, address, DPSubsystemMemberShip.Role.MASTER));
 
@@ -458,7 +1064,7 @@ public class STEP7HWCfgFile {
                         Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
                         if (subsystem == null) {
-                            System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                            unresolvedSubsystem(section, res, subsysNumber, address, PNIOSubsystemMemberShip.Role.CONTROLLER);
                         } else {
                             res.setSubsystemMemberShip(new PNIOSubsystemMemberShip(subsystem, address, PNIOSubsystemMemberShip.Role.CONTROLLER));
 
@@ -497,6 +1103,19 @@ public class STEP7HWCfgFile {
             return res;
         }
 
+        Matcher mMPI = Pattern.compile(STEP7HWCfgFileSection.SECTHEAD_REGEXP_MPISUBSYSTEM).matcher(section.getTitle());
+
+        if (mMPI.matches()) {
+            Integer number = Integer.parseInt(mMPI.group("number"));
+            String name = mMPI.group("name");
+            Subsystem res = new Subsystem(Subsystem.SubnetType.MPI, name, number);
+
+            // Parse configuration data
+            res.parseConfigurationData(section.getBody());
+
+            return res;
+        }
+
         Matcher mPNIO = Pattern.compile(STEP7HWCfgFileSection.SECTHEAD_REGEXP_IOSUBSYSTEM).matcher(section.getTitle());
 
         if (mPNIO.matches()) {
@@ -534,7 +1153,7 @@ public class STEP7HWCfgFile {
             Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
             if (subsystem == null) {
-                System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                unresolvedSubsystem(section, res, subsysNumber, address, DPSubsystemMemberShip.Role.SLAVE);
             } else {
                 subsystem.attachNode(address, res);
                 res.setSubsystemMemberShip(new DPSubsystemMemberShip(subsystem, address, DPSubsystemMemberShip.Role.SLAVE));
@@ -559,7 +1178,7 @@ public class STEP7HWCfgFile {
                 Subsystem subsystem = actualStationBuilder.getSubnets().get(subsysNumber);
 
                 if (subsystem == null) {
-                    System.err.println("Trying to add a device to a non-existent subsystem: " + res);
+                    unresolvedSubsystem(section, res, subsysNumber, address, PNIOSubsystemMemberShip.Role.DEVICE);
                 } else {
                     subsystem.attachNode(address, res);
                     res.setSubsystemMemberShip(new PNIOSubsystemMemberShip(subsystem, address, PNIOSubsystemMemberShip.Role.DEVICE));
@@ -632,7 +1251,7 @@ public class STEP7HWCfgFile {
                     Subsystem subsystem = actualStationBuilder.getSubnets().get(underlyingSubsysNumber);
 
                     if (subsystem == null) {
-                        System.err.println("Trying to add a device to a non-existent subsystem: " + efRes);
+                        unresolvedSubsystem(section, efRes, underlyingSubsysNumber, underlyingAddress, DPSubsystemMemberShip.Role.MASTER);
                     } else {
                         efRes.setSubsystemMemberShip(new DPSubsystemMemberShip(subsystem, underlyingAddress, DPSubsystemMemberShip.Role.MASTER));
 
@@ -644,7 +1263,7 @@ public class STEP7HWCfgFile {
                 Optional<String> ioBusSettingString = parameters.stream().filter(line -> line.matches(ioBusSettingsRegex)).findFirst();
 
                 ioBusSettingString.ifPresent(str -> {
-                    Matcher m2 = Pattern.compile(dpBusSettingsRegex).matcher(str);
+                    Matcher m2 = Pattern.compile(ioBusSettingsRegex).matcher(str);
 
                     if (m2.matches()) {
                         // Yeeeaaaahhh!! Module is a controller
@@ -654,7 +1273,7 @@ public class STEP7HWCfgFile {
                         Subsystem subsystem = actualStationBuilder.getSubnets().get(underlyingSubsysNumber);
 
                         if (subsystem == null) {
-                            System.err.println("Trying to add a device to a non-existent subsystem: " + efRes);
+                            unresolvedSubsystem(section, efRes, underlyingSubsysNumber, underlyingAddress, PNIOSubsystemMemberShip.Role.CONTROLLER);
                         } else {
                             efRes.setSubsystemMemberShip(new PNIOSubsystemMemberShip(subsystem, underlyingAddress, PNIOSubsystemMemberShip.Role.CONTROLLER));
 
@@ -0,0 +1,186 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Receives the problems found while parsing a config file which don't stop parsing (e.g. a module in a rack that
+ * does not exist).
+ *
+ * Sinks may be shared by files parsed concurrently, so implementations have to be thread-safe. The section title may
+ * be a {@link STEP7HWCfgFileTextView} into the buffer of the file, keeping it keeps the buffer alive.
+ */
+@FunctionalInterface
+public interface STEP7HWCfgFileDiagnosticsSink {
+
+    enum Code {
+        /** Slot or subslot module in a rack that does not exist. */
+        MISSING_RACK,
+        /** Subslot module in a slot that is empty. */
+        MISSING_SLOT,
+        /** Module of a DP slave or IO device that does not exist. */
+        MISSING_SUBSYSTEM_RACK,
+        /** Master, slave, controller or device of a subsystem that does not exist. */
+        MISSING_SUBSYSTEM
+    }
+
+    /**
+     * Ignores everything.
+     */
+    STEP7HWCfgFileDiagnosticsSink NONE = (code, sectionTitle, lineNumber) -> { };
+
+    /**
+     * Prints to System.err, the default of the parser.
+     */
+    STEP7HWCfgFileDiagnosticsSink SYSTEM_ERR = (code, sectionTitle, lineNumber) ->
+            System.err.println(code + " at line " + lineNumber + ": " + sectionTitle);
+
+    /**
+     * Reports a problem.
+     *
+     * @param code Kind of problem.
+     * @param sectionTitle Title (first line) of the section.
+     * @param lineNumber Line number of the section title, 0 if unknown.
+     */
+    void report(Code code, CharSequence sectionTitle, int lineNumber);
+
+    /**
+     * Problem reported to a sink.
+     */
+    final class Diagnostic {
+        private final Code code;
+        private final String sectionTitle;
+        private final int lineNumber;
+
+        public Diagnostic(Code code, String sectionTitle, int lineNumber) {
+            this.code = code;
+            this.sectionTitle = sectionTitle;
+            this.lineNumber = lineNumber;
+        }
+
+        public Code getCode() {
+            return code;
+        }
+
+        public String getSectionTitle() {
+            return sectionTitle;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public String toString() {
+            return code + " at line " + lineNumber + ": " + sectionTitle;
+        }
+    }
+
+    /**
+     * Counts problems by code, without allocating.
+     */
+    class Counter implements STEP7HWCfgFileDiagnosticsSink {
+
+        private final AtomicLongArray counts = new AtomicLongArray(Code.values().length);
+
+        @Override
+        public void report(Code code, CharSequence sectionTitle, int lineNumber) {
+            counts.incrementAndGet(code.ordinal());
+        }
+
+        /**
+         * Gets the number of problems of a code.
+         *
+         * @param code
+         * @return
+         */
+        public long getCount(Code code) {
+            return counts.get(code.ordinal());
+        }
+
+        /**
+         * Gets the number of all problems.
+         *
+         * @return
+         */
+        public long getTotalCount() {
+            long res = 0;
+
+            for (int i = 0; i < counts.length(); i++) {
+                res += counts.get(i);
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * Keeps the last problems in a fixed size buffer, older ones are dropped. Section titles are kept as passed, the
+     * Strings are created when the problems are read.
+     */
+    class RingBuffer implements STEP7HWCfgFileDiagnosticsSink {
+
+        private final Code[] codes;
+        private final CharSequence[] sectionTitles;
+        private final int[] lineNumbers;
+        private long count;
+
+        /**
+         * @param capacity Number of problems kept.
+         */
+        public RingBuffer(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            }
+
+            this.codes = new Code[capacity];
+            this.sectionTitles = new CharSequence[capacity];
+            this.lineNumbers = new int[capacity];
+        }
+
+        @Override
+        public synchronized void report(Code code, CharSequence sectionTitle, int lineNumber) {
+            int i = (int) (count++ % codes.length);
+
+            codes[i] = code;
+            sectionTitles[i] = sectionTitle;
+            lineNumbers[i] = lineNumber;
+        }
+
+        /**
+         * Gets the kept problems.
+         *
+         * @return List of problems, oldest first.
+         */
+        public synchronized List<Diagnostic> getDiagnostics() {
+            int size = (int) Math.min(count, codes.length);
+            List<Diagnostic> res = new ArrayList<>(size);
+
+            for (long n = count - size; n < count; n++) {
+                int i = (int) (n % codes.length);
+                res.add(new Diagnostic(codes[i], sectionTitles[i].toString(), lineNumbers[i]));
+            }
+
+            return res;
+        }
+
+        /**
+         * Gets the number of all problems reported, including dropped ones.
+         *
+         * @return
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the number of problems dropped because the buffer was full.
+         *
+         * @return
+         */
+        public synchronized long getDroppedCount() {
+            return Math.max(0, count - codes.length);
+        }
+    }
+}
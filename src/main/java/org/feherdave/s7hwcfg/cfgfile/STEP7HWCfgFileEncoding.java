@@ -0,0 +1,119 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Character encoding of a config file.
+ *
+ * STEP7 writes its exports in the ANSI code page of Windows (Windows-1252 in western installations), sometimes as
+ * UTF-16 with a byte order mark. The encoding is detected from the first bytes of the file:
+ *
+ *      EF BB BF        UTF-8 (BOM skipped)
+ *      FF FE           UTF-16LE (BOM skipped)
+ *      FE FF           UTF-16BE (BOM skipped)
+ *      xx 00 xx 00     UTF-16LE without BOM
+ *      00 xx 00 xx     UTF-16BE without BOM
+ *      valid UTF-8 with multibyte sequences    UTF-8
+ *      anything else   Windows-1252
+ */
+class STEP7HWCfgFileEncoding {
+
+    static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private final Charset charset;
+    private final int bomLength;
+
+    STEP7HWCfgFileEncoding(Charset charset, int bomLength) {
+        this.charset = charset;
+        this.bomLength = bomLength;
+    }
+
+    /**
+     * Detects the encoding from the first bytes of a file.
+     *
+     * @param head First bytes of the file (position to limit), not consumed.
+     * @return Detected encoding.
+     */
+    static STEP7HWCfgFileEncoding detect(ByteBuffer head) {
+        ByteBuffer bytes = head.duplicate();
+        int length = bytes.remaining();
+        int b0 = length > 0 ? bytes.get(bytes.position()) & 0xFF : -1;
+        int b1 = length > 1 ? bytes.get(bytes.position() + 1) & 0xFF : -1;
+        int b2 = length > 2 ? bytes.get(bytes.position() + 2) & 0xFF : -1;
+        int b3 = length > 3 ? bytes.get(bytes.position() + 3) & 0xFF : -1;
+
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_8, 3);
+        }
+
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_16LE, 2);
+        }
+
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_16BE, 2);
+        }
+
+        if (b0 > 0 && b1 == 0 && b2 > 0 && b3 == 0) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_16LE, 0);
+        }
+
+        if (b0 == 0 && b1 > 0 && b2 == 0 && b3 > 0) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_16BE, 0);
+        }
+
+        if (isMultiByteUtf8(bytes)) {
+            return new STEP7HWCfgFileEncoding(StandardCharsets.UTF_8, 0);
+        }
+
+        return new STEP7HWCfgFileEncoding(WINDOWS_1252, 0);
+    }
+
+    /**
+     * Checks whether the bytes contain non-ASCII characters and are valid UTF-8. A multibyte sequence cut at the
+     * end of the buffer is ignored.
+     */
+    private static boolean isMultiByteUtf8(ByteBuffer bytes) {
+        boolean nonAscii = false;
+
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                nonAscii = true;
+                break;
+            }
+        }
+
+        if (!nonAscii) {
+            return false;
+        }
+
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        return !decoder.decode(bytes.duplicate(), CharBuffer.allocate(bytes.remaining()), false).isError();
+    }
+
+    /**
+     * Checks whether ASCII characters are encoded as single bytes of the same value (true for Windows-1252 and
+     * UTF-8). Such files can be split into lines on the byte level.
+     *
+     * @return
+     */
+    boolean isAsciiCompatible() {
+        return charset != StandardCharsets.UTF_16LE && charset != StandardCharsets.UTF_16BE && charset != StandardCharsets.UTF_16;
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    int getBomLength() {
+        return bomLength;
+    }
+}
@@ -0,0 +1,81 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import org.feherdave.s7hwcfg.s7.Station;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Header of a config file with the title of its STATION section, read by {@link STEP7HWCfgFile#readHeader(java.io.File)}
+ * without reading the rest of the file.
+ */
+public final class STEP7HWCfgFileHeader {
+
+    private final String fileVersion;
+    private final Charset charset;
+    private final STEP7HWCfgFile.FileFormat fileFormat;
+    private final Map<String, String> metaData;
+    private final Station.StationType stationType;
+    private final String stationName;
+    private final long bytesRead;
+
+    STEP7HWCfgFileHeader(String fileVersion, Charset charset, STEP7HWCfgFile.FileFormat fileFormat, Map<String, String> metaData,
+                         Station.StationType stationType, String stationName, long bytesRead) {
+        this.fileVersion = fileVersion;
+        this.charset = charset;
+        this.fileFormat = fileFormat;
+        this.metaData = Collections.unmodifiableMap(metaData);
+        this.stationType = stationType;
+        this.stationName = stationName;
+        this.bytesRead = bytesRead;
+    }
+
+    public String getFileVersion() {
+        return fileVersion;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public STEP7HWCfgFile.FileFormat getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * Get metadata (lines starting with #).
+     *
+     * @return Read-only map of metadata.
+     */
+    public Map<String, String> getMetaData() {
+        return metaData;
+    }
+
+    public Station.StationType getStationType() {
+        return stationType;
+    }
+
+    public String getStationName() {
+        return stationName;
+    }
+
+    /**
+     * Gets the number of bytes read from the file (after the byte order mark).
+     *
+     * @return
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public String toString() {
+        return "STEP7HWCfgFileHeader{" +
+                "fileVersion='" + fileVersion + '\'' +
+                ", format=" + fileFormat +
+                ", stationType=" + stationType +
+                ", stationName='" + stationName + '\'' +
+                '}';
+    }
+}
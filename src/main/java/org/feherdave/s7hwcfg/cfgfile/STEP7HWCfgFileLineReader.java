@@ -0,0 +1,201 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the lines of a config file. Lines end at CR, LF or CR LF.
+ *
+ * For ASCII compatible encodings lines are split on the byte level. Lines consisting of ASCII characters only (the
+ * vast majority: keywords, numbers, addresses) are turned into strings by a plain byte copy, only lines containing
+ * other characters (e.g. names and comments with accented letters) go through the charset decoder.
+ * Other encodings (UTF-16) are decoded by a BufferedReader.
+ */
+class STEP7HWCfgFileLineReader implements STEP7HWCfgFileLineSource, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Charset charset;
+    private final ReadableByteChannel channel;
+    private final BufferedReader decodingReader;
+    private ByteBuffer buffer;
+    private byte[] lineBytes = new byte[256];
+    private boolean endOfInput;
+    private long bytesRead;
+
+    /**
+     * Creates a line reader reading from a channel.
+     *
+     * @param channel Channel positioned after the byte order mark.
+     * @param encoding Encoding of the file.
+     */
+    STEP7HWCfgFileLineReader(ReadableByteChannel channel, STEP7HWCfgFileEncoding encoding) {
+        this(channel, encoding, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a line reader reading from a channel in blocks of the given size.
+     *
+     * @param channel Channel positioned after the byte order mark.
+     * @param encoding Encoding of the file.
+     * @param bufferSize Number of bytes read from the channel at once.
+     */
+    STEP7HWCfgFileLineReader(ReadableByteChannel channel, STEP7HWCfgFileEncoding encoding, int bufferSize) {
+        this.charset = encoding.getCharset();
+
+        if (encoding.isAsciiCompatible()) {
+            this.channel = channel;
+            this.decodingReader = null;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            this.buffer.flip();
+        } else {
+            this.channel = null;
+            this.decodingReader = new BufferedReader(Channels.newReader(channel, charset.newDecoder(), bufferSize), bufferSize);
+        }
+    }
+
+    /**
+     * Creates a line reader over the bytes of a buffer (e.g. a mapped region of a file).
+     *
+     * @param bytes Bytes to read, position to limit.
+     * @param encoding Encoding of the file, has to be ASCII compatible.
+     */
+    STEP7HWCfgFileLineReader(ByteBuffer bytes, STEP7HWCfgFileEncoding encoding) {
+        this.charset = encoding.getCharset();
+        this.channel = null;
+        this.decodingReader = null;
+        this.buffer = bytes;
+        this.endOfInput = true;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (decodingReader != null) {
+            return decodingReader.readLine();
+        }
+
+        int lineStart = buffer.position();
+        int nonAscii = 0;
+        int i = lineStart;
+
+        while (true) {
+            if (i == buffer.limit()) {
+                if (endOfInput || !fill(lineStart)) {
+                    // Last line without terminator
+                    if (buffer.position() == buffer.limit()) {
+                        return null;
+                    }
+
+                    String res = toString(buffer.position(), buffer.limit(), nonAscii);
+                    buffer.position(buffer.limit());
+
+                    return res;
+                }
+
+                // Buffer has been compacted, line starts at the beginning
+                i = i - lineStart;
+                lineStart = 0;
+                continue;
+            }
+
+            byte b = buffer.get(i);
+
+            if (b == '\n' || b == '\r') {
+                String res = toString(lineStart, i, nonAscii);
+                int next = i + 1;
+
+                if (b == '\r') {
+                    if (next == buffer.limit() && !endOfInput) {
+                        buffer.position(lineStart);
+                        fill(lineStart);
+                        next = next - lineStart;
+                    }
+
+                    if (next < buffer.limit() && buffer.get(next) == '\n') {
+                        next++;
+                    }
+                }
+
+                buffer.position(next);
+
+                return res;
+            }
+
+            nonAscii |= b & 0x80;
+            i++;
+        }
+    }
+
+    /**
+     * Gets the number of bytes read from the channel so far.
+     *
+     * @return
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (decodingReader != null) {
+            decodingReader.close();
+        } else if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Moves the bytes from lineStart to the beginning of the buffer (growing it if the line doesn't fit) and reads
+     * more bytes from the channel.
+     *
+     * @param lineStart Start of the line being read.
+     * @return false if there are no more bytes.
+     */
+    private boolean fill(int lineStart) throws IOException {
+        if (channel == null) {
+            endOfInput = true;
+            return false;
+        }
+
+        buffer.position(lineStart);
+
+        if (lineStart == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+
+        int read = channel.read(buffer);
+        buffer.flip();
+
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+
+        bytesRead += read;
+
+        return true;
+    }
+
+    private String toString(int from, int to, int nonAscii) {
+        int length = to - from;
+
+        if (lineBytes.length < length) {
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+        }
+
+        buffer.get(from, lineBytes, 0, length);
+
+        return new String(lineBytes, 0, length, nonAscii == 0 ? StandardCharsets.ISO_8859_1 : charset);
+    }
+}
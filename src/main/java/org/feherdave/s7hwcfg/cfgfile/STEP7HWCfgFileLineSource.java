@@ -0,0 +1,23 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.io.IOException;
+
+/**
+ * Source of the lines of a config file.
+ */
+interface STEP7HWCfgFileLineSource {
+
+    /**
+     * Reads the next line.
+     *
+     * @return Line without terminator, or null at the end of input.
+     */
+    CharSequence readLine() throws IOException;
+
+    /**
+     * Gets the number of bytes consumed so far.
+     *
+     * @return
+     */
+    long getBytesRead();
+}
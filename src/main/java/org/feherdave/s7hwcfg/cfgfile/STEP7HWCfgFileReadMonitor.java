@@ -0,0 +1,40 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+/**
+ * Receives the progress of reading and parsing a config file and can abort it.
+ *
+ * Progress is reported and cancellation is checked at section boundaries, on the thread reading the file.
+ */
+public interface STEP7HWCfgFileReadMonitor {
+
+    STEP7HWCfgFileReadMonitor NONE = new STEP7HWCfgFileReadMonitor() { };
+
+    /**
+     * Called after a section has been read.
+     *
+     * @param bytesRead Bytes of the file read so far.
+     * @param fileSize Size of the file in bytes.
+     * @param sectionCount Number of sections read so far.
+     */
+    default void sectionRead(long bytesRead, long fileSize, int sectionCount) {
+    }
+
+    /**
+     * Called after a section has been parsed into HW config objects, once per section. Sections without a handler
+     * are reported when they are skipped.
+     *
+     * @param parsedCount Number of sections parsed so far.
+     * @param sectionCount Number of sections of the file.
+     */
+    default void sectionParsed(int parsedCount, int sectionCount) {
+    }
+
+    /**
+     * Checks whether reading should be aborted. Reading throws CancellationException if true.
+     *
+     * @return
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -1,8 +1,10 @@
 package org.feherdave.s7hwcfg.cfgfile;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -14,6 +16,8 @@ import java.util.stream.Collectors;
  *      RACK A, SLOT B
  *      RACK A, SLOT B, SUBSLOT C
  *      DPSUBSYSTEM A
+ *      IOSUBSYSTEM A
+ *      MPISUBSYSTEM A
  *      DPSUBSYSTEM A, DPADDRESS B
  *      DPSUBSYSTEM A, DPADDRESS B, SLOT C
  *      DPSUBSYSTEM A, DPADDRESS B, SLOT C, SUBSLOT D
@@ -21,6 +25,10 @@ import java.util.stream.Collectors;
  *      IOSUBSYSTEM A, IOADDRESS B, SLOT C
  *      IOSUBSYSTEM A, IOADDRESS B, SLOT C, SUBSLOT D
  *
+ * Sections are identified by their key: the leading keyword and the keywords of the numbered qualifiers following it,
+ * e.g. "DPSUBSYSTEM,DPADDRESS,SLOT" for "DPSUBSYSTEM 1, DPADDRESS 3, SLOT 4, ...". Sections are parsed by the
+ * handler registered for their key (see {@link STEP7HWCfgFileSectionHandlers}).
+ *
  * The section data is interpreted as follows (e.g.):
  *
  * +----------------+-----------+-----------------------------------------------------------+
@@ -57,25 +65,45 @@ public class STEP7HWCfgFileSection {
         IOSUBSYS,
         IOSUBSYS_IOADDR,
         IOSUBSYS_IOADDR_SLOT,
-        IOSUBSYS_IOADDR_SLOT_SUBSLOT
+        IOSUBSYS_IOADDR_SLOT_SUBSLOT,
+        MPISUBSYS
     }
 
+    private static final Map<String, SectionType> SECTION_TYPES = Map.ofEntries(
+            Map.entry("STATION", SectionType.STATION),
+            Map.entry("RACK", SectionType.RACK),
+            Map.entry("RACK,SLOT", SectionType.RACK_SLOT),
+            Map.entry("RACK,SLOT,SUBSLOT", SectionType.RACK_SLOT_SUBSLOT),
+            Map.entry("DPSUBSYSTEM", SectionType.DPSUBSYS),
+            Map.entry("DPSUBSYSTEM,DPADDRESS", SectionType.DPSUBSYS_DPADDR),
+            Map.entry("DPSUBSYSTEM,DPADDRESS,SLOT", SectionType.DPSUBSYS_DPADDR_SLOT),
+            Map.entry("DPSUBSYSTEM,DPADDRESS,SLOT,SUBSLOT", SectionType.DPSUBSYS_DPADDR_SLOT_SUBSLOT),
+            Map.entry("IOSUBSYSTEM", SectionType.IOSUBSYS),
+            Map.entry("IOSUBSYSTEM,IOADDRESS", SectionType.IOSUBSYS_IOADDR),
+            Map.entry("IOSUBSYSTEM,IOADDRESS,SLOT", SectionType.IOSUBSYS_IOADDR_SLOT),
+            Map.entry("IOSUBSYSTEM,IOADDRESS,SLOT,SUBSLOT", SectionType.IOSUBSYS_IOADDR_SLOT_SUBSLOT),
+            Map.entry("MPISUBSYSTEM", SectionType.MPISUBSYS));
+
     public static String SECTHEAD_REGEXP_STATION = "^STATION\\s+(?<stationtype>[A-Z0-9]+)\\s*,\\s*\"(?<stationname>.*?)\"\\s*$";
     public static String SECTHEAD_REGEXP_RACK = "^RACK\\s+(?<rackNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_RACK_SLOT = "^RACK\\s+(?<rackNumber>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_RACK_SLOT_SUBSLOT = "^RACK\\s+(?<rackNumber>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotNumber>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_RACK_SLOT = "^RACK\\s+(?<rackNumber>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_RACK_SLOT_SUBSLOT = "^RACK\\s+(?<rackNumber>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotNumber>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
     public static String SECTHEAD_REGEXP_DPSUBSYSTEM = "^DPSUBSYSTEM\\s+(?<number>[0-9]+)\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<designation>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR_SLOT = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR_SLOT_SUBSLOT = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<designation>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR_SLOT = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_DPSUBSYS_DPADDR_SLOT_SUBSLOT = "^DPSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_MPISUBSYSTEM = "^MPISUBSYSTEM\\s+(?<number>[0-9]+)\\s*,\\s*\"(?<name>.+?)\"\\s*$";
     public static String SECTHEAD_REGEXP_IOSUBSYSTEM = "^IOSUBSYSTEM\\s+(?<number>[0-9]+)\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_IOSUBSYS_IOADDR = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*IOADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<designation>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_IOSUBSYS_IOADDR_SLOT = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*IOADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
-    public static String SECTHEAD_REGEXP_IOSUBSYS_DPADDR_SLOT_SUBSLOT = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.+?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_IOSUBSYS_IOADDR = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*IOADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<designation>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_IOSUBSYS_IOADDR_SLOT = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*IOADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
+    public static String SECTHEAD_REGEXP_IOSUBSYS_DPADDR_SLOT_SUBSLOT = "^IOSUBSYSTEM\\s+(?<subsysno>[0-9]+)\\s*,\\s*DPADDRESS\\s+(?<address>[0-9]+)\\s*,\\s*SLOT\\s+(?<slotno>[0-9]+)\\s*,\\s*SUBSLOT\\s+(?<subslotNumber>[0-9]+)\\s*,\\s*\"(?<orderNumber>.+?)\"\\s*(?:\"(?<version>.*?)\")?\\s*,\\s*\"(?<name>.+?)\"\\s*$";
 
-    private SectionType sectionType = SectionType.UNKNOWN;
-    private List<String> sectionHead;
-    private List<String> sectionBody;
+    private final String key;
+    private final SectionType sectionType;
+    private List<CharSequence> sectionHead;
+    private List<CharSequence> sectionBody;
+    private boolean textViews;
+    private int lineNumber;
 
     /**
      * Creates a new configuration data section.
@@ -83,77 +111,35 @@ public class STEP7HWCfgFileSection {
      * @param configurationData
      */
     public STEP7HWCfgFileSection(List<String> configurationData) {
-        List<String> data = configurationData.stream()
-                .dropWhile(line -> line.isEmpty() || line.isBlank())
-                .takeWhile(line -> !line.isEmpty() && !line.isBlank())
+        this((Collection<String>) configurationData);
+    }
+
+    /**
+     * Creates a new configuration data section from lines that may be text views.
+     *
+     * @param configurationData Lines (Strings or text views).
+     */
+    STEP7HWCfgFileSection(Collection<? extends CharSequence> configurationData) {
+        List<CharSequence> data = configurationData.stream()
+                .dropWhile(STEP7HWCfgFileSection::isBlank)
+                .takeWhile(line -> !isBlank(line))
                 .collect(Collectors.toList());
 
         // Extract section header (line until BEGIN)
         this.sectionHead = data.stream()
-                .takeWhile(line -> !line.equals("BEGIN"))
+                .takeWhile(line -> !"BEGIN".contentEquals(line))
                 .collect(Collectors.toList());
 
         // Extract section config data (lines between BEGIN and END)
         this.sectionBody = data.stream()
-                .dropWhile(line -> !line.equals("BEGIN"))
+                .dropWhile(line -> !"BEGIN".contentEquals(line))
                 .collect(Collectors.toList());
 
-        // Determine section type
-        Pattern typeCheckPattern = Pattern.compile("^(?<type>STATION|RACK|DPSUBSYSTEM|IOSUBSYSTEM)\\s+\\w+\\s*(?:,\\s*(?<para1>DPADDRESS|IOADDRESS)\\s+[0-9]+\\s*)?(?:,\\s*(?<para2>SLOT)\\s+[0-9]+\\s*)?(?:,\\s*(?<para3>SUBSLOT)\\s+[0-9]+)?.*");
-        Matcher m = typeCheckPattern.matcher(getTitle());
-
-        if (m.matches()) {
-            switch (m.group("type")) {
-                case "STATION":
-                    sectionType = SectionType.STATION;
-                    break;
-
-                case "RACK":
-                    if (m.group("para1") == null && m.group("para2") == null && m.group("para3") == null) {
-                        sectionType = SectionType.RACK;
-                    } else {
-                        if (m.group("para3") == null) {
-                            sectionType = SectionType.RACK_SLOT;
-                        } else {
-                            sectionType = SectionType.RACK_SLOT_SUBSLOT;
-                        }
-                    }
-                    break;
-
-                case "DPSUBSYSTEM":
-                    if (m.group("para1") != null) {
-                        if (m.group("para2") != null) {
-                            if (m.group("para3") != null) {
-                                sectionType = SectionType.DPSUBSYS_DPADDR_SLOT_SUBSLOT;
-                            } else {
-                                sectionType = SectionType.DPSUBSYS_DPADDR_SLOT;
-                            }
-                        } else {
-                            sectionType = SectionType.DPSUBSYS_DPADDR;
-                        }
-                    } else {
-                        sectionType = SectionType.DPSUBSYS;
-                    }
-                    break;
-
-                case "IOSUBSYSTEM":
-                    if (m.group("para1") != null) {
-                        if (m.group("para2") != null) {
-                            if (m.group("para3") != null) {
-                                sectionType = SectionType.IOSUBSYS_IOADDR_SLOT_SUBSLOT;
-                            } else {
-                                sectionType = SectionType.IOSUBSYS_IOADDR_SLOT;
-                            }
-                        } else {
-                            sectionType = SectionType.IOSUBSYS_IOADDR;
-                        }
-                    } else {
-                        sectionType = SectionType.IOSUBSYS;
-                    }
-                    break;
-            }
-        }
+        this.textViews = data.stream().anyMatch(line -> !(line instanceof String));
 
+        // Determine section type
+        this.key = key(getRawTitle());
+        this.sectionType = key != null ? SECTION_TYPES.getOrDefault(key, SectionType.UNKNOWN) : SectionType.UNKNOWN;
     }
 
     /**
@@ -162,7 +148,7 @@ public class STEP7HWCfgFileSection {
      * @return
      */
     public List<String> getBody() {
-        return sectionBody;
+        return strings(sectionBody);
     }
 
     /**
@@ -171,7 +157,7 @@ public class STEP7HWCfgFileSection {
      * @return
      */
     public String getTitle() {
-        return sectionHead.get(0);
+        return sectionHead.get(0).toString();
     }
 
     /**
@@ -180,7 +166,7 @@ public class STEP7HWCfgFileSection {
      * @return
      */
     public List<String> getHead() {
-        return sectionHead;
+        return strings(sectionHead);
     }
 
     /**
@@ -189,7 +175,58 @@ public class STEP7HWCfgFileSection {
      * @return
      */
     public List<String> getHeadOptions() {
-        return sectionHead.subList(1, sectionHead.size());
+        return getHead().subList(1, sectionHead.size());
+    }
+
+    /**
+     * Get all lines of section body without converting them to Strings. Lines of sections read by
+     * {@link STEP7HWCfgFile#readOffHeap(java.io.File, boolean)} are text views into the file buffer.
+     *
+     * @return Read-only list of lines.
+     */
+    public List<CharSequence> getRawBody() {
+        return Collections.unmodifiableList(sectionBody);
+    }
+
+    /**
+     * Get all lines of section head without converting them to Strings.
+     *
+     * @return Read-only list of lines.
+     */
+    public List<CharSequence> getRawHead() {
+        return Collections.unmodifiableList(sectionHead);
+    }
+
+    /**
+     * Get title of section without converting it to a String.
+     *
+     * @return
+     */
+    public CharSequence getRawTitle() {
+        return sectionHead.get(0);
+    }
+
+    /**
+     * Get the line number of the section title in the file.
+     *
+     * @return Line number starting at 1, or 0 if the section was not read from a file.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Get the key of the section: the leading keyword and the keywords of the numbered qualifiers, separated by commas
+     * (e.g. "RACK,SLOT,SUBSLOT").
+     *
+     * @return Key, null if the title doesn't start with a keyword followed by a value.
+     */
+    public String getKey() {
+        return key;
     }
 
     /**
@@ -200,4 +237,121 @@ public class STEP7HWCfgFileSection {
     public SectionType getSectionType() {
         return sectionType;
     }
+
+    /**
+     * Gets the key of a section title, scanning the title once: a keyword (e.g. "DPSUBSYSTEM") followed by a value,
+     * then the keywords of the comma separated qualifiers with a number (e.g. ", DPADDRESS 3"). Scanning stops at the
+     * first item which is not a qualifier, usually the quoted order number.
+     *
+     * @param title
+     * @return Key, null if the title doesn't start with a keyword followed by a value.
+     */
+    static String key(CharSequence title) {
+        int length = title.length();
+        int keywordEnd = keywordEnd(title, 0);
+        int value = skipWhitespace(title, keywordEnd);
+
+        if (keywordEnd == 0 || value == keywordEnd || value == length || !isWordCharacter(title.charAt(value))) {
+            return null;
+        }
+
+        StringBuilder res = new StringBuilder(32).append(title, 0, keywordEnd);
+        int i = value;
+
+        while (i < length) {
+            char c = title.charAt(i);
+
+            if (c == '"') {
+                break;
+            }
+
+            if (c != ',') {
+                i++;
+                continue;
+            }
+
+            int qualifierStart = skipWhitespace(title, i + 1);
+            int qualifierEnd = keywordEnd(title, qualifierStart);
+            int number = skipWhitespace(title, qualifierEnd);
+
+            if (qualifierEnd == qualifierStart || number == qualifierEnd || number == length || !Character.isDigit(title.charAt(number))) {
+                break;
+            }
+
+            res.append(',').append(title, qualifierStart, qualifierEnd);
+            i = number;
+        }
+
+        return res.toString();
+    }
+
+    /**
+     * Gets the key of a section with the given keyword and qualifiers.
+     *
+     * @param keyword
+     * @param qualifiers
+     * @return
+     */
+    static String key(String keyword, List<String> qualifiers) {
+        return qualifiers.isEmpty() ? keyword : keyword + "," + String.join(",", qualifiers);
+    }
+
+    private static int keywordEnd(CharSequence title, int start) {
+        int i = start;
+
+        while (i < title.length() && (title.charAt(i) >= 'A' && title.charAt(i) <= 'Z' || title.charAt(i) == '_')) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int skipWhitespace(CharSequence title, int start) {
+        int i = start;
+
+        while (i < title.length() && Character.isWhitespace(title.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return c == '_' || c < 128 && Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Checks whether a line is empty or consists of whitespace only (like {@link String#isBlank()}).
+     *
+     * @param line
+     * @return
+     */
+    static boolean isBlank(CharSequence line) {
+        if (line instanceof String) {
+            return ((String) line).isBlank();
+        }
+
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the lines as Strings. Lists of Strings are returned as they are, lists containing text views are copied.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> strings(List<CharSequence> lines) {
+        if (!textViews) {
+            return (List<String>) (List<?>) lines;
+        }
+
+        List<String> res = new ArrayList<>(lines.size());
+        lines.forEach(line -> res.add(line.toString()));
+
+        return res;
+    }
 }
@@ -0,0 +1,48 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import org.feherdave.s7hwcfg.s7.StationBuilder;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+
+/**
+ * State of a file while its sections are parsed by {@link STEP7HWCfgFileSectionHandler}s.
+ */
+public interface STEP7HWCfgFileSectionContext {
+
+    /**
+     * Gets the file being parsed.
+     *
+     * @return
+     */
+    STEP7HWCfgFile getFile();
+
+    /**
+     * Gets the builder of the station.
+     *
+     * @return StationBuilder, null before the STATION section is parsed.
+     */
+    StationBuilder getStationBuilder();
+
+    /**
+     * Sets the builder of the station, done by the handler of the STATION section.
+     *
+     * @param stationBuilder
+     */
+    void setStationBuilder(StationBuilder stationBuilder);
+
+    /**
+     * Gets a DP slave or IO device parsed before.
+     *
+     * @param subsystemNumber
+     * @param address
+     * @return SubsystemRack, null if there is no such rack (yet).
+     */
+    SubsystemRack getSubsystemRack(int subsystemNumber, int address);
+
+    /**
+     * Reports a problem which doesn't stop parsing to the diagnostics sink of the file.
+     *
+     * @param code
+     * @param section Section of the problem.
+     */
+    void report(STEP7HWCfgFileDiagnosticsSink.Code code, STEP7HWCfgFileSection section);
+}
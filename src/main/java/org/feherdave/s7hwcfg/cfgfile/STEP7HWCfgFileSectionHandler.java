@@ -0,0 +1,68 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.util.List;
+
+/**
+ * Parses the sections of a kind (e.g. "DPSUBSYSTEM A, DPADDRESS B"), identified by a leading keyword and the
+ * keywords of its numbered qualifiers.
+ *
+ * Handlers are registered in {@link STEP7HWCfgFileSectionHandlers}. External handlers are found with
+ * {@link java.util.ServiceLoader}: list them in META-INF/services/org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionHandler
+ * (or "provides" them in module-info). They are shared between files and threads, so they should be stateless.
+ */
+public interface STEP7HWCfgFileSectionHandler {
+
+    /**
+     * Order of parsing. All sections of a phase are parsed (in file order) before the sections of the next phase, so
+     * handlers can rely on the components of the previous phases.
+     */
+    enum Phase {
+        /** STATION section, creates the station builder. */
+        STATION,
+        /** Racks of the station. */
+        RACKS,
+        /** Subnets (DP, PROFINET IO, MPI). */
+        SUBNETS,
+        /** Modules in rack slots. */
+        MODULES,
+        /** Modules in subslots of rack modules. */
+        SUBMODULES,
+        /** DP slaves and IO devices. */
+        SUBSYSTEM_RACKS,
+        /** Modules of DP slaves and IO devices. */
+        SUBSYSTEM_MODULES,
+        /** Sections referring to any component. */
+        FINAL
+    }
+
+    /**
+     * Gets the leading keyword of the sections (e.g. "DPSUBSYSTEM").
+     *
+     * @return
+     */
+    String getKeyword();
+
+    /**
+     * Gets the keywords of the numbered qualifiers following the leading one, in order (e.g. ["DPADDRESS", "SLOT"]).
+     *
+     * @return Keywords, empty by default.
+     */
+    default List<String> getQualifiers() {
+        return List.of();
+    }
+
+    /**
+     * Gets the phase the sections are parsed in.
+     *
+     * @return
+     */
+    Phase getPhase();
+
+    /**
+     * Parses a section and adds its content to the station.
+     *
+     * @param section
+     * @param context State of the file being parsed.
+     */
+    void handle(STEP7HWCfgFileSection section, STEP7HWCfgFileSectionContext context) throws STEP7HWCfgFileSectionFormatErrorException;
+}
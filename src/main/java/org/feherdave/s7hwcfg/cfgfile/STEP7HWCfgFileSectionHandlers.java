@@ -0,0 +1,144 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.util.*;
+
+/**
+ * Registry of section handlers by section key (leading keyword and qualifier keywords, see
+ * {@link STEP7HWCfgFileSection#getKey()}). Finding the handler of a section is a single hash lookup.
+ *
+ * The built-in handlers cover the stations, racks, subnets (DP, PROFINET IO, MPI) and modules. Sections without
+ * a handler are skipped.
+ */
+public class STEP7HWCfgFileSectionHandlers {
+
+    private static volatile List<STEP7HWCfgFileSectionHandler> serviceHandlers;
+
+    private final Map<String, STEP7HWCfgFileSectionHandler> handlers;
+
+    private STEP7HWCfgFileSectionHandlers(Map<String, STEP7HWCfgFileSectionHandler> handlers) {
+        this.handlers = handlers;
+    }
+
+    /**
+     * Creates a registry of the built-in handlers.
+     *
+     * @return STEP7HWCfgFileSectionHandlers
+     */
+    public static STEP7HWCfgFileSectionHandlers builtIn() {
+        STEP7HWCfgFileSectionHandlers res = new STEP7HWCfgFileSectionHandlers(new HashMap<>());
+
+        res.register(new BuiltInHandler("STATION", List.of(), STEP7HWCfgFileSectionHandler.Phase.STATION, STEP7HWCfgFile::handleStationSection));
+        res.register(new BuiltInHandler("RACK", List.of(), STEP7HWCfgFileSectionHandler.Phase.RACKS, STEP7HWCfgFile::handleRackSection));
+        res.register(new BuiltInHandler("DPSUBSYSTEM", List.of(), STEP7HWCfgFileSectionHandler.Phase.SUBNETS, STEP7HWCfgFile::handleSubnetSection));
+        res.register(new BuiltInHandler("IOSUBSYSTEM", List.of(), STEP7HWCfgFileSectionHandler.Phase.SUBNETS, STEP7HWCfgFile::handleSubnetSection));
+        res.register(new BuiltInHandler("MPISUBSYSTEM", List.of(), STEP7HWCfgFileSectionHandler.Phase.SUBNETS, STEP7HWCfgFile::handleSubnetSection));
+        res.register(new BuiltInHandler("RACK", List.of("SLOT"), STEP7HWCfgFileSectionHandler.Phase.MODULES, STEP7HWCfgFile::handleRackSlotSection));
+        res.register(new BuiltInHandler("RACK", List.of("SLOT", "SUBSLOT"), STEP7HWCfgFileSectionHandler.Phase.SUBMODULES, STEP7HWCfgFile::handleRackSubSlotSection));
+        res.register(new BuiltInHandler("DPSUBSYSTEM", List.of("DPADDRESS"), STEP7HWCfgFileSectionHandler.Phase.SUBSYSTEM_RACKS, STEP7HWCfgFile::handleSubsystemRackSection));
+        res.register(new BuiltInHandler("IOSUBSYSTEM", List.of("IOADDRESS"), STEP7HWCfgFileSectionHandler.Phase.SUBSYSTEM_RACKS, STEP7HWCfgFile::handleSubsystemRackSection));
+        res.register(new BuiltInHandler("DPSUBSYSTEM", List.of("DPADDRESS", "SLOT"), STEP7HWCfgFileSectionHandler.Phase.SUBSYSTEM_MODULES, STEP7HWCfgFile::handleSubsystemRackSlotSection));
+        res.register(new BuiltInHandler("IOSUBSYSTEM", List.of("IOADDRESS", "SLOT"), STEP7HWCfgFileSectionHandler.Phase.SUBSYSTEM_MODULES, STEP7HWCfgFile::handleSubsystemRackSlotSection));
+
+        return res;
+    }
+
+    /**
+     * Creates a registry of the built-in handlers and the handlers found by {@link ServiceLoader}. Service handlers
+     * replace built-in ones with the same key. Services are looked up once, by the first call.
+     *
+     * @return STEP7HWCfgFileSectionHandlers
+     */
+    public static STEP7HWCfgFileSectionHandlers defaults() {
+        STEP7HWCfgFileSectionHandlers res = builtIn();
+
+        getServiceHandlers().forEach(res::register);
+
+        return res;
+    }
+
+    /**
+     * Registers a handler, replacing the handler registered for the same key.
+     *
+     * @param handler
+     * @return this
+     */
+    public STEP7HWCfgFileSectionHandlers register(STEP7HWCfgFileSectionHandler handler) {
+        handlers.put(STEP7HWCfgFileSection.key(handler.getKeyword(), handler.getQualifiers()), handler);
+
+        return this;
+    }
+
+    /**
+     * Gets the handler of a section.
+     *
+     * @param section
+     * @return Handler, null if there is no handler for the key of the section.
+     */
+    public STEP7HWCfgFileSectionHandler get(STEP7HWCfgFileSection section) {
+        return section.getKey() != null ? handlers.get(section.getKey()) : null;
+    }
+
+    /**
+     * Gets the registered handlers.
+     *
+     * @return Read-only collection.
+     */
+    public Collection<STEP7HWCfgFileSectionHandler> getHandlers() {
+        return Collections.unmodifiableCollection(handlers.values());
+    }
+
+    private static List<STEP7HWCfgFileSectionHandler> getServiceHandlers() {
+        List<STEP7HWCfgFileSectionHandler> res = serviceHandlers;
+
+        if (res == null) {
+            List<STEP7HWCfgFileSectionHandler> loaded = new ArrayList<>();
+            ServiceLoader.load(STEP7HWCfgFileSectionHandler.class).forEach(loaded::add);
+            serviceHandlers = res = List.copyOf(loaded);
+        }
+
+        return res;
+    }
+
+    /**
+     * Handler calling a parse method of the file.
+     */
+    private static final class BuiltInHandler implements STEP7HWCfgFileSectionHandler {
+
+        @FunctionalInterface
+        interface Action {
+            void handle(STEP7HWCfgFile file, STEP7HWCfgFileSection section) throws STEP7HWCfgFileSectionFormatErrorException;
+        }
+
+        private final String keyword;
+        private final List<String> qualifiers;
+        private final Phase phase;
+        private final Action action;
+
+        BuiltInHandler(String keyword, List<String> qualifiers, Phase phase, Action action) {
+            this.keyword = keyword;
+            this.qualifiers = qualifiers;
+            this.phase = phase;
+            this.action = action;
+        }
+
+        @Override
+        public String getKeyword() {
+            return keyword;
+        }
+
+        @Override
+        public List<String> getQualifiers() {
+            return qualifiers;
+        }
+
+        @Override
+        public Phase getPhase() {
+            return phase;
+        }
+
+        @Override
+        public void handle(STEP7HWCfgFileSection section, STEP7HWCfgFileSectionContext context) throws STEP7HWCfgFileSectionFormatErrorException {
+            action.handle(context.getFile(), section);
+        }
+    }
+}
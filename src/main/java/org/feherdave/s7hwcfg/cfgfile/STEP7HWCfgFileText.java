@@ -0,0 +1,75 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Lines of a config file held in a (direct or mapped) buffer.
+ *
+ * Lines consisting of ASCII characters are returned as views into the buffer, other lines are decoded into Strings.
+ * The encoding has to be ASCII compatible.
+ */
+class STEP7HWCfgFileText implements STEP7HWCfgFileLineSource {
+
+    private final ByteBuffer text;
+    private final Charset charset;
+    private final int startPosition;
+    private int position;
+
+    /**
+     * Creates a line source over the bytes of a buffer.
+     *
+     * @param text Contents of the file, read from position to limit.
+     * @param encoding Encoding of the file.
+     */
+    STEP7HWCfgFileText(ByteBuffer text, STEP7HWCfgFileEncoding encoding) {
+        this.text = text;
+        this.charset = encoding.getCharset();
+        this.startPosition = text.position();
+        this.position = startPosition;
+    }
+
+    @Override
+    public CharSequence readLine() {
+        int limit = text.limit();
+
+        if (position >= limit) {
+            return null;
+        }
+
+        int lineStart = position;
+        int nonAscii = 0;
+        int i = lineStart;
+
+        while (i < limit) {
+            byte b = text.get(i);
+
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+
+            nonAscii |= b & 0x80;
+            i++;
+        }
+
+        position = i + 1;
+
+        if (i < limit && text.get(i) == '\r' && position < limit && text.get(position) == '\n') {
+            position++;
+        }
+
+        if (nonAscii == 0) {
+            return new STEP7HWCfgFileTextView(text, lineStart, i - lineStart);
+        }
+
+        byte[] bytes = new byte[i - lineStart];
+        text.get(lineStart, bytes);
+
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return Math.min(position, text.limit()) - startPosition;
+    }
+}
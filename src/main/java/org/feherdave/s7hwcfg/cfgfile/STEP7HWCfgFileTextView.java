@@ -0,0 +1,84 @@
+package org.feherdave.s7hwcfg.cfgfile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of ASCII text in a buffer holding the contents of a config file (see
+ * {@link STEP7HWCfgFile#readOffHeap(java.io.File, boolean)}).
+ *
+ * A view consists of a reference to the buffer, an offset and a length, the characters are read from the buffer on
+ * access. {@link #toString()} creates a String copy.
+ */
+public final class STEP7HWCfgFileTextView implements CharSequence {
+
+    private final ByteBuffer text;
+    private final int offset;
+    private final int length;
+
+    STEP7HWCfgFileTextView(ByteBuffer text, int offset, int length) {
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return (char) text.get(offset + index);
+    }
+
+    @Override
+    public STEP7HWCfgFileTextView subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+
+        return start == 0 && end == length ? this : new STEP7HWCfgFileTextView(text, offset + start, end - start);
+    }
+
+    /**
+     * Gets the view without leading and trailing whitespace and control characters (like {@link String#trim()}).
+     *
+     * @return
+     */
+    public STEP7HWCfgFileTextView trim() {
+        int start = 0;
+        int end = length;
+
+        while (start < end && text.get(offset + start) <= ' ') {
+            start++;
+        }
+
+        while (end > start && text.get(offset + end - 1) <= ' ') {
+            end--;
+        }
+
+        return subSequence(start, end);
+    }
+
+    /**
+     * Gets the offset of the view in the buffer.
+     *
+     * @return
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        text.get(offset, bytes);
+
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,223 @@
+package org.feherdave.s7hwcfg.export;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+import org.feherdave.s7hwcfg.s7.system.Address;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming writer of binary station snapshots.
+ *
+ * The snapshot holds the same content as {@link StationJsonWriter}, in big-endian binary form: the magic
+ * {@link #MAGIC} and {@link #VERSION}, then one record per station. Numbers are ints (nullable ones use
+ * {@link #NULL} for null). Strings are ints as well: -1 for null, the index of an earlier string of the snapshot,
+ * or the next free index followed by the length and the UTF-8 bytes of a new string, so repeated order numbers and
+ * names are written once.
+ *
+ * Station record: name, type, component content, racks, subnets, subsystem racks (each list is a count followed by
+ * the items). Component content: data (count, key-value pairs), address areas (count, per kind: kind, count,
+ * start and length addresses), symbols (count, address, name, comment), parameters (length, bytes), subsystem
+ * membership (subsystem number, address and role, or NULL). Address: area, data type, byte, bit.
+ *
+ * Instances are not thread-safe.
+ */
+public class StationBinaryWriter implements Closeable, Flushable {
+
+    public static final int MAGIC = 0x53374853;
+    public static final int VERSION = 1;
+    public static final int NULL = Integer.MIN_VALUE;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private boolean headerWritten;
+
+    public StationBinaryWriter(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    /**
+     * Writes a station record, preceded by the header for the first station.
+     *
+     * @param station
+     */
+    public void write(Station station) throws IOException {
+        if (!headerWritten) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            headerWritten = true;
+        }
+
+        string(station.getStationName());
+        string(station.getStationType() != null ? station.getStationType().name() : null);
+        writeComponentContent(station);
+
+        out.writeInt(station.getRacks().size());
+        for (Rack rack : station.getRacks().values()) {
+            writeRack(rack);
+        }
+
+        out.writeInt(station.getSubnets().size());
+        for (Subsystem subsystem : station.getSubnets().values()) {
+            writeSubsystem(subsystem);
+        }
+
+        out.writeInt(station.getSubsystemRacks().size());
+        for (SubsystemRack subsystemRack : station.getSubsystemRacks()) {
+            writeSubsystemRack(subsystemRack);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeRack(Rack rack) throws IOException {
+        number(rack.getRackNumber());
+        string(rack.getOrderNumber());
+        string(rack.getRackName());
+        writeComponentContent(rack);
+
+        out.writeInt(rack.getSlots().size());
+        for (SlotModule slotModule : rack.getSlots().values()) {
+            writeModule(slotModule, slotModule.getSlotNumber());
+            writeSubModules(slotModule.getSubModules());
+        }
+    }
+
+    private void writeSubsystem(Subsystem subsystem) throws IOException {
+        number(subsystem.getNumber());
+        string(subsystem.getName());
+        string(subsystem.getSubnetType().name());
+        writeData(subsystem.getData());
+
+        out.writeInt(subsystem.getNodes().size());
+        for (Integer address : subsystem.getNodes().keySet()) {
+            out.writeInt(address);
+        }
+    }
+
+    private void writeSubsystemRack(SubsystemRack subsystemRack) throws IOException {
+        writeModule(subsystemRack, subsystemRack.getAddress());
+        number(subsystemRack.getSubsystemNumber());
+
+        out.writeInt(subsystemRack.getModules().size());
+        for (SubsystemRackSlotModule module : subsystemRack.getModules().values()) {
+            writeModule(module, module.getSlotNumber());
+            writeSubModules(module.getSubModules());
+        }
+    }
+
+    private void writeSubModules(Map<Integer, SubSlotModule> subModules) throws IOException {
+        out.writeInt(subModules.size());
+        for (SubSlotModule subSlotModule : subModules.values()) {
+            writeModule(subSlotModule, subSlotModule.getSubslotNumber());
+        }
+    }
+
+    private <T extends HWComponent & Module> void writeModule(T module, Integer position) throws IOException {
+        number(position);
+        string(module.getOrderNumber());
+        string(module.getVersion());
+        string(module.getName());
+        writeComponentContent(module);
+    }
+
+    private void writeComponentContent(HWComponent component) throws IOException {
+        writeData(component.getData());
+
+        out.writeInt(component.getAddressAreas().size());
+        for (Map.Entry<String, List<HWComponent.AddressArea>> areas : component.getAddressAreas().entrySet()) {
+            string(areas.getKey());
+            out.writeInt(areas.getValue().size());
+
+            for (HWComponent.AddressArea area : areas.getValue()) {
+                writeAddress(area.startAddress);
+                writeAddress(area.areaLength);
+            }
+        }
+
+        out.writeInt(component.getSymbols().size());
+        for (HWComponent.Symbol symbol : component.getSymbols()) {
+            writeAddress(symbol.address);
+            string(symbol.symbolName);
+            string(symbol.comment);
+        }
+
+        ByteBuffer parameters = component.getParameters();
+        out.writeInt(parameters.remaining());
+        while (parameters.hasRemaining()) {
+            out.writeByte(parameters.get());
+        }
+
+        SubsystemMemberShip memberShip = component.getSubsystemMemberShip();
+        if (memberShip != null) {
+            number(memberShip.getSubsystem().getNumber());
+            number(memberShip.getAddress());
+            string(memberShip.getRole().name());
+        } else {
+            out.writeInt(NULL);
+        }
+    }
+
+    private void writeAddress(Address address) throws IOException {
+        string(address.getAddressType().name());
+        string(address.getAddressDataType() != null ? address.getAddressDataType().name() : null);
+        number(address.getAddressByte());
+        number(address.getAddressBit());
+    }
+
+    private void writeData(Map<String, String> data) throws IOException {
+        out.writeInt(data.size());
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            string(entry.getKey());
+            string(entry.getValue());
+        }
+    }
+
+    private void number(Integer value) throws IOException {
+        out.writeInt(value != null ? value : NULL);
+    }
+
+    private void string(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        Integer index = strings.get(value);
+
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(strings.size());
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        strings.put(value, strings.size());
+    }
+}
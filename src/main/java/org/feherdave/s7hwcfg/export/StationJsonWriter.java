@@ -0,0 +1,414 @@
+package org.feherdave.s7hwcfg.export;
+
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSection;
+import org.feherdave.s7hwcfg.s7.SlotTable;
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+import org.feherdave.s7hwcfg.s7.system.Address;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON writer for station graphs.
+ *
+ * The writer walks the station tree (racks, slot modules, subslot modules, subnets, subsystem racks and their
+ * modules) and writes the JSON document straight to the target through a small reusable character buffer, without
+ * building the document in memory. Sections of a config file can be written without building a station as well.
+ *
+ * Instances are not thread-safe, but can be reused for several documents.
+ */
+public class StationJsonWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+
+    public StationJsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public StationJsonWriter(OutputStream out) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a station as a JSON object.
+     *
+     * @param station
+     */
+    public void write(Station station) throws IOException {
+        append('{');
+        field("name", station.getStationName());
+        append(',');
+        field("type", station.getStationType() != null ? station.getStationType().name() : null);
+        append(',');
+        writeComponentContent(station);
+
+        append(",\"racks\":[");
+        boolean first = true;
+        for (Rack rack : station.getRacks().values()) {
+            first = separator(first);
+            writeRack(rack);
+        }
+
+        append("],\"subnets\":[");
+        first = true;
+        for (Subsystem subsystem : station.getSubnets().values()) {
+            first = separator(first);
+            writeSubsystem(subsystem);
+        }
+
+        append("],\"subsystemRacks\":[");
+        first = true;
+        for (SubsystemRack subsystemRack : station.getSubsystemRacks()) {
+            first = separator(first);
+            writeSubsystemRack(subsystemRack);
+        }
+
+        append("]}");
+    }
+
+    /**
+     * Writes the raw sections of a config file as a JSON array, without building a station.
+     *
+     * @param sections Sections of a config file.
+     */
+    public void writeSections(Iterable<STEP7HWCfgFileSection> sections) throws IOException {
+        append('[');
+
+        boolean first = true;
+        for (STEP7HWCfgFileSection section : sections) {
+            first = separator(first);
+
+            append('{');
+            field("type", section.getSectionType().name());
+            append(',');
+            field("title", section.getTitle());
+            append(",\"headOptions\":");
+            writeStrings(section.getHeadOptions());
+            append(",\"body\":");
+            writeStrings(section.getBody());
+            append('}');
+        }
+
+        append(']');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    private void writeRack(Rack rack) throws IOException {
+        append('{');
+        field("number", rack.getRackNumber());
+        append(',');
+        field("orderNumber", rack.getOrderNumber());
+        append(',');
+        field("name", rack.getRackName());
+        append(',');
+        writeComponentContent(rack);
+
+        append(",\"slots\":[");
+        boolean first = true;
+        for (SlotModule slotModule : rack.getSlots().values()) {
+            first = separator(first);
+            writeModuleHead(slotModule, "slot", slotModule.getSlotNumber());
+            writeSubModules(slotModule.getSubModules());
+            append('}');
+        }
+
+        append("]}");
+    }
+
+    private void writeSubsystem(Subsystem subsystem) throws IOException {
+        append('{');
+        field("number", subsystem.getNumber());
+        append(',');
+        field("name", subsystem.getName());
+        append(',');
+        field("type", subsystem.getSubnetType().name());
+        append(",\"data\":");
+        writeData(subsystem.getData());
+
+        append(",\"nodes\":[");
+        boolean first = true;
+        SlotTable<Module> nodes = subsystem.getNodes();
+        for (int address = nodes.nextKey(0); address >= 0; address = address < Integer.MAX_VALUE ? nodes.nextKey(address + 1) : -1) {
+            first = separator(first);
+
+            append('{');
+            field("address", address);
+            append(',');
+            field("orderNumber", nodes.get(address).getOrderNumber());
+            append(',');
+            field("name", nodes.get(address).getName());
+            append('}');
+        }
+
+        append("]}");
+    }
+
+    private void writeSubsystemRack(SubsystemRack subsystemRack) throws IOException {
+        writeModuleHead(subsystemRack, "address", subsystemRack.getAddress());
+        append(',');
+        field("subsystem", subsystemRack.getSubsystemNumber());
+
+        append(",\"modules\":[");
+        boolean first = true;
+        for (SubsystemRackSlotModule module : subsystemRack.getModules().values()) {
+            first = separator(first);
+            writeModuleHead(module, "slot", module.getSlotNumber());
+            writeSubModules(module.getSubModules());
+            append('}');
+        }
+
+        append("]}");
+    }
+
+    private void writeSubModules(Map<Integer, SubSlotModule> subModules) throws IOException {
+        append(",\"subModules\":[");
+
+        boolean first = true;
+        for (SubSlotModule subSlotModule : subModules.values()) {
+            first = separator(first);
+            writeModuleHead(subSlotModule, "subslot", subSlotModule.getSubslotNumber());
+            append('}');
+        }
+
+        append(']');
+    }
+
+    /**
+     * Writes the opening brace and the common fields of a module, leaves the object open.
+     */
+    private <T extends HWComponent & Module> void writeModuleHead(T module, String positionName, Integer position) throws IOException {
+        append('{');
+        field(positionName, position);
+        append(',');
+        field("orderNumber", module.getOrderNumber());
+        append(',');
+        field("version", module.getVersion());
+        append(',');
+        field("name", module.getName());
+        append(',');
+        writeComponentContent(module);
+    }
+
+    /**
+     * Writes data, address areas, symbols, parameters and subsystem membership of a component.
+     */
+    private void writeComponentContent(HWComponent component) throws IOException {
+        append("\"data\":");
+        writeData(component.getData());
+
+        append(",\"addressAreas\":{");
+        boolean first = true;
+        for (Map.Entry<String, List<HWComponent.AddressArea>> areas : component.getAddressAreas().entrySet()) {
+            first = separator(first);
+            string(areas.getKey());
+            append(":[");
+
+            boolean firstArea = true;
+            for (HWComponent.AddressArea area : areas.getValue()) {
+                firstArea = separator(firstArea);
+                append("{\"start\":");
+                writeAddress(area.startAddress);
+                append(",\"length\":");
+                writeAddress(area.areaLength);
+                append('}');
+            }
+
+            append(']');
+        }
+
+        append("},\"symbols\":[");
+        first = true;
+        for (HWComponent.Symbol symbol : component.getSymbols()) {
+            first = separator(first);
+            append("{\"address\":");
+            writeAddress(symbol.address);
+            append(',');
+            field("name", symbol.symbolName);
+            append(',');
+            field("comment", symbol.comment);
+            append('}');
+        }
+
+        append("],\"parameters\":\"");
+        ByteBuffer parameters = component.getParameters();
+        while (parameters.hasRemaining()) {
+            byte value = parameters.get();
+            append(HEX_DIGITS[(value >> 4) & 0xF]);
+            append(HEX_DIGITS[value & 0xF]);
+        }
+        append('"');
+
+        SubsystemMemberShip memberShip = component.getSubsystemMemberShip();
+        if (memberShip != null) {
+            append(",\"subsystemMemberShip\":{");
+            field("subsystem", memberShip.getSubsystem().getNumber());
+            append(',');
+            field("address", memberShip.getAddress());
+            append(',');
+            field("role", memberShip.getRole().name());
+            append('}');
+        }
+    }
+
+    private void writeAddress(Address address) throws IOException {
+        append('{');
+        field("area", address.getAddressType().name());
+        append(',');
+        field("type", address.getAddressDataType() != null ? address.getAddressDataType().name() : null);
+        append(',');
+        field("byte", address.getAddressByte());
+        if (address.getAddressBit() != null) {
+            append(',');
+            field("bit", address.getAddressBit());
+        }
+        append('}');
+    }
+
+    private void writeData(Map<String, String> data) throws IOException {
+        append('{');
+
+        boolean first = true;
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            first = separator(first);
+            field(entry.getKey(), entry.getValue());
+        }
+
+        append('}');
+    }
+
+    private void writeStrings(List<String> strings) throws IOException {
+        append('[');
+
+        boolean first = true;
+        for (String value : strings) {
+            first = separator(first);
+            string(value);
+        }
+
+        append(']');
+    }
+
+    private boolean separator(boolean first) throws IOException {
+        if (!first) {
+            append(',');
+        }
+
+        return false;
+    }
+
+    private void field(String name, String value) throws IOException {
+        string(name);
+        append(':');
+        string(value);
+    }
+
+    private void field(String name, Integer value) throws IOException {
+        string(name);
+        append(':');
+
+        if (value == null) {
+            append("null");
+        } else {
+            append(Integer.toString(value));
+        }
+    }
+
+    /**
+     * Writes a JSON string literal (or null).
+     */
+    private void string(String value) throws IOException {
+        if (value == null) {
+            append("null");
+            return;
+        }
+
+        append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    append("\\\"");
+                    break;
+                case '\\':
+                    append("\\\\");
+                    break;
+                case '\n':
+                    append("\\n");
+                    break;
+                case '\r':
+                    append("\\r");
+                    break;
+                case '\t':
+                    append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        append("\\u00");
+                        append(HEX_DIGITS[c >> 4]);
+                        append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+
+        append('"');
+    }
+
+    private void append(char c) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        buffer[position++] = c;
+    }
+
+    private void append(String value) throws IOException {
+        int length = value.length();
+
+        if (position + length > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+
+            if (length > buffer.length) {
+                out.write(value);
+                return;
+            }
+        }
+
+        value.getChars(0, length, buffer, position);
+        position += length;
+    }
+}
@@ -0,0 +1,252 @@
+package org.feherdave.s7hwcfg.export;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+import org.feherdave.s7hwcfg.s7.system.Address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Exports stations as flat tables for analytics.
+ *
+ * Two tables are written: one row per hardware component (racks, modules, subslot modules, subsystem racks and their
+ * modules) and one row per address area. Stations are rendered in parallel on the given executor, the rendered rows
+ * are written to the channels in station order. At most {@code window} rendered stations are held in memory at a time.
+ */
+public class StationTableExporter {
+
+    public enum Format {
+        CSV(','),
+        TSV('\t');
+
+        private final char separator;
+
+        Format(char separator) {
+            this.separator = separator;
+        }
+
+        public char getSeparator() {
+            return separator;
+        }
+    }
+
+    public static final List<String> MODULE_COLUMNS = List.of("station", "kind", "rack", "subsystem", "address", "slot", "subslot", "order_number", "version", "name");
+    public static final List<String> ADDRESS_AREA_COLUMNS = List.of("station", "kind", "rack", "subsystem", "address", "slot", "subslot", "direction", "area", "data_type", "start_byte", "start_bit", "length_type", "length");
+
+    private final Format format;
+    private final ExecutorService executor;
+    private final int window;
+
+    /**
+     * Creates a new exporter.
+     *
+     * @param format Output format.
+     * @param executor Executor stations are rendered on.
+     * @param window Maximum number of stations rendered ahead of the writer.
+     */
+    public StationTableExporter(Format format, ExecutorService executor, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1: " + window);
+        }
+
+        this.format = format;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Exports stations into two files (created or truncated).
+     *
+     * @param stations Stations to export.
+     * @param modulesFile File of module table.
+     * @param addressAreasFile File of address area table.
+     */
+    public void export(Iterable<Station> stations, Path modulesFile, Path addressAreasFile) throws IOException {
+        try (FileChannel modules = FileChannel.open(modulesFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel addressAreas = FileChannel.open(addressAreasFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            export(stations, modules, addressAreas);
+        }
+    }
+
+    /**
+     * Exports stations into two channels, header rows included.
+     *
+     * @param stations Stations to export.
+     * @param modules Channel of module table.
+     * @param addressAreas Channel of address area table.
+     */
+    public void export(Iterable<Station> stations, WritableByteChannel modules, WritableByteChannel addressAreas) throws IOException {
+        writeFully(modules, encode(header(MODULE_COLUMNS)));
+        writeFully(addressAreas, encode(header(ADDRESS_AREA_COLUMNS)));
+
+        Deque<Future<ByteBuffer[]>> inFlight = new ArrayDeque<>(window);
+        Iterator<Station> iterator = stations.iterator();
+
+        try {
+            while (iterator.hasNext() || !inFlight.isEmpty()) {
+                while (iterator.hasNext() && inFlight.size() < window) {
+                    Station station = iterator.next();
+                    inFlight.add(executor.submit(() -> render(station)));
+                }
+
+                ByteBuffer[] tables = inFlight.removeFirst().get();
+
+                writeFully(modules, tables[0]);
+                writeFully(addressAreas, tables[1]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Rendering a station failed", e.getCause());
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Renders the rows of a station.
+     *
+     * @param station
+     * @return Encoded rows of module table and address area table.
+     */
+    private ByteBuffer[] render(Station station) {
+        StringBuilder modules = new StringBuilder(4096);
+        StringBuilder addressAreas = new StringBuilder(4096);
+        String stationName = station.getStationName();
+
+        for (Rack rack : station.getRacks().values()) {
+            Object[] position = { stationName, "RACK", rack.getRackNumber(), null, null, null, null };
+            row(modules, position, rack.getOrderNumber(), null, rack.getRackName());
+            addressAreaRows(addressAreas, position, rack);
+
+            for (SlotModule slotModule : rack.getSlots().values()) {
+                position = new Object[] { stationName, "SLOT_MODULE", rack.getRackNumber(), null, null, slotModule.getSlotNumber(), null };
+                row(modules, position, slotModule.getOrderNumber(), slotModule.getVersion(), slotModule.getName());
+                addressAreaRows(addressAreas, position, slotModule);
+
+                for (SubSlotModule subSlotModule : slotModule.getSubModules().values()) {
+                    position = new Object[] { stationName, "SUBSLOT_MODULE", rack.getRackNumber(), null, null, slotModule.getSlotNumber(), subSlotModule.getSubslotNumber() };
+                    row(modules, position, subSlotModule.getOrderNumber(), subSlotModule.getVersion(), subSlotModule.getName());
+                    addressAreaRows(addressAreas, position, subSlotModule);
+                }
+            }
+        }
+
+        for (SubsystemRack subsystemRack : station.getSubsystemRacks()) {
+            Integer subsystem = subsystemRack.getSubsystemNumber();
+            Integer address = subsystemRack.getAddress();
+
+            Object[] position = { stationName, "SUBSYSTEM_RACK", null, subsystem, address, null, null };
+            row(modules, position, subsystemRack.getOrderNumber(), subsystemRack.getVersion(), subsystemRack.getName());
+            addressAreaRows(addressAreas, position, subsystemRack);
+
+            for (SubsystemRackSlotModule module : subsystemRack.getModules().values()) {
+                position = new Object[] { stationName, "SUBSYSTEM_RACK_SLOT_MODULE", null, subsystem, address, module.getSlotNumber(), null };
+                row(modules, position, module.getOrderNumber(), module.getVersion(), module.getName());
+                addressAreaRows(addressAreas, position, module);
+
+                for (SubSlotModule subSlotModule : module.getSubModules().values()) {
+                    position = new Object[] { stationName, "SUBSLOT_MODULE", null, subsystem, address, module.getSlotNumber(), subSlotModule.getSubslotNumber() };
+                    row(modules, position, subSlotModule.getOrderNumber(), subSlotModule.getVersion(), subSlotModule.getName());
+                    addressAreaRows(addressAreas, position, subSlotModule);
+                }
+            }
+        }
+
+        return new ByteBuffer[] { encode(modules), encode(addressAreas) };
+    }
+
+    private void row(StringBuilder out, Object[] position, String orderNumber, String version, String name) {
+        for (Object value : position) {
+            cell(out, value);
+            out.append(format.separator);
+        }
+
+        cell(out, orderNumber);
+        out.append(format.separator);
+        cell(out, version);
+        out.append(format.separator);
+        cell(out, name);
+        out.append('\n');
+    }
+
+    private void addressAreaRows(StringBuilder out, Object[] position, HWComponent component) {
+        for (Map.Entry<String, List<HWComponent.AddressArea>> areas : component.getAddressAreas().entrySet()) {
+            for (HWComponent.AddressArea area : areas.getValue()) {
+                Address start = area.startAddress;
+                Address length = area.areaLength;
+
+                for (Object value : position) {
+                    cell(out, value);
+                    out.append(format.separator);
+                }
+
+                cell(out, areas.getKey());
+                out.append(format.separator);
+                cell(out, start.getAddressType());
+                out.append(format.separator);
+                cell(out, start.getAddressDataType());
+                out.append(format.separator);
+                cell(out, start.getAddressByte());
+                out.append(format.separator);
+                cell(out, start.getAddressBit());
+                out.append(format.separator);
+                cell(out, length.getAddressDataType());
+                out.append(format.separator);
+                cell(out, length.getAddressByte());
+                out.append('\n');
+            }
+        }
+    }
+
+    /**
+     * Appends a cell value. CSV values are quoted if needed, TSV values have tabs and line breaks replaced by spaces.
+     */
+    private void cell(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+
+        String text = value.toString();
+
+        if (format == Format.TSV) {
+            out.append(text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+        } else if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            out.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else {
+            out.append(text);
+        }
+    }
+
+    private CharSequence header(List<String> columns) {
+        return String.join(String.valueOf(format.separator), columns) + "\n";
+    }
+
+    private static ByteBuffer encode(CharSequence text) {
+        return StandardCharsets.UTF_8.encode(text.toString());
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.feherdave.s7hwcfg.s7;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of immutable configuration payloads (data maps, address areas, PARAMETER blocks and strings) shared between
+ * elements with identical content, e.g. the modules of identical DP slaves which only differ in their address.
+ *
+ * Payloads are shared while a station is frozen (see {@link Station#freeze(Deduplicator)}), every element shares
+ * its payloads before its own frozen state is published. Stations frozen before are not shared. Per-instance fields
+ * (numbers, addresses, subsystem membership, symbols) are kept. A pool may be used for any number of stations, also
+ * concurrently, sharing payloads across the stations.
+ *
+ * Maps are only shared if their entries are equal in the same order, so iteration order is kept. The pool keeps
+ * one instance of every distinct payload alive, it can be dropped once the stations are frozen.
+ */
+public class Deduplicator {
+
+    private final Map<Object, Object> pool = new ConcurrentHashMap<>();
+    private final LongAdder sharedCount = new LongAdder();
+
+    /**
+     * Gets the shared instance of a string.
+     *
+     * @param value String, may be null.
+     * @return Shared equal string, null for null.
+     */
+    public String share(String value) {
+        return value != null ? shared(value, value) : null;
+    }
+
+    /**
+     * Gets the shared instance of an immutable map.
+     *
+     * @param map Immutable map.
+     * @return Shared map with equal entries in the same order.
+     */
+    public <K, V> Map<K, V> share(Map<K, V> map) {
+        if (map.isEmpty()) {
+            return map;
+        }
+
+        return shared(new EntriesKey(new ArrayList<>(map.entrySet())), map);
+    }
+
+    /**
+     * Gets the shared instance of a data map. If there is no equal map in the pool yet, its keys and values are
+     * shared instead.
+     *
+     * @param data Immutable data map.
+     * @return Shared map with equal entries in the same order.
+     */
+    public Map<String, String> shareData(Map<String, String> data) {
+        if (data.isEmpty()) {
+            return data;
+        }
+
+        EntriesKey key = new EntriesKey(new ArrayList<>(data.entrySet()));
+        @SuppressWarnings("unchecked")
+        Map<String, String> res = (Map<String, String>) pool.get(key);
+
+        if (res != null) {
+            sharedCount.increment();
+            return res;
+        }
+
+        Map<String, String> sharedStrings = new LinkedHashMap<>();
+        data.forEach((name, value) -> sharedStrings.put(share(name), share(value)));
+
+        return shared(key, Collections.unmodifiableMap(sharedStrings));
+    }
+
+    /**
+     * Gets the shared instance of a PARAMETER block.
+     *
+     * @param parameters Bytes, not modified afterwards. May be null.
+     * @return Shared array with equal bytes, null for null.
+     */
+    public byte[] share(byte[] parameters) {
+        return parameters != null ? shared(ByteBuffer.wrap(parameters), parameters) : null;
+    }
+
+    /**
+     * Gets the number of payloads replaced by a shared instance.
+     *
+     * @return
+     */
+    public long getSharedCount() {
+        return sharedCount.sum();
+    }
+
+    /**
+     * Gets the number of distinct payloads in the pool.
+     *
+     * @return
+     */
+    public int getDistinctCount() {
+        return pool.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T shared(Object key, T value) {
+        T res = (T) pool.putIfAbsent(key, value);
+
+        if (res == null) {
+            return value;
+        }
+
+        if (res != value) {
+            sharedCount.increment();
+        }
+
+        return res;
+    }
+
+    /**
+     * Pool key of a map: its entries in iteration order. Distinct from lists used as keys by its type.
+     */
+    private static final class EntriesKey {
+        private final List<?> entries;
+        private final int hash;
+
+        EntriesKey(List<?> entries) {
+            this.entries = entries;
+            this.hash = entries.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EntriesKey && hash == ((EntriesKey) o).hash && entries.equals(((EntriesKey) o).entries);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.feherdave.s7hwcfg.s7;
+
+/**
+ * Builder of 64-bit content hashes (fingerprints) of elements.
+ *
+ * Values are mixed in the order they are added (MurmurHash3 style mixing), the result only depends on the values,
+ * so fingerprints are stable across runs and JVMs. Strings are length-prefixed and null is distinct from the empty
+ * string, so ("ab", "c") and ("a", "bc") hash differently.
+ */
+public final class Fingerprint {
+
+    private static final long SEED = 0x5337_4857_4346_4750L;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long hash = SEED;
+    private long length;
+
+    /**
+     * Adds a number.
+     *
+     * @param value
+     * @return This fingerprint.
+     */
+    public Fingerprint add(long value) {
+        long k = Long.rotateLeft(value * C1, 31) * C2;
+
+        hash ^= k;
+        hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+        length++;
+
+        return this;
+    }
+
+    /**
+     * Adds a boxed number, null is distinct from every number.
+     *
+     * @param value Number, may be null.
+     * @return This fingerprint.
+     */
+    public Fingerprint add(Integer value) {
+        return value != null ? add(1L).add((long) value) : add(0L);
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value String, may be null.
+     * @return This fingerprint.
+     */
+    public Fingerprint add(String value) {
+        if (value == null) {
+            return add(-1L);
+        }
+
+        int length = value.length();
+        add(length);
+
+        for (int i = 0; i < length; i += 4) {
+            long chunk = 0;
+
+            for (int j = i; j < Math.min(i + 4, length); j++) {
+                chunk = chunk << 16 | value.charAt(j);
+            }
+
+            add(chunk);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds an enum constant by name, so fingerprints don't change if constants are reordered.
+     *
+     * @param value Enum constant, may be null.
+     * @return This fingerprint.
+     */
+    public Fingerprint add(Enum<?> value) {
+        return add(value != null ? value.name() : null);
+    }
+
+    /**
+     * Adds bytes.
+     *
+     * @param value Bytes, may be null.
+     * @return This fingerprint.
+     */
+    public Fingerprint add(byte[] value) {
+        if (value == null) {
+            return add(-1L);
+        }
+
+        add(value.length);
+
+        for (int i = 0; i < value.length; i += 8) {
+            long chunk = 0;
+
+            for (int j = i; j < Math.min(i + 8, value.length); j++) {
+                chunk = chunk << 8 | (value[j] & 0xFF);
+            }
+
+            add(chunk);
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the fingerprint of the values added.
+     *
+     * @return
+     */
+    public long get() {
+        long res = hash ^ length;
+
+        res ^= res >>> 33;
+        res *= 0xff51afd7ed558ccdL;
+        res ^= res >>> 33;
+        res *= 0xc4ceb9fe1a85ec53L;
+        res ^= res >>> 33;
+
+        return res;
+    }
+}
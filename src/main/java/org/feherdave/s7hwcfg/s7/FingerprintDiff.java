@@ -0,0 +1,152 @@
+package org.feherdave.s7hwcfg.s7;
+
+import java.util.*;
+
+/**
+ * Differences between two versions of an element tree (usually a station), found by comparing fingerprints.
+ *
+ * Equal fingerprints mean equal subtrees, so the comparison only descends into children whose fingerprints differ.
+ * A single changed module is found by comparing the station, its rack and the slot, not the whole station.
+ */
+public class FingerprintDiff {
+
+    public enum Kind { ADDED, REMOVED, CHANGED }
+
+    /**
+     * Difference of an element.
+     */
+    public static final class Change {
+        private final Kind kind;
+        private final List<String> path;
+        private final HWConfigElement oldElement;
+        private final HWConfigElement newElement;
+
+        private Change(Kind kind, List<String> path, HWConfigElement oldElement, HWConfigElement newElement) {
+            this.kind = kind;
+            this.path = path;
+            this.oldElement = oldElement;
+            this.newElement = newElement;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Gets the position of the element below the compared elements.
+         *
+         * @return Read-only list of positions (e.g. ["RACK 0", "SLOT 5"]), empty for the compared elements themselves.
+         */
+        public List<String> getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the old element.
+         *
+         * @return Element, null if it was added.
+         */
+        public HWConfigElement getOldElement() {
+            return oldElement;
+        }
+
+        /**
+         * Gets the new element.
+         *
+         * @return Element, null if it was removed.
+         */
+        public HWConfigElement getNewElement() {
+            return newElement;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + String.join(" / ", path);
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+    private int comparedCount;
+
+    private FingerprintDiff() {
+    }
+
+    /**
+     * Compares two versions of an element tree. Elements with a changed own content are reported as CHANGED,
+     * children only present in one of the versions as REMOVED or ADDED (without their own children).
+     *
+     * @param oldElement
+     * @param newElement
+     * @return FingerprintDiff
+     */
+    public static FingerprintDiff compare(HWConfigElement oldElement, HWConfigElement newElement) {
+        FingerprintDiff res = new FingerprintDiff();
+
+        res.compare(new ArrayDeque<>(), oldElement, newElement);
+
+        return res;
+    }
+
+    /**
+     * Gets the changes.
+     *
+     * @return Read-only list of changes, parents before children.
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Checks whether the compared trees are equal.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Gets the number of element pairs whose fingerprints were compared.
+     *
+     * @return
+     */
+    public int getComparedCount() {
+        return comparedCount;
+    }
+
+    private void compare(Deque<String> path, HWConfigElement oldElement, HWConfigElement newElement) {
+        comparedCount++;
+
+        if (oldElement.getFingerprint() == newElement.getFingerprint()) {
+            return;
+        }
+
+        if (oldElement.getContentFingerprint() != newElement.getContentFingerprint()) {
+            changes.add(new Change(Kind.CHANGED, List.copyOf(path), oldElement, newElement));
+        }
+
+        Map<String, HWConfigElement> oldChildren = oldElement.fingerprintChildren();
+        Map<String, HWConfigElement> newChildren = newElement.fingerprintChildren();
+
+        oldChildren.forEach((key, oldChild) -> {
+            HWConfigElement newChild = newChildren.get(key);
+            path.addLast(key);
+
+            if (newChild == null) {
+                changes.add(new Change(Kind.REMOVED, List.copyOf(path), oldChild, null));
+            } else {
+                compare(path, oldChild, newChild);
+            }
+
+            path.removeLast();
+        });
+
+        newChildren.forEach((key, newChild) -> {
+            if (!oldChildren.containsKey(key)) {
+                path.addLast(key);
+                changes.add(new Change(Kind.ADDED, List.copyOf(path), null, newChild));
+                path.removeLast();
+            }
+        });
+    }
+}
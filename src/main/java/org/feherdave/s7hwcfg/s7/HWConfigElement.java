@@ -2,9 +2,11 @@ package org.feherdave.s7hwcfg.s7;
 
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionFormatErrorException;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -12,6 +14,9 @@ public abstract class HWConfigElement {
 
     public static List<String> CONFIG_DATA_KEYWORDS = List.of("LOCAL_IN_ADDRESSES", "LOCAL_OUT_ADDRESSES", "PARAMETER", "SYMBOL");
     protected Map<String, String> data = new LinkedHashMap<>();
+    private volatile boolean frozen;
+    private long contentFingerprint;
+    private long fingerprint;
 
     /**
      * Processes the configuration section between START and END
@@ -19,7 +24,15 @@ public abstract class HWConfigElement {
      * @param configSection
      */
     public void parseConfigurationData(List<String> configSection) throws STEP7HWCfgFileSectionFormatErrorException {
-        // Process configuration section
+        parseData(configSection);
+    }
+
+    /**
+     * Processes the key-value pairs (e.g. COMMENT "...") of the configuration section.
+     *
+     * @param configSection
+     */
+    protected void parseData(List<String> configSection) {
         configSection.stream()
                 .takeWhile(line -> !CONFIG_DATA_KEYWORDS.contains(line))
                 .forEach(line -> {
@@ -37,6 +50,187 @@ public abstract class HWConfigElement {
     }
 
     public void putData(String key, String value) {
+        checkNotFrozen();
         data.put(key, value);
     }
+
+    /**
+     * Makes the element and all elements below it immutable. Collections are replaced by unmodifiable copies,
+     * mutators throw IllegalStateException afterwards. Freezing an already frozen element has no effect.
+     *
+     * The frozen state is published by a volatile write after all collections have been replaced, so a frozen
+     * element handed over to other threads through a final or volatile field or a concurrent collection can be
+     * read by any number of threads without synchronization.
+     *
+     * @return This element.
+     */
+    public HWConfigElement freeze() {
+        return freeze(null);
+    }
+
+    /**
+     * Makes the element and all elements below it immutable like {@link #freeze()}, sharing their payloads
+     * (e.g. data maps) with equal payloads of other elements through a pool. Every element shares its payloads
+     * before its own frozen state is published. Freezing an already frozen element has no effect, its payloads are
+     * not shared then.
+     *
+     * @param deduplicator Pool of shared payloads, null to keep all payloads.
+     * @return This element.
+     */
+    public synchronized HWConfigElement freeze(Deduplicator deduplicator) {
+        if (!frozen) {
+            freezeContent(deduplicator);
+
+            if (deduplicator != null) {
+                shareContent(deduplicator);
+            }
+
+            // Children are frozen by now, their fingerprints are cached
+            contentFingerprint = computeContentFingerprint();
+            fingerprint = computeFingerprint(contentFingerprint);
+            frozen = true;
+        }
+
+        return this;
+    }
+
+    /**
+     * Replaces the mutable state of the element by unmodifiable copies. Subclasses extend it to freeze their
+     * own collections and child elements, passing the pool on to the children.
+     *
+     * @param deduplicator Pool of shared payloads, null to keep all payloads.
+     */
+    protected void freezeContent(Deduplicator deduplicator) {
+        data = frozenCopy(data);
+    }
+
+    /**
+     * Replaces the payloads of the element by shared instances with equal content. Subclasses extend it to share
+     * their own payloads, the elements below share theirs when they are frozen.
+     *
+     * @param deduplicator
+     */
+    protected void shareContent(Deduplicator deduplicator) {
+        data = deduplicator.shareData(data);
+    }
+
+    /**
+     * Gets the decoded PARAMETER block without copying, for size estimates.
+     *
+     * @return Bytes, null if the element has no PARAMETER block.
+     */
+    protected byte[] getParameterBytes() {
+        return null;
+    }
+
+    /**
+     * Gets the fingerprint of the element's own content (e.g. names, data, addresses and parameters), without its
+     * children.
+     *
+     * @return 64-bit content hash.
+     */
+    public long getContentFingerprint() {
+        return frozen ? contentFingerprint : computeContentFingerprint();
+    }
+
+    /**
+     * Gets the fingerprint of the element and all elements below it. Two elements with the same fingerprint are
+     * equal in content with very high probability, different fingerprints can be narrowed down to the changed
+     * children by {@link FingerprintDiff}.
+     *
+     * Fingerprints of frozen elements are computed once while freezing, bottom-up, otherwise on every call.
+     *
+     * @return 64-bit content hash.
+     */
+    public long getFingerprint() {
+        return frozen ? fingerprint : computeFingerprint(computeContentFingerprint());
+    }
+
+    /**
+     * Adds the own content of the element to a fingerprint. Subclasses extend it to add their own fields.
+     *
+     * @param res
+     */
+    protected void fingerprintContent(Fingerprint res) {
+        res.add(getClass().getSimpleName()).add(data.size());
+        data.forEach((key, value) -> res.add(key).add(value));
+    }
+
+    /**
+     * Gets the child elements of the element for fingerprinting, keyed by their position (e.g. "SLOT 4").
+     *
+     * @return Map of position to child element, in a stable order.
+     */
+    protected Map<String, HWConfigElement> fingerprintChildren() {
+        return Map.of();
+    }
+
+    /**
+     * Keys child elements by their position for {@link #fingerprintChildren()}, in ascending number order.
+     *
+     * @param keyword Kind of position (e.g. "SLOT").
+     * @param children Map of number to child element.
+     * @return Map of position (e.g. "SLOT 4") to child element.
+     */
+    protected static Map<String, HWConfigElement> positions(String keyword, Map<Integer, ? extends HWConfigElement> children) {
+        Map<String, HWConfigElement> res = new LinkedHashMap<>();
+
+        new TreeMap<>(children).forEach((number, child) -> res.put(keyword + " " + number, child));
+
+        return res;
+    }
+
+    private long computeContentFingerprint() {
+        Fingerprint res = new Fingerprint();
+
+        fingerprintContent(res);
+
+        return res.get();
+    }
+
+    private long computeFingerprint(long contentFingerprint) {
+        Fingerprint res = new Fingerprint().add(contentFingerprint);
+
+        fingerprintChildren().forEach((key, child) -> res.add(key).add(child.getFingerprint()));
+
+        return res.get();
+    }
+
+    /**
+     * Checks whether the element is frozen.
+     *
+     * @return true if the element is immutable.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Throws an exception if the element is frozen.
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Element is frozen: " + this);
+        }
+    }
+
+    /**
+     * Creates an unmodifiable copy of a map keeping its iteration order.
+     *
+     * @param map
+     * @return Unmodifiable map.
+     */
+    protected static <K, V> Map<K, V> frozenCopy(Map<K, V> map) {
+        return map.isEmpty() ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(map));
+    }
+
+    /**
+     * Freezes a slot table. Empty tables are replaced by the shared empty table.
+     *
+     * @param table
+     * @return Frozen table.
+     */
+    protected static <T> SlotTable<T> frozenTable(SlotTable<T> table) {
+        return table.isEmpty() ? SlotTable.emptyTable() : table.freeze();
+    }
 }
@@ -0,0 +1,429 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+import org.feherdave.s7hwcfg.s7.system.Address;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Estimated retained heap size of a station or a component, broken down by kind.
+ *
+ * The estimate is computed without a Java agent: shallow sizes are derived from the field layout of the classes
+ * (object header, references and primitives, 8 byte alignment), collections and strings are estimated from their
+ * sizes. Objects shared between components (e.g. identical strings) are counted once. A 64-bit JVM is assumed,
+ * with compressed references if the maximum heap is below 32 GB.
+ */
+public class MemoryFootprint {
+
+    public enum Kind {
+        STATION,
+        RACKS,
+        SLOT_MODULES,
+        SUBSLOT_MODULES,
+        SUBSYSTEM_RACKS,
+        SUBSYSTEM_RACK_SLOT_MODULES,
+        SUBSYSTEMS,
+        /** Maps and lists holding child components. */
+        CONTAINERS,
+        DATA_MAPS,
+        ADDRESS_AREAS,
+        SYMBOLS,
+        PARAMETERS,
+        STRINGS,
+        /** Module indexes and symbol table. */
+        INDEXES
+    }
+
+    private static final boolean COMPRESSED_REFERENCES = Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+    static final int REFERENCE_SIZE = COMPRESSED_REFERENCES ? 4 : 8;
+    static final int OBJECT_HEADER_SIZE = COMPRESSED_REFERENCES ? 12 : 16;
+    static final int ARRAY_HEADER_SIZE = COMPRESSED_REFERENCES ? 16 : 24;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+
+            return align(size);
+        }
+    };
+
+    private final long[] bytes = new long[Kind.values().length];
+    private final long[] counts = new long[Kind.values().length];
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private MemoryFootprint() {
+    }
+
+    /**
+     * Estimates the footprint of a station including all of its components, subnets and indexes.
+     *
+     * @param station
+     * @return MemoryFootprint
+     */
+    public static MemoryFootprint of(Station station) {
+        MemoryFootprint res = new MemoryFootprint();
+
+        res.addElement(Kind.STATION, station);
+        res.addString(station.getStationName());
+        res.addContainer(station.getRacks());
+        res.addContainer(station.getSubnets());
+        res.addContainer(station.getSubsystemRacks());
+
+        station.getRacks().values().forEach(res::addRack);
+        station.getSubnets().values().forEach(res::addSubsystem);
+        station.getSubsystemRacks().forEach(res::addSubsystemRack);
+        station.collectIndexFootprint(res);
+
+        return res;
+    }
+
+    /**
+     * Estimates the footprint of a component and the components below it.
+     *
+     * @param component Rack, module or subsystem rack.
+     * @return MemoryFootprint
+     */
+    public static MemoryFootprint of(HWComponent component) {
+        MemoryFootprint res = new MemoryFootprint();
+
+        if (component instanceof Station) {
+            return of((Station) component);
+        } else if (component instanceof Rack) {
+            res.addRack((Rack) component);
+        } else if (component instanceof SlotModule) {
+            res.addSlotModule((SlotModule) component);
+        } else if (component instanceof SubsystemRack) {
+            res.addSubsystemRack((SubsystemRack) component);
+        } else if (component instanceof SubsystemRackSlotModule) {
+            res.addSubsystemRackSlotModule((SubsystemRackSlotModule) component);
+        } else if (component instanceof SubSlotModule) {
+            res.addSubSlotModule((SubSlotModule) component);
+        }
+
+        return res;
+    }
+
+    /**
+     * Gets the estimated bytes of a kind.
+     *
+     * @param kind
+     * @return
+     */
+    public long getBytes(Kind kind) {
+        return bytes[kind.ordinal()];
+    }
+
+    /**
+     * Gets the number of objects of a kind (components, maps, strings, etc.).
+     *
+     * @param kind
+     * @return
+     */
+    public long getCount(Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    /**
+     * Gets the estimated total bytes.
+     *
+     * @return
+     */
+    public long getTotalBytes() {
+        return Arrays.stream(bytes).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder("MemoryFootprint{total=").append(getTotalBytes());
+
+        for (Kind kind : Kind.values()) {
+            if (counts[kind.ordinal()] > 0) {
+                res.append(", ").append(kind).append('=').append(bytes[kind.ordinal()]).append(" (").append(counts[kind.ordinal()]).append(')');
+            }
+        }
+
+        return res.append('}').toString();
+    }
+
+    private void addRack(Rack rack) {
+        addComponent(Kind.RACKS, rack);
+        addString(rack.getOrderNumber());
+        addString(rack.getRackName());
+        addContainer(rack.getSlots());
+
+        rack.getSlots().values().forEach(this::addSlotModule);
+    }
+
+    private void addSlotModule(SlotModule module) {
+        addComponent(Kind.SLOT_MODULES, module);
+        addModuleStrings(module.getOrderNumber(), module.getName(), module.getVersion());
+        addContainer(module.getSubModules());
+
+        module.getSubModules().values().forEach(this::addSubSlotModule);
+    }
+
+    private void addSubSlotModule(SubSlotModule module) {
+        addComponent(Kind.SUBSLOT_MODULES, module);
+        addModuleStrings(module.getOrderNumber(), module.getName(), module.getVersion());
+    }
+
+    private void addSubsystemRack(SubsystemRack subsystemRack) {
+        addComponent(Kind.SUBSYSTEM_RACKS, subsystemRack);
+        addModuleStrings(subsystemRack.getOrderNumber(), subsystemRack.getName(), subsystemRack.getVersion());
+        addContainer(subsystemRack.getModules());
+
+        subsystemRack.getModules().values().forEach(this::addSubsystemRackSlotModule);
+    }
+
+    private void addSubsystemRackSlotModule(SubsystemRackSlotModule module) {
+        addComponent(Kind.SUBSYSTEM_RACK_SLOT_MODULES, module);
+        addModuleStrings(module.getOrderNumber(), module.getName(), module.getVersion());
+        addContainer(module.getSubModules());
+
+        module.getSubModules().values().forEach(this::addSubSlotModule);
+    }
+
+    private void addSubsystem(Subsystem subsystem) {
+        addElement(Kind.SUBSYSTEMS, subsystem);
+        addString(subsystem.getName());
+        addContainer(subsystem.getNodes());
+    }
+
+    /**
+     * Adds a component with its data map, address areas, symbols, parameters and subsystem membership.
+     */
+    private void addComponent(Kind kind, HWComponent component) {
+        addElement(kind, component);
+
+        if (component.getSubsystemMemberShip() != null && visited.add(component.getSubsystemMemberShip())) {
+            add(kind, shallowSize(component.getSubsystemMemberShip()), 0);
+        }
+
+        Map<String, List<HWComponent.AddressArea>> addressAreas = component.getAddressAreas();
+        if (visited.add(addressAreas)) {
+            add(Kind.ADDRESS_AREAS, mapSize(addressAreas), 0);
+
+            addressAreas.forEach((key, areas) -> {
+                addString(key);
+
+                if (visited.add(areas)) {
+                    add(Kind.ADDRESS_AREAS, listSize(areas), 0);
+
+                    for (HWComponent.AddressArea area : areas) {
+                        if (visited.add(area)) {
+                            add(Kind.ADDRESS_AREAS, shallowSize(area) + addressSize(area.startAddress) + addressSize(area.areaLength), 1);
+                        }
+                    }
+                }
+            });
+        }
+
+        List<HWComponent.Symbol> symbols = component.getSymbols();
+        if (visited.add(symbols)) {
+            add(Kind.SYMBOLS, listSize(symbols), 0);
+
+            for (HWComponent.Symbol symbol : symbols) {
+                add(Kind.SYMBOLS, shallowSize(symbol) + addressSize(symbol.address), 1);
+                addString(symbol.symbolName);
+                addString(symbol.comment);
+            }
+        }
+
+        byte[] parameters = ((HWConfigElement) component).getParameterBytes();
+        if (parameters != null && parameters.length > 0 && visited.add(parameters)) {
+            add(Kind.PARAMETERS, arraySize(parameters.length, 1), 1);
+        }
+    }
+
+    /**
+     * Adds an element with its data map.
+     */
+    private void addElement(Kind kind, HWConfigElement element) {
+        if (!visited.add(element)) {
+            return;
+        }
+
+        add(kind, shallowSize(element), 1);
+
+        Map<String, String> data = element.getData();
+        if (visited.add(data)) {
+            add(Kind.DATA_MAPS, mapSize(data), 1);
+
+            data.forEach((key, value) -> {
+                addString(key);
+                addString(value);
+            });
+        }
+    }
+
+    private void addModuleStrings(String orderNumber, String name, String version) {
+        addString(orderNumber);
+        addString(name);
+        addString(version);
+    }
+
+    private void addContainer(Object container) {
+        if (!visited.add(container)) {
+            return;
+        }
+
+        if (container instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) container;
+            add(Kind.CONTAINERS, mapSize(map), 1);
+
+            if (!(map instanceof SlotTable)) {
+                map.keySet().forEach(this::addBoxedKey);
+            }
+        } else if (container instanceof List) {
+            add(Kind.CONTAINERS, listSize((List<?>) container), 1);
+        } else {
+            add(Kind.CONTAINERS, shallowSize(container), 1);
+        }
+    }
+
+    private void addBoxedKey(Object key) {
+        // Small Integers are cached by the JVM
+        if (key instanceof Integer && (Integer) key >= -128 && (Integer) key <= 127) {
+            return;
+        }
+
+        if (visited.add(key)) {
+            add(Kind.CONTAINERS, shallowSize(key), 0);
+        }
+    }
+
+    private void addString(String value) {
+        if (value != null && visited.add(value)) {
+            add(Kind.STRINGS, stringSize(value), 1);
+        }
+    }
+
+    /**
+     * Adds an index map of module lists (lists wrapped into read-only views).
+     */
+    void addIndex(Map<?, ? extends List<?>> index) {
+        add(Kind.INDEXES, mapSize(index), 1);
+
+        for (List<?> list : index.values()) {
+            add(Kind.INDEXES, listSize(list) + align(OBJECT_HEADER_SIZE + 4 + REFERENCE_SIZE), 0);
+        }
+    }
+
+    void add(Kind kind, long size, long count) {
+        bytes[kind.ordinal()] += size;
+        counts[kind.ordinal()] += count;
+    }
+
+    private long addressSize(Address address) {
+        if (address == null || !visited.add(address)) {
+            return 0;
+        }
+
+        // Boxed byte address (bit addresses and small bytes are cached)
+        Integer addressByte = address.getAddressByte();
+        long boxes = addressByte != null && (addressByte < -128 || addressByte > 127) ? shallowSize(addressByte) : 0;
+
+        return shallowSize(address) + boxes;
+    }
+
+    /**
+     * Estimates the size of a map (without keys and values).
+     */
+    static long mapSize(Map<?, ?> map) {
+        int size = map.size();
+
+        if (size == 0) {
+            return 0;
+        }
+
+        if (map instanceof SlotTable) {
+            SlotTable<?> table = (SlotTable<?>) map;
+
+            // Sparse elements: tree map entries (key, value, left, right, parent, color) and boxed keys
+            return shallowSize(map) + arraySize(table.capacity(), REFERENCE_SIZE)
+                    + table.sparseSize() * (align(OBJECT_HEADER_SIZE + 5L * REFERENCE_SIZE + 1) + align(OBJECT_HEADER_SIZE + 4));
+        }
+
+        if (map instanceof HashMap) {
+            return shallowSize(map) + hashTableSize(size, map instanceof LinkedHashMap);
+        }
+
+        // Unmodifiable wrapper around a copy: wrapper plus a linked hash map of the same size
+        return align(OBJECT_HEADER_SIZE + 4L * REFERENCE_SIZE) + SHALLOW_SIZES.get(LinkedHashMap.class) + hashTableSize(size, true);
+    }
+
+    /**
+     * Estimates the table and entries of a hash map: power-of-two capacity with load factor 0.75, one entry object
+     * per mapping.
+     */
+    private static long hashTableSize(int size, boolean linked) {
+        int capacity = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+        long entrySize = align(OBJECT_HEADER_SIZE + 4 + REFERENCE_SIZE * (linked ? 5 : 3));
+
+        return arraySize(capacity, REFERENCE_SIZE) + size * entrySize;
+    }
+
+    /**
+     * Estimates the size of a list (without elements).
+     */
+    static long listSize(List<?> list) {
+        if (list.isEmpty()) {
+            return 0;
+        }
+
+        return shallowSize(list) + arraySize(list.size(), REFERENCE_SIZE);
+    }
+
+    static long stringSize(String value) {
+        boolean latin1 = true;
+
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 0x100;
+        }
+
+        return SHALLOW_SIZES.get(String.class) + arraySize(value.length(), latin1 ? 1 : 2);
+    }
+
+    static long arraySize(int length, int elementSize) {
+        return align(ARRAY_HEADER_SIZE + (long) length * elementSize);
+    }
+
+    static long shallowSize(Object object) {
+        return SHALLOW_SIZES.get(object.getClass());
+    }
+
+    private static long fieldSize(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE_SIZE;
+        } else if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
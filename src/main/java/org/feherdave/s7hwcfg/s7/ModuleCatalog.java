@@ -0,0 +1,317 @@
+package org.feherdave.s7hwcfg.s7;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Local catalog of modules (order number, description, I/O width), memory-mapped from a compiled catalog file.
+ *
+ * The catalog is written once from a text file by {@link #compile(Path, Path)} and opened by {@link #open(Path)}.
+ * The compiled file holds the entries sorted by normalized order number (see {@link OrderNumberIndex#normalize}) and
+ * a pool of UTF-8 strings. Lookups are a binary search over the mapped bytes, entries are created on demand.
+ *
+ * Layout: magic, version, entry count, then per entry the offsets of the normalized order number, the order number
+ * and the description in the pool and the input and output width in bytes (all ints), then the pool (each string is
+ * an int length and the bytes).
+ */
+public class ModuleCatalog {
+
+    private static final int MAGIC = 0x53374D43;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 20;
+
+    /**
+     * Module of the catalog.
+     */
+    public static final class Entry {
+        private final String orderNumber;
+        private final String description;
+        private final int inputBytes;
+        private final int outputBytes;
+
+        /**
+         * @param orderNumber Order number (e.g. "6ES7 331-7KF02-0AB0").
+         * @param description
+         * @param inputBytes Width of the input area in bytes.
+         * @param outputBytes Width of the output area in bytes.
+         */
+        public Entry(String orderNumber, String description, int inputBytes, int outputBytes) {
+            this.orderNumber = orderNumber;
+            this.description = description;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+        }
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public int getInputBytes() {
+            return inputBytes;
+        }
+
+        public int getOutputBytes() {
+            return outputBytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return inputBytes == entry.inputBytes &&
+                    outputBytes == entry.outputBytes &&
+                    orderNumber.equals(entry.orderNumber) &&
+                    description.equals(entry.description);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderNumber, description, inputBytes, outputBytes);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "orderNumber='" + orderNumber + '\'' +
+                    ", description='" + description + '\'' +
+                    ", inputBytes=" + inputBytes +
+                    ", outputBytes=" + outputBytes +
+                    '}';
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int poolStart;
+
+    private ModuleCatalog(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a module catalog file");
+        }
+
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported module catalog version: " + buffer.getInt(4));
+        }
+
+        int entryCount = buffer.getInt(8);
+
+        // In long, a corrupt count must not overflow into a position within the buffer
+        if (entryCount < 0 || HEADER_SIZE + (long) entryCount * ENTRY_SIZE > buffer.limit()) {
+            throw new IOException("Module catalog file is truncated or corrupt, entry count: " + entryCount);
+        }
+
+        this.buffer = buffer;
+        this.size = entryCount;
+        this.poolStart = HEADER_SIZE + entryCount * ENTRY_SIZE;
+    }
+
+    /**
+     * Compiles a catalog text file into a catalog file.
+     *
+     * The text file has one module per line: order number, description, input width and output width in bytes,
+     * separated by semicolons (e.g. "6ES7 331-7KF02-0AB0;SM 331 AI 8x12Bit;16;0"). Empty lines and lines starting
+     * with # are skipped. If an order number is listed more than once, the last line is kept.
+     *
+     * @param textFile Catalog text file (UTF-8).
+     * @param catalogFile Catalog file to write.
+     * @throws IOException if the text file can't be read or has an invalid line.
+     */
+    public static void compile(Path textFile, Path catalogFile) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int lineNumber = 0;
+
+        for (String line : Files.readAllLines(textFile, StandardCharsets.UTF_8)) {
+            lineNumber++;
+
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            int first = line.indexOf(';');
+            int last = line.lastIndexOf(';');
+            int beforeLast = last > 0 ? line.lastIndexOf(';', last - 1) : -1;
+
+            if (first < 0 || beforeLast <= first) {
+                throw new IOException("Invalid catalog line " + lineNumber + ": " + line);
+            }
+
+            try {
+                entries.add(new Entry(line.substring(0, first).trim(), line.substring(first + 1, beforeLast).trim(),
+                        Integer.parseInt(line.substring(beforeLast + 1, last).trim()), Integer.parseInt(line.substring(last + 1).trim())));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid catalog line " + lineNumber + ": " + line);
+            }
+        }
+
+        write(entries, catalogFile);
+    }
+
+    /**
+     * Writes entries to a catalog file. If an order number is listed more than once, the last entry is kept.
+     *
+     * @param entries
+     * @param catalogFile
+     */
+    public static void write(Collection<Entry> entries, Path catalogFile) throws IOException {
+        TreeMap<byte[], Entry> sorted = new TreeMap<>(Arrays::compareUnsigned);
+
+        for (Entry entry : entries) {
+            sorted.put(OrderNumberIndex.normalize(entry.getOrderNumber()).getBytes(StandardCharsets.UTF_8), entry);
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + sorted.size() * ENTRY_SIZE);
+        ByteBuffer pool = ByteBuffer.allocate(1024);
+
+        index.putInt(MAGIC).putInt(VERSION).putInt(sorted.size());
+
+        for (Map.Entry<byte[], Entry> e : sorted.entrySet()) {
+            Entry entry = e.getValue();
+
+            index.putInt(pool.position());
+            pool = putString(pool, e.getKey());
+            index.putInt(pool.position());
+            pool = putString(pool, entry.getOrderNumber().getBytes(StandardCharsets.UTF_8));
+            index.putInt(pool.position());
+            pool = putString(pool, entry.getDescription().getBytes(StandardCharsets.UTF_8));
+            index.putInt(entry.getInputBytes()).putInt(entry.getOutputBytes());
+        }
+
+        try (OutputStream out = Files.newOutputStream(catalogFile)) {
+            out.write(index.array(), 0, index.position());
+            out.write(pool.array(), 0, pool.position());
+        }
+    }
+
+    /**
+     * Opens a catalog file, mapping it into memory.
+     *
+     * @param catalogFile Catalog file written by {@link #compile(Path, Path)} or {@link #write(Collection, Path)}.
+     * @return ModuleCatalog
+     */
+    public static ModuleCatalog open(Path catalogFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Module catalog file too large: " + channel.size() + " bytes");
+            }
+
+            return new ModuleCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the entry of an order number.
+     *
+     * @param orderNumber Order number, normalized before the search.
+     * @return Index of the entry or -1 if there is none.
+     */
+    public int indexOf(CharSequence orderNumber) {
+        byte[] key = OrderNumberIndex.normalize(orderNumber).getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(buffer.getInt(HEADER_SIZE + mid * ENTRY_SIZE), key);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets an entry.
+     *
+     * @param index Index of the entry.
+     * @return Entry
+     */
+    public Entry getEntry(int index) {
+        Objects.checkIndex(index, size);
+
+        int entry = HEADER_SIZE + index * ENTRY_SIZE;
+
+        return new Entry(getString(buffer.getInt(entry + 4)), getString(buffer.getInt(entry + 8)),
+                buffer.getInt(entry + 12), buffer.getInt(entry + 16));
+    }
+
+    /**
+     * Looks up an order number.
+     *
+     * @param orderNumber
+     * @return Entry, empty if the order number is not in the catalog.
+     */
+    public Optional<Entry> lookup(CharSequence orderNumber) {
+        int index = indexOf(orderNumber);
+
+        return index >= 0 ? Optional.of(getEntry(index)) : Optional.empty();
+    }
+
+    /**
+     * Compares a string of the pool with a key, byte by byte (unsigned).
+     */
+    private int compareKey(int offset, byte[] key) {
+        int position = poolStart + offset;
+        int length = buffer.getInt(position);
+        int common = Math.min(length, key.length);
+
+        position += 4;
+
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(position + i), key[i]);
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return Integer.compare(length, key.length);
+    }
+
+    private String getString(int offset) {
+        int position = poolStart + offset;
+        byte[] bytes = new byte[buffer.getInt(position)];
+
+        buffer.get(position + 4, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer putString(ByteBuffer pool, byte[] bytes) {
+        if (pool.remaining() < 4 + bytes.length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pool.capacity() * 2, pool.position() + 4 + bytes.length));
+            pool.flip();
+            larger.put(pool);
+            pool = larger;
+        }
+
+        return pool.putInt(bytes.length).put(bytes);
+    }
+}
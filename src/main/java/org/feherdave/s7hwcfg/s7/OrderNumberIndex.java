@@ -0,0 +1,363 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+
+import java.util.*;
+
+/**
+ * Prefix index over the order numbers of the modules of one or more stations (e.g. "6ES7 33" for all analog input
+ * modules of the S7-300 family).
+ *
+ * Order numbers are normalized before indexing and querying: whitespace is dropped and letters are upper case, so
+ * "6es7 331" and "6ES7331" find the same modules. The index is a character trie stored in flat arrays. The distinct
+ * order numbers are sorted, so the keys below a trie node are a contiguous range and the modules of the keys are a
+ * contiguous range of the module array. A prefix query walks the prefix and returns a view of the range.
+ *
+ * The index may be joined to a {@link ModuleCatalog}, which looks up every distinct order number once. The catalog
+ * entry of a module is an array access afterwards. The index is immutable and thread-safe. It holds the modules of
+ * the stations at the time it is built, modules added to a station which isn't frozen afterwards are not indexed.
+ */
+public class OrderNumberIndex {
+
+    private static final int ROOT = 0;
+
+    // Trie nodes
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] keyFrom;
+    private final int[] keyTo;
+
+    // Distinct normalized order numbers in sorted order, modules of key k are modules[moduleStart[k]..moduleStart[k + 1]]
+    private final String[] keys;
+    private final int[] moduleStart;
+    private final Module[] modules;
+    private final int[] moduleKeys;
+    private final Station[] stations;
+    private final Map<Module, Integer> modulePositions;
+
+    private final ModuleCatalog catalog;
+    private final int[] catalogEntries;
+
+    private OrderNumberIndex(char[] labels, int[] firstChild, int[] nextSibling, int[] keyFrom, int[] keyTo, String[] keys,
+                             int[] moduleStart, Module[] modules, int[] moduleKeys, Station[] stations,
+                             Map<Module, Integer> modulePositions, ModuleCatalog catalog, int[] catalogEntries) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.keyFrom = keyFrom;
+        this.keyTo = keyTo;
+        this.keys = keys;
+        this.moduleStart = moduleStart;
+        this.modules = modules;
+        this.moduleKeys = moduleKeys;
+        this.stations = stations;
+        this.modulePositions = modulePositions;
+        this.catalog = catalog;
+        this.catalogEntries = catalogEntries;
+    }
+
+    /**
+     * Builds an index over the modules of a station.
+     *
+     * @param station
+     * @return OrderNumberIndex
+     */
+    public static OrderNumberIndex of(Station station) {
+        return of(List.of(station));
+    }
+
+    /**
+     * Builds an index over the modules of stations.
+     *
+     * @param stations
+     * @return OrderNumberIndex
+     */
+    public static OrderNumberIndex of(Collection<Station> stations) {
+        TreeMap<String, List<Module>> byKey = new TreeMap<>();
+        Map<Module, Station> stationOf = new IdentityHashMap<>();
+        int moduleCount = 0;
+
+        for (Station station : stations) {
+            for (Module module : station.getModules()) {
+                byKey.computeIfAbsent(normalize(module.getOrderNumber()), key -> new ArrayList<>()).add(module);
+                stationOf.put(module, station);
+                moduleCount++;
+            }
+        }
+
+        String[] keys = byKey.keySet().toArray(new String[0]);
+        int[] moduleStart = new int[keys.length + 1];
+        Module[] modules = new Module[moduleCount];
+        int[] moduleKeys = new int[moduleCount];
+        Station[] moduleStations = new Station[moduleCount];
+        Map<Module, Integer> modulePositions = new IdentityHashMap<>(moduleCount);
+        int k = 0;
+        int m = 0;
+
+        for (List<Module> keyModules : byKey.values()) {
+            moduleStart[k] = m;
+
+            for (Module module : keyModules) {
+                modules[m] = module;
+                moduleKeys[m] = k;
+                moduleStations[m] = stationOf.get(module);
+                modulePositions.put(module, m);
+                m++;
+            }
+
+            k++;
+        }
+
+        moduleStart[k] = m;
+
+        // Build the trie from the sorted keys, children are appended in label order
+        int capacity = 1;
+
+        for (String key : keys) {
+            capacity += key.length();
+        }
+
+        char[] labels = new char[capacity];
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        int[] lastChild = new int[capacity];
+        int[] keyFrom = new int[capacity];
+        int[] keyTo = new int[capacity];
+        int nodeCount = 1;
+
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        Arrays.fill(lastChild, -1);
+        keyTo[ROOT] = keys.length;
+
+        for (int i = 0; i < keys.length; i++) {
+            int node = ROOT;
+
+            for (int pos = 0; pos < keys[i].length(); pos++) {
+                char c = keys[i].charAt(pos);
+                int child = lastChild[node];
+
+                if (child < 0 || labels[child] != c) {
+                    child = nodeCount++;
+                    labels[child] = c;
+                    keyFrom[child] = i;
+
+                    if (lastChild[node] < 0) {
+                        firstChild[node] = child;
+                    } else {
+                        nextSibling[lastChild[node]] = child;
+                    }
+
+                    lastChild[node] = child;
+                }
+
+                keyTo[child] = i + 1;
+                node = child;
+            }
+        }
+
+        return new OrderNumberIndex(Arrays.copyOf(labels, nodeCount), Arrays.copyOf(firstChild, nodeCount),
+                Arrays.copyOf(nextSibling, nodeCount), Arrays.copyOf(keyFrom, nodeCount), Arrays.copyOf(keyTo, nodeCount),
+                keys, moduleStart, modules, moduleKeys, moduleStations, modulePositions, null, null);
+    }
+
+    /**
+     * Joins the index to a catalog. Every distinct order number is looked up in the catalog once.
+     *
+     * @param catalog
+     * @return New index with catalog entries.
+     */
+    public OrderNumberIndex withCatalog(ModuleCatalog catalog) {
+        int[] entries = new int[keys.length];
+
+        for (int k = 0; k < keys.length; k++) {
+            entries[k] = catalog.indexOf(keys[k]);
+        }
+
+        return new OrderNumberIndex(labels, firstChild, nextSibling, keyFrom, keyTo, keys, moduleStart, modules, moduleKeys,
+                stations, modulePositions, catalog, entries);
+    }
+
+    /**
+     * Normalizes an order number: whitespace is dropped, letters are converted to upper case.
+     *
+     * @param orderNumber Order number or prefix, may be null.
+     * @return Normalized order number, empty for null.
+     */
+    public static String normalize(CharSequence orderNumber) {
+        if (orderNumber == null) {
+            return "";
+        }
+
+        StringBuilder res = new StringBuilder(orderNumber.length());
+
+        for (int i = 0; i < orderNumber.length(); i++) {
+            char c = orderNumber.charAt(i);
+
+            if (!Character.isWhitespace(c)) {
+                res.append(Character.toUpperCase(c));
+            }
+        }
+
+        return res.toString();
+    }
+
+    /**
+     * Gets the modules whose order number starts with a prefix.
+     *
+     * @param prefix Prefix of order number, the empty prefix matches all modules.
+     * @return Read-only list of modules in order number order, empty if there is no such module.
+     */
+    public List<Module> findModules(CharSequence prefix) {
+        int node = find(prefix);
+
+        if (node < 0) {
+            return List.of();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(modules).subList(moduleStart[keyFrom[node]], moduleStart[keyTo[node]]));
+    }
+
+    /**
+     * Counts the modules whose order number starts with a prefix.
+     *
+     * @param prefix
+     * @return Number of modules.
+     */
+    public int countModules(CharSequence prefix) {
+        int node = find(prefix);
+
+        return node < 0 ? 0 : moduleStart[keyTo[node]] - moduleStart[keyFrom[node]];
+    }
+
+    /**
+     * Gets the distinct order numbers starting with a prefix.
+     *
+     * @param prefix
+     * @return Read-only list of normalized order numbers in sorted order.
+     */
+    public List<String> findOrderNumbers(CharSequence prefix) {
+        int node = find(prefix);
+
+        if (node < 0) {
+            return List.of();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(keys).subList(keyFrom[node], keyTo[node]));
+    }
+
+    /**
+     * Gets the station of an indexed module.
+     *
+     * @param module
+     * @return Station or null if the module is not indexed.
+     */
+    public Station getStation(Module module) {
+        Integer m = modulePositions.get(module);
+
+        return m != null ? stations[m] : null;
+    }
+
+    /**
+     * Gets the catalog entry of an indexed module.
+     *
+     * @param module
+     * @return Catalog entry, empty if the index is not joined to a catalog or the catalog has no entry for the module.
+     */
+    public Optional<ModuleCatalog.Entry> getCatalogEntry(Module module) {
+        Integer m = modulePositions.get(module);
+
+        return m != null ? catalogEntry(moduleKeys[m]) : Optional.empty();
+    }
+
+    /**
+     * Gets the catalog entry of an order number of the index.
+     *
+     * @param orderNumber
+     * @return Catalog entry, empty if the index is not joined to a catalog or the order number is not indexed or not
+     * in the catalog.
+     */
+    public Optional<ModuleCatalog.Entry> getCatalogEntry(CharSequence orderNumber) {
+        int node = find(orderNumber);
+
+        if (node < 0) {
+            return Optional.empty();
+        }
+
+        // The shortest key below the node comes first
+        int k = keyFrom[node];
+
+        return keys[k].length() == depth(orderNumber) ? catalogEntry(k) : Optional.empty();
+    }
+
+    /**
+     * Gets the number of distinct order numbers.
+     *
+     * @return
+     */
+    public int getOrderNumberCount() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of trie nodes.
+     *
+     * @return
+     */
+    public int getNodeCount() {
+        return labels.length;
+    }
+
+    private Optional<ModuleCatalog.Entry> catalogEntry(int k) {
+        if (catalog == null || catalogEntries[k] < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(catalog.getEntry(catalogEntries[k]));
+    }
+
+    /**
+     * Walks a prefix in the trie, normalizing it on the fly.
+     *
+     * @return Node of the prefix or -1 if no key starts with it.
+     */
+    private int find(CharSequence prefix) {
+        int node = ROOT;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+
+            c = Character.toUpperCase(c);
+            int child = firstChild[node];
+
+            while (child >= 0 && labels[child] < c) {
+                child = nextSibling[child];
+            }
+
+            if (child < 0 || labels[child] != c) {
+                return -1;
+            }
+
+            node = child;
+        }
+
+        return node;
+    }
+
+    private static int depth(CharSequence orderNumber) {
+        int res = 0;
+
+        for (int i = 0; i < orderNumber.length(); i++) {
+            if (!Character.isWhitespace(orderNumber.charAt(i))) {
+                res++;
+            }
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,344 @@
+package org.feherdave.s7hwcfg.s7;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Map of small non-negative integers (slots, subslots, bus addresses) to elements, backed by an array indexed by
+ * the key.
+ *
+ * Lookups are an array access without boxing, iteration runs in ascending key order. Null values are not allowed.
+ * Keys from {@link #DENSE_KEY_LIMIT} on (e.g. numbers of a corrupt file) are kept in a sorted map instead, so the
+ * array never grows beyond the limit.
+ * After {@link #freeze()} the table is trimmed and all mutators throw UnsupportedOperationException, like the
+ * unmodifiable maps returned by frozen elements.
+ *
+ * @param <T> Element type.
+ */
+public class SlotTable<T> extends AbstractMap<Integer, T> {
+
+    /**
+     * Keys below the limit are held in the array.
+     */
+    public static final int DENSE_KEY_LIMIT = 4096;
+
+    private static final Object[] EMPTY = new Object[0];
+    private static final SlotTable<?> EMPTY_TABLE = new SlotTable<>().freeze();
+
+    private Object[] elements = EMPTY;
+    private TreeMap<Integer, T> sparseElements;
+    private int size;
+    private boolean frozen;
+
+    /**
+     * Gets the shared frozen empty table.
+     *
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SlotTable<T> emptyTable() {
+        return (SlotTable<T>) EMPTY_TABLE;
+    }
+
+    /**
+     * Gets the element at a key.
+     *
+     * @param key
+     * @return Element or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int key) {
+        if (key >= 0 && key < elements.length) {
+            return (T) elements[key];
+        }
+
+        return key >= DENSE_KEY_LIMIT && sparseElements != null ? sparseElements.get(key) : null;
+    }
+
+    /**
+     * Puts an element at a key, growing the table if needed.
+     *
+     * @param key Non-negative key.
+     * @param element
+     * @return Previous element or null.
+     */
+    @SuppressWarnings("unchecked")
+    public T put(int key, T element) {
+        checkNotFrozen();
+        Objects.requireNonNull(element);
+
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+
+        T previous;
+
+        if (key >= DENSE_KEY_LIMIT) {
+            if (sparseElements == null) {
+                sparseElements = new TreeMap<>();
+            }
+
+            previous = sparseElements.put(key, element);
+        } else {
+            if (key >= elements.length) {
+                // key < DENSE_KEY_LIMIT, none of these overflow
+                elements = Arrays.copyOf(elements, Math.min(DENSE_KEY_LIMIT, Math.max(key + 1, Math.min(elements.length * 2, key + 16))));
+            }
+
+            previous = (T) elements[key];
+            elements[key] = element;
+        }
+
+        if (previous == null) {
+            size++;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes the element at a key.
+     *
+     * @param key
+     * @return Removed element or null.
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(int key) {
+        checkNotFrozen();
+
+        T previous;
+
+        if (key >= DENSE_KEY_LIMIT) {
+            previous = sparseElements != null ? sparseElements.remove(key) : null;
+        } else if (key >= 0 && key < elements.length) {
+            previous = (T) elements[key];
+            elements[key] = null;
+        } else {
+            previous = null;
+        }
+
+        if (previous != null) {
+            size--;
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the smallest key greater than or equal to a key that has an element.
+     *
+     * @param key
+     * @return Key or -1 if there is none.
+     */
+    public int nextKey(int key) {
+        for (int i = Math.max(key, 0); i < elements.length; i++) {
+            if (elements[i] != null) {
+                return i;
+            }
+        }
+
+        Integer sparseKey = sparseElements != null ? sparseElements.ceilingKey(Math.max(key, DENSE_KEY_LIMIT)) : null;
+
+        return sparseKey != null ? sparseKey : -1;
+    }
+
+    /**
+     * Makes the table unmodifiable and trims the backing array to the highest key.
+     *
+     * @return This table.
+     */
+    public SlotTable<T> freeze() {
+        if (!frozen) {
+            int length = elements.length;
+
+            while (length > 0 && elements[length - 1] == null) {
+                length--;
+            }
+
+            elements = length == 0 ? EMPTY : Arrays.copyOf(elements, length);
+            frozen = true;
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the length of the backing array.
+     *
+     * @return
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Gets the number of elements held in the sorted map, with keys from {@link #DENSE_KEY_LIMIT} on.
+     *
+     * @return
+     */
+    public int sparseSize() {
+        return sparseElements != null ? sparseElements.size() : 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public T get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public T put(Integer key, T element) {
+        return put(key.intValue(), element);
+    }
+
+    @Override
+    public T remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        Arrays.fill(elements, null);
+        sparseElements = null;
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Integer, ? super T> action) {
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] != null) {
+                action.accept(i, (T) elements[i]);
+            }
+        }
+
+        if (sparseElements != null) {
+            sparseElements.forEach(action);
+        }
+    }
+
+    @Override
+    public Set<Entry<Integer, T>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new Values();
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Slot table is frozen");
+        }
+    }
+
+    /**
+     * Iterates the keys having an element in ascending order.
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        private int next = nextKey(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public E next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next = last < Integer.MAX_VALUE ? nextKey(last + 1) : -1;
+
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+
+            SlotTable.this.remove(last);
+            last = -1;
+        }
+
+        abstract E element(int key);
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, T>> {
+
+        @Override
+        public Iterator<Entry<Integer, T>> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                Entry<Integer, T> element(int key) {
+                    return new SimpleImmutableEntry<>(key, get(key));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            SlotTable.this.clear();
+        }
+    }
+
+    private class Values extends AbstractCollection<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                T element(int key) {
+                    return get(key);
+                }
+            };
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super T> action) {
+            for (Object element : elements) {
+                if (element != null) {
+                    action.accept((T) element);
+                }
+            }
+
+            if (sparseElements != null) {
+                sparseElements.values().forEach(action);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            SlotTable.this.clear();
+        }
+    }
+}
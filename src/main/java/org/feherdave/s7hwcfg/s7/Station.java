@@ -1,6 +1,7 @@
 package org.feherdave.s7hwcfg.s7;
 
 import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
 import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
 import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
 import org.feherdave.s7hwcfg.s7.system.Subsystem;
@@ -16,6 +17,10 @@ public class Station extends HWComponent {
     private Map<Integer, Rack> racks = new LinkedHashMap<>();
     private Map<Integer, Subsystem> subnets = new LinkedHashMap<>();
     private List<SubsystemRack> subsystemRacks = new ArrayList<>();
+    private List<UnresolvedReference> unresolvedReferences = new ArrayList<>();
+    private volatile StationIndex index;
+    private volatile SymbolTable symbolTable;
+    private volatile SubsystemTopology topology;
 
     Station(StationBuilder stationBuilder) {
         this.stationType = stationBuilder.getStationType();
@@ -23,6 +28,26 @@ public class Station extends HWComponent {
         this.racks.putAll(stationBuilder.getRacks());
         this.subnets.putAll(stationBuilder.getSubnets());
         this.subsystemRacks.addAll(stationBuilder.getSubsystemRacks());
+        this.unresolvedReferences.addAll(stationBuilder.getUnresolvedReferences());
+        parseData(stationBuilder.getConfigData());
+    }
+
+    /**
+     * Get name of the station.
+     *
+     * @return
+     */
+    public String getStationName() {
+        return stationName;
+    }
+
+    /**
+     * Get type of the station.
+     *
+     * @return
+     */
+    public StationType getStationType() {
+        return stationType;
     }
 
     /**
@@ -52,6 +77,228 @@ public class Station extends HWComponent {
         return subsystemRacks;
     }
 
+    /**
+     * Get references to racks, modules and subsystems which do not exist in the station. The referring components are
+     * not part of the station tree.
+     *
+     * @return
+     */
+    public List<UnresolvedReference> getUnresolvedReferences() {
+        return unresolvedReferences;
+    }
+
+    /**
+     * Get all modules of the station (slot modules, subslot modules, subsystem racks and their modules) in tree order.
+     *
+     * The queries of a frozen station are answered from indexes built while freezing. The modules of a station which
+     * isn't frozen are collected on every call, so queries reflect changes of the tree.
+     *
+     * @return Read-only list of modules.
+     */
+    public List<Module> getModules() {
+        return index().getModules();
+    }
+
+    /**
+     * Get modules with the given order number.
+     *
+     * @param orderNumber Order number (e.g. "6ES7 321-1BL00-0AA0").
+     * @return Read-only list of modules, empty if there is no such module.
+     */
+    public List<Module> getModulesByOrderNumber(String orderNumber) {
+        return index().getByOrderNumber(orderNumber);
+    }
+
+    /**
+     * Get modules with the given name.
+     *
+     * @param name Name of module.
+     * @return Read-only list of modules, empty if there is no such module.
+     */
+    public List<Module> getModulesByName(String name) {
+        return index().getByName(name);
+    }
+
+    /**
+     * Get modules with the given version.
+     *
+     * @param version Version of module.
+     * @return Read-only list of modules, empty if there is no such module.
+     */
+    public List<Module> getModulesByVersion(String version) {
+        return index().getByVersion(version);
+    }
+
+    /**
+     * Get modules attached to the given subsystem.
+     *
+     * @param subsystemNumber Number of subsystem.
+     * @return Read-only list of modules, empty if there is no such module.
+     */
+    public List<Module> getSubsystemMembers(Integer subsystemNumber) {
+        return index().getBySubsystem(subsystemNumber);
+    }
+
+    /**
+     * Get modules attached to the given subsystem with the given role.
+     *
+     * @param subsystemNumber Number of subsystem.
+     * @param role Role of the member (e.g. DPSubsystemMemberShip.Role.SLAVE).
+     * @return Read-only list of modules, empty if there is no such module.
+     */
+    public List<Module> getSubsystemMembers(Integer subsystemNumber, Enum<?> role) {
+        return index().getBySubsystemRole(subsystemNumber, role);
+    }
+
+    /**
+     * Get the symbol table of the station, built from the symbols of the station, its racks and modules. The table of
+     * a frozen station is built once while freezing, otherwise on every call, so it reflects the current tree.
+     *
+     * @return SymbolTable
+     */
+    public SymbolTable getSymbolTable() {
+        SymbolTable res = symbolTable;
+
+        if (res == null) {
+            List<Symbol> symbols = new ArrayList<>(getSymbols());
+
+            racks.values().forEach(rack -> symbols.addAll(rack.getSymbols()));
+            getModules().forEach(module -> symbols.addAll(((HWComponent) module).getSymbols()));
+
+            res = new SymbolTable(symbols);
+        }
+
+        return res;
+    }
+
+    /**
+     * Gets the topology graph of subnets and modules. The graph of a frozen station is built once while freezing,
+     * otherwise on every call, so it reflects the current tree.
+     *
+     * @return SubsystemTopology
+     */
+    public SubsystemTopology getTopology() {
+        SubsystemTopology res = topology;
+
+        return res != null ? res : new SubsystemTopology(subnets.values(), getModules());
+    }
+
+    /**
+     * Estimates the retained heap size of the station, broken down by component kind. Indexes, the symbol table and the
+     * topology are included if the station is frozen (they are not kept otherwise).
+     *
+     * @return MemoryFootprint
+     */
+    public MemoryFootprint memoryFootprint() {
+        return MemoryFootprint.of(this);
+    }
+
+    /**
+     * Adds the size of the built indexes, symbol table and topology to a footprint.
+     *
+     * @param footprint
+     */
+    void collectIndexFootprint(MemoryFootprint footprint) {
+        StationIndex currentIndex = index;
+        SymbolTable currentSymbolTable = symbolTable;
+        SubsystemTopology currentTopology = topology;
+
+        if (currentIndex != null) {
+            currentIndex.collectFootprint(footprint);
+        }
+
+        if (currentSymbolTable != null) {
+            currentSymbolTable.collectFootprint(footprint);
+        }
+
+        if (currentTopology != null) {
+            currentTopology.collectFootprint(footprint);
+        }
+    }
+
+    /**
+     * Gets the module indexes. Indexes of a frozen station are built once while freezing. A station which isn't frozen
+     * can still be changed (e.g. by {@link Rack#addModule}), its indexes are built on every call.
+     *
+     * @return StationIndex
+     */
+    private StationIndex index() {
+        StationIndex res = index;
+
+        return res != null ? res : new StationIndex(this);
+    }
+
+    /**
+     * Makes the whole station graph immutable (racks, modules, subsystems, subsystem racks and their data).
+     * Indexes, the symbol table and the topology are built before the frozen state is published.
+     *
+     * @return This station.
+     */
+    @Override
+    public Station freeze() {
+        super.freeze();
+
+        return this;
+    }
+
+    /**
+     * Makes the whole station graph immutable like {@link #freeze()}, sharing the payloads of its components (data
+     * maps, address areas, PARAMETER blocks and strings) with equal payloads of the pool. Stations with many
+     * identical modules or slaves need a fraction of the memory then. An already frozen station is left as it is,
+     * its payloads are not shared.
+     *
+     * @param deduplicator Pool of shared payloads, may be shared by stations frozen concurrently.
+     * @return This station.
+     */
+    @Override
+    public Station freeze(Deduplicator deduplicator) {
+        super.freeze(deduplicator);
+
+        return this;
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(stationName).add(stationType);
+    }
+
+    /**
+     * Racks ("RACK 0"), subnets ("SUBNET 1") and subsystem racks ("SUBNET 1, ADDRESS 3").
+     */
+    @Override
+    protected Map<String, HWConfigElement> fingerprintChildren() {
+        Map<String, HWConfigElement> res = positions("RACK", racks);
+
+        res.putAll(positions("SUBNET", subnets));
+
+        subsystemRacks.stream()
+                .sorted(Comparator.comparing(SubsystemRack::getSubsystemNumber).thenComparing(SubsystemRack::getAddress))
+                .forEach(rack -> res.put("SUBNET " + rack.getSubsystemNumber() + ", ADDRESS " + rack.getAddress(), rack));
+
+        return res;
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        racks.values().forEach(rack -> rack.freeze(deduplicator));
+        subnets.values().forEach(subnet -> subnet.freeze(deduplicator));
+        subsystemRacks.forEach(rack -> rack.freeze(deduplicator));
+
+        racks = frozenCopy(racks);
+        subnets = frozenCopy(subnets);
+        subsystemRacks = List.copyOf(subsystemRacks);
+        unresolvedReferences = List.copyOf(unresolvedReferences);
+
+        // Cached from now on, the tree can't change any more
+        index = new StationIndex(this);
+        symbolTable = getSymbolTable();
+        topology = getTopology();
+    }
+
     @Override
     public String toString() {
         return "Station{" +
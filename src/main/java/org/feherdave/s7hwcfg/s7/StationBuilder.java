@@ -17,6 +17,7 @@ public class StationBuilder {
     private Map<Integer, Subsystem> subnets = new LinkedHashMap<>();
     private List<SubsystemRack> subsystemRacks = new ArrayList<>();
     private List<String> configData = new ArrayList<>();
+    private List<UnresolvedReference> unresolvedReferences = new ArrayList<>();
 
     public Station.StationType getStationType() {
         return stationType;
@@ -81,6 +82,18 @@ public class StationBuilder {
         return this;
     }
 
+    /**
+     * Records a reference to a rack, module or subsystem which does not exist in the station.
+     *
+     * @param unresolvedReference
+     * @return StationBuilder
+     */
+    public StationBuilder addUnresolvedReference(UnresolvedReference unresolvedReference) {
+        unresolvedReferences.add(unresolvedReference);
+
+        return this;
+    }
+
     /**
      * Adds racks to the station.
      *
@@ -137,6 +150,15 @@ public class StationBuilder {
         return this;
     }
 
+    /**
+     * Gets configuration data.
+     *
+     * @return
+     */
+    public List<String> getConfigData() {
+        return configData;
+    }
+
     /**
      * Gets subsystem racks.
      *
@@ -145,4 +167,13 @@ public class StationBuilder {
     public List<SubsystemRack> getSubsystemRacks() {
         return subsystemRacks;
     }
+
+    /**
+     * Gets unresolved references.
+     *
+     * @return
+     */
+    public List<UnresolvedReference> getUnresolvedReferences() {
+        return unresolvedReferences;
+    }
 }
@@ -0,0 +1,118 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+
+import java.util.*;
+
+/**
+ * Secondary indexes over the modules of a station.
+ *
+ * The index is built in a single walk over the station tree (racks, slot modules, subslot modules,
+ * subsystem racks and their modules). All returned collections are read-only.
+ */
+class StationIndex {
+
+    private final List<Module> modules;
+    private final Map<String, List<Module>> byOrderNumber = new HashMap<>();
+    private final Map<String, List<Module>> byName = new HashMap<>();
+    private final Map<String, List<Module>> byVersion = new HashMap<>();
+    private final Map<Integer, List<Module>> bySubsystem = new HashMap<>();
+    private final Map<Integer, Map<Enum<?>, List<Module>>> bySubsystemRole = new HashMap<>();
+
+    StationIndex(Station station) {
+        List<Module> allModules = new ArrayList<>();
+
+        for (Rack rack : station.getRacks().values()) {
+            for (SlotModule slotModule : rack.getSlots().values()) {
+                allModules.add(slotModule);
+                allModules.addAll(slotModule.getSubModules().values());
+            }
+        }
+
+        for (SubsystemRack subsystemRack : station.getSubsystemRacks()) {
+            allModules.add(subsystemRack);
+
+            for (SubsystemRackSlotModule module : subsystemRack.getModules().values()) {
+                allModules.add(module);
+                allModules.addAll(module.getSubModules().values());
+            }
+        }
+
+        for (Module module : allModules) {
+            byOrderNumber.computeIfAbsent(module.getOrderNumber(), key -> new ArrayList<>()).add(module);
+            byName.computeIfAbsent(module.getName(), key -> new ArrayList<>()).add(module);
+            byVersion.computeIfAbsent(module.getVersion(), key -> new ArrayList<>()).add(module);
+
+            SubsystemMemberShip memberShip = ((HWComponent) module).getSubsystemMemberShip();
+
+            if (memberShip != null) {
+                bySubsystem.computeIfAbsent(memberShip.getSubsystem().getNumber(), key -> new ArrayList<>()).add(module);
+                bySubsystemRole.computeIfAbsent(memberShip.getSubsystem().getNumber(), key -> new LinkedHashMap<>())
+                        .computeIfAbsent(memberShip.getRole(), key -> new ArrayList<>())
+                        .add(module);
+            }
+        }
+
+        this.modules = Collections.unmodifiableList(allModules);
+
+        seal(byOrderNumber);
+        seal(byName);
+        seal(byVersion);
+        seal(bySubsystem);
+        bySubsystemRole.values().forEach(StationIndex::seal);
+    }
+
+    /**
+     * Replaces the lists of an index map with read-only views.
+     *
+     * @param index
+     */
+    private static <K> void seal(Map<K, List<Module>> index) {
+        index.replaceAll((key, list) -> Collections.unmodifiableList(list));
+    }
+
+    List<Module> getModules() {
+        return modules;
+    }
+
+    List<Module> getByOrderNumber(String orderNumber) {
+        return byOrderNumber.getOrDefault(orderNumber, List.of());
+    }
+
+    List<Module> getByName(String name) {
+        return byName.getOrDefault(name, List.of());
+    }
+
+    List<Module> getByVersion(String version) {
+        return byVersion.getOrDefault(version, List.of());
+    }
+
+    List<Module> getBySubsystem(Integer subsystemNumber) {
+        return bySubsystem.getOrDefault(subsystemNumber, List.of());
+    }
+
+    List<Module> getBySubsystemRole(Integer subsystemNumber, Enum<?> role) {
+        return bySubsystemRole.getOrDefault(subsystemNumber, Map.of()).getOrDefault(role, List.of());
+    }
+
+    /**
+     * Adds the size of the indexes to a footprint.
+     *
+     * @param footprint
+     */
+    void collectFootprint(MemoryFootprint footprint) {
+        footprint.add(MemoryFootprint.Kind.INDEXES, MemoryFootprint.shallowSize(this) + MemoryFootprint.listSize(modules), 1);
+        footprint.addIndex(byOrderNumber);
+        footprint.addIndex(byName);
+        footprint.addIndex(byVersion);
+        footprint.addIndex(bySubsystem);
+        footprint.add(MemoryFootprint.Kind.INDEXES, MemoryFootprint.mapSize(bySubsystemRole), 0);
+        bySubsystemRole.values().forEach(footprint::addIndex);
+    }
+}
@@ -0,0 +1,483 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.DPSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.PNIOSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.SubsystemRack;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.util.*;
+
+/**
+ * Topology graph of the subsystems and modules of a station.
+ *
+ * Nodes are numbered: subsystems first (in the order of the station), then the modules (in the order of
+ * {@link Station#getModules()}). Downstream edges lead
+ *
+ *      from a master / controller to its subsystem,
+ *      from a subsystem to its slaves / devices,
+ *      from a module to the modules inserted into it (subslot modules, modules of a subsystem rack).
+ *
+ * Upstream edges are the same edges reversed. Adjacency is stored in compressed arrays (offsets and targets per
+ * direction), traversals reuse their queue and visited marks, so iterating does not allocate.
+ */
+public class SubsystemTopology {
+
+    public enum Direction { DOWNSTREAM, UPSTREAM }
+
+    private final Object[] elements;
+    private final int subsystemCount;
+    private final Map<Object, Integer> nodeIndex = new IdentityHashMap<>();
+    private final Map<Integer, Integer> subsystemIndex = new HashMap<>();
+    private final int[][] offsets = new int[2][];
+    private final int[][] targets = new int[2][];
+    private final int[] masterCounts;
+    private final int[] slaveCounts;
+
+    SubsystemTopology(Collection<Subsystem> subsystems, List<Module> modules) {
+        subsystemCount = subsystems.size();
+        elements = new Object[subsystemCount + modules.size()];
+        masterCounts = new int[subsystemCount];
+        slaveCounts = new int[subsystemCount];
+
+        int node = 0;
+        for (Subsystem subsystem : subsystems) {
+            subsystemIndex.put(subsystem.getNumber(), node);
+            nodeIndex.put(subsystem, node);
+            elements[node++] = subsystem;
+        }
+
+        for (Module module : modules) {
+            nodeIndex.put(module, node);
+            elements[node++] = module;
+        }
+
+        // Edge list, converted to compressed adjacency below
+        int[] from = new int[elements.length * 2];
+        int[] to = new int[elements.length * 2];
+        int edgeCount = 0;
+
+        for (int i = subsystemCount; i < elements.length; i++) {
+            Object element = elements[i];
+
+            for (Module child : children(element)) {
+                Integer childNode = nodeIndex.get(child);
+
+                if (childNode != null) {
+                    if (edgeCount == from.length) {
+                        from = Arrays.copyOf(from, edgeCount * 2);
+                        to = Arrays.copyOf(to, edgeCount * 2);
+                    }
+
+                    from[edgeCount] = i;
+                    to[edgeCount++] = childNode;
+                }
+            }
+
+            SubsystemMemberShip memberShip = ((HWComponent) element).getSubsystemMemberShip();
+            Integer subsystemNode = memberShip != null ? nodeIndex.get(memberShip.getSubsystem()) : null;
+
+            if (subsystemNode != null) {
+                if (edgeCount == from.length) {
+                    from = Arrays.copyOf(from, edgeCount * 2);
+                    to = Arrays.copyOf(to, edgeCount * 2);
+                }
+
+                if (isMaster(memberShip)) {
+                    from[edgeCount] = i;
+                    to[edgeCount++] = subsystemNode;
+                    masterCounts[subsystemNode]++;
+                } else {
+                    from[edgeCount] = subsystemNode;
+                    to[edgeCount++] = i;
+                    slaveCounts[subsystemNode]++;
+                }
+            }
+        }
+
+        compress(Direction.DOWNSTREAM, from, to, edgeCount);
+        compress(Direction.UPSTREAM, to, from, edgeCount);
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Gets the node of a module or subsystem.
+     *
+     * @param element Module or Subsystem.
+     * @return Node or -1 if the element is not part of the topology.
+     */
+    public int indexOf(Object element) {
+        return nodeIndex.getOrDefault(element, -1);
+    }
+
+    /**
+     * Gets the node of a subsystem.
+     *
+     * @param subsystemNumber
+     * @return Node or -1 if there is no such subsystem.
+     */
+    public int indexOfSubsystem(Integer subsystemNumber) {
+        return subsystemIndex.getOrDefault(subsystemNumber, -1);
+    }
+
+    /**
+     * Checks whether a node is a subsystem.
+     *
+     * @param node
+     * @return
+     */
+    public boolean isSubsystem(int node) {
+        return node < subsystemCount;
+    }
+
+    /**
+     * Gets the subsystem of a node.
+     *
+     * @param node
+     * @return Subsystem or null if the node is a module.
+     */
+    public Subsystem getSubsystem(int node) {
+        return isSubsystem(node) ? (Subsystem) elements[node] : null;
+    }
+
+    /**
+     * Gets the module of a node.
+     *
+     * @param node
+     * @return Module or null if the node is a subsystem.
+     */
+    public Module getModule(int node) {
+        return isSubsystem(node) ? null : (Module) elements[node];
+    }
+
+    /**
+     * Gets the number of neighbours of a node.
+     *
+     * @param node
+     * @param direction
+     * @return
+     */
+    public int degree(int node, Direction direction) {
+        int[] nodeOffsets = offsets[direction.ordinal()];
+
+        return nodeOffsets[node + 1] - nodeOffsets[node];
+    }
+
+    /**
+     * Gets a neighbour of a node.
+     *
+     * @param node
+     * @param i Index of neighbour, 0 to degree - 1.
+     * @param direction
+     * @return Node of the neighbour.
+     */
+    public int neighbour(int node, int i, Direction direction) {
+        return targets[direction.ordinal()][offsets[direction.ordinal()][node] + i];
+    }
+
+    /**
+     * Gets the number of masters / controllers of a subsystem.
+     *
+     * @param subsystemNode
+     * @return
+     */
+    public int getMasterCount(int subsystemNode) {
+        return masterCounts[subsystemNode];
+    }
+
+    /**
+     * Gets the number of slaves / devices of a subsystem.
+     *
+     * @param subsystemNode
+     * @return
+     */
+    public int getSlaveCount(int subsystemNode) {
+        return slaveCounts[subsystemNode];
+    }
+
+    /**
+     * Gets the number of nodes attached to a subsystem (masters, controllers, slaves and devices).
+     *
+     * @param subsystemNode
+     * @return
+     */
+    public int getMemberCount(int subsystemNode) {
+        return masterCounts[subsystemNode] + slaveCounts[subsystemNode];
+    }
+
+    /**
+     * Finds a shortest path between two nodes.
+     *
+     * @param from
+     * @param to
+     * @param direction Direction of edges to follow.
+     * @return Nodes of the path including both ends, empty if to is not reachable from from.
+     */
+    public int[] findPath(int from, int to, Direction direction) {
+        return findPath(from, to, direction, newTraversal());
+    }
+
+    /**
+     * Finds a shortest path between two nodes with a traversal of the caller, so only the path is allocated.
+     *
+     * @param from
+     * @param to
+     * @param direction Direction of edges to follow.
+     * @param traversal Traversal of this graph, restarted by the search.
+     * @return Nodes of the path including both ends, empty if to is not reachable from from.
+     */
+    public int[] findPath(int from, int to, Direction direction, Traversal traversal) {
+        traversal.bfs(from, direction);
+
+        while (traversal.hasNext()) {
+            if (traversal.nextInt() == to) {
+                int[] path = new int[traversal.depth(to) + 1];
+
+                for (int i = path.length - 1, node = to; i >= 0; i--, node = traversal.parent(node)) {
+                    path[i] = node;
+                }
+
+                return path;
+            }
+        }
+
+        return new int[0];
+    }
+
+    /**
+     * Creates a reusable traversal. A traversal is not thread-safe, create one per thread.
+     *
+     * @return Traversal
+     */
+    public Traversal newTraversal() {
+        return new Traversal();
+    }
+
+    /**
+     * Adds the size of the graph to a footprint.
+     *
+     * @param footprint
+     */
+    void collectFootprint(MemoryFootprint footprint) {
+        int n = elements.length;
+        // Identity map: keys and values in one table, capacity the power of two above 3 / 2 * size; boxed node numbers
+        int capacity = Integer.highestOneBit(Math.max(1, n + (n >> 1)) * 2 - 1);
+        long identityMap = MemoryFootprint.shallowSize(nodeIndex) + MemoryFootprint.arraySize(2 * capacity, MemoryFootprint.REFERENCE_SIZE)
+                + Math.max(0, n - 128) * MemoryFootprint.shallowSize(0);
+        long adjacency = 0;
+
+        for (int i = 0; i < 2; i++) {
+            adjacency += MemoryFootprint.arraySize(offsets[i].length, 4) + MemoryFootprint.arraySize(targets[i].length, 4);
+        }
+
+        footprint.add(MemoryFootprint.Kind.INDEXES, MemoryFootprint.shallowSize(this) + MemoryFootprint.arraySize(n, MemoryFootprint.REFERENCE_SIZE)
+                + identityMap + MemoryFootprint.mapSize(subsystemIndex) + adjacency + 2 * MemoryFootprint.arraySize(subsystemCount, 4), 1);
+    }
+
+    private void compress(Direction direction, int[] from, int[] to, int edgeCount) {
+        int[] nodeOffsets = new int[elements.length + 1];
+        int[] nodeTargets = new int[edgeCount];
+
+        for (int i = 0; i < edgeCount; i++) {
+            nodeOffsets[from[i] + 1]++;
+        }
+
+        for (int i = 0; i < elements.length; i++) {
+            nodeOffsets[i + 1] += nodeOffsets[i];
+        }
+
+        int[] position = Arrays.copyOf(nodeOffsets, elements.length);
+
+        for (int i = 0; i < edgeCount; i++) {
+            nodeTargets[position[from[i]]++] = to[i];
+        }
+
+        offsets[direction.ordinal()] = nodeOffsets;
+        targets[direction.ordinal()] = nodeTargets;
+    }
+
+    private static Collection<? extends Module> children(Object element) {
+        if (element instanceof SlotModule) {
+            return ((SlotModule) element).getSubModules().values();
+        } else if (element instanceof SubsystemRack) {
+            return ((SubsystemRack) element).getModules().values();
+        } else if (element instanceof SubsystemRackSlotModule) {
+            return ((SubsystemRackSlotModule) element).getSubModules().values();
+        }
+
+        return List.of();
+    }
+
+    private static boolean isMaster(SubsystemMemberShip memberShip) {
+        return memberShip.getRole() == DPSubsystemMemberShip.Role.MASTER || memberShip.getRole() == PNIOSubsystemMemberShip.Role.CONTROLLER;
+    }
+
+    /**
+     * Breadth-first or depth-first iteration over the nodes reachable from a start node (start node included).
+     * Queue, stack, parents and visited marks are allocated once and reused by subsequent traversals.
+     *
+     * Breadth-first, nodes are marked when they are queued. Depth-first, nodes are marked when they are visited, so a
+     * node reachable on several paths (e.g. a subsystem with more masters) is visited in preorder of the first path;
+     * the stack may then hold a node more than once, it is sized for all edges.
+     */
+    public final class Traversal implements PrimitiveIterator.OfInt {
+
+        private final int[] nodes = new int[elements.length];
+        private final int[] stack = new int[Math.max(targets[0].length, targets[1].length) + 1];
+        private final int[] stackParents = new int[stack.length];
+        private final int[] parents = new int[elements.length];
+        private final int[] depths = new int[elements.length];
+        private final int[] marks = new int[elements.length];
+        private int epoch;
+        private int head;
+        private int tail;
+        private boolean depthFirst;
+        private int directionIndex;
+
+        private Traversal() {
+        }
+
+        /**
+         * Starts a breadth-first traversal.
+         *
+         * @param start
+         * @param direction
+         * @return This traversal.
+         */
+        public Traversal bfs(int start, Direction direction) {
+            return start(start, direction, false);
+        }
+
+        /**
+         * Starts a depth-first (preorder) traversal.
+         *
+         * @param start
+         * @param direction
+         * @return This traversal.
+         */
+        public Traversal dfs(int start, Direction direction) {
+            return start(start, direction, true);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (depthFirst) {
+                // Drop nodes visited since they were pushed
+                while (tail > 0 && marks[stack[tail - 1]] == epoch) {
+                    tail--;
+                }
+
+                return tail > 0;
+            }
+
+            return head < tail;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return depthFirst ? nextDepthFirst() : nextBreadthFirst();
+        }
+
+        private int nextBreadthFirst() {
+            int node = nodes[head++];
+            int[] nodeTargets = targets[directionIndex];
+
+            for (int i = offsets[directionIndex][node], last = offsets[directionIndex][node + 1]; i < last; i++) {
+                int next = nodeTargets[i];
+
+                if (marks[next] != epoch) {
+                    marks[next] = epoch;
+                    parents[next] = node;
+                    depths[next] = depths[node] + 1;
+                    nodes[tail++] = next;
+                }
+            }
+
+            return node;
+        }
+
+        private int nextDepthFirst() {
+            int node = stack[--tail];
+            int parent = stackParents[tail];
+            int[] nodeTargets = targets[directionIndex];
+
+            marks[node] = epoch;
+            parents[node] = parent;
+            depths[node] = parent >= 0 ? depths[parent] + 1 : 0;
+
+            // Pushed in reverse order, so the neighbours are visited in order
+            for (int i = offsets[directionIndex][node + 1] - 1, first = offsets[directionIndex][node]; i >= first; i--) {
+                int next = nodeTargets[i];
+
+                if (marks[next] != epoch) {
+                    stackParents[tail] = node;
+                    stack[tail++] = next;
+                }
+            }
+
+            return node;
+        }
+
+        /**
+         * Gets the node a visited node has been reached from.
+         *
+         * @param node Visited node.
+         * @return Parent node or -1 for the start node.
+         */
+        public int parent(int node) {
+            return parents[node];
+        }
+
+        /**
+         * Gets the number of edges between the start node and a visited node on the path it has been reached on (a
+         * shortest path breadth-first).
+         *
+         * @param node Visited node.
+         * @return
+         */
+        public int depth(int node) {
+            return depths[node];
+        }
+
+        private Traversal start(int start, Direction direction, boolean depthFirst) {
+            if (++epoch == 0) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+
+            this.depthFirst = depthFirst;
+            this.directionIndex = direction.ordinal();
+
+            head = 0;
+            tail = 0;
+
+            if (depthFirst) {
+                stackParents[tail] = -1;
+                stack[tail++] = start;
+            } else {
+                marks[start] = epoch;
+                parents[start] = -1;
+                depths[start] = 0;
+                nodes[tail++] = start;
+            }
+
+            return this;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.system.Address;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Symbol table of a station.
+ *
+ * Symbols are stored in parallel arrays ordered by packed address (see {@link Address#pack()}). Lookups by address
+ * are binary searches over an int array, lookups by name use a hash map, prefix searches use a name-sorted
+ * permutation of the entries. Entries are referred to by their index in the table.
+ */
+public class SymbolTable {
+
+    private final int[] packedAddresses;
+    private final String[] names;
+    private final String[] comments;
+    private final HWComponent[] components;
+    private final int[] nameOrder;
+    private final Map<String, Integer> nameIndex;
+
+    SymbolTable(List<HWComponent.Symbol> symbols) {
+        int size = symbols.size();
+        HWComponent.Symbol[] sorted = symbols.toArray(new HWComponent.Symbol[0]);
+        int[] packed = new int[size];
+
+        Arrays.sort(sorted, Comparator.comparingInt(symbol -> symbol.address.pack()));
+
+        this.packedAddresses = packed;
+        this.names = new String[size];
+        this.comments = new String[size];
+        this.components = new HWComponent[size];
+        this.nameIndex = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            packed[i] = sorted[i].address.pack();
+            names[i] = sorted[i].symbolName;
+            comments[i] = sorted[i].comment;
+            components[i] = sorted[i].getComponent();
+            nameIndex.putIfAbsent(names[i], i);
+        }
+
+        this.nameOrder = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparing(i -> names[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Gets the number of symbols.
+     *
+     * @return
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Gets the symbol name of an entry.
+     *
+     * @param entry Index of entry.
+     * @return
+     */
+    public String getName(int entry) {
+        return names[entry];
+    }
+
+    /**
+     * Gets the comment of an entry.
+     *
+     * @param entry Index of entry.
+     * @return
+     */
+    public String getComment(int entry) {
+        return comments[entry];
+    }
+
+    /**
+     * Gets the packed address of an entry.
+     *
+     * @param entry Index of entry.
+     * @return
+     */
+    public int getPackedAddress(int entry) {
+        return packedAddresses[entry];
+    }
+
+    /**
+     * Gets the address of an entry.
+     *
+     * @param entry Index of entry.
+     * @return
+     */
+    public Address getAddress(int entry) {
+        return Address.unpack(packedAddresses[entry]);
+    }
+
+    /**
+     * Gets the component the symbol of an entry belongs to.
+     *
+     * @param entry Index of entry.
+     * @return
+     */
+    public HWComponent getComponent(int entry) {
+        return components[entry];
+    }
+
+    /**
+     * Finds the entry of a symbol name.
+     *
+     * @param name Symbol name.
+     * @return Index of entry or -1 if there is no such symbol.
+     */
+    public int indexOf(String name) {
+        Integer res = nameIndex.get(name);
+
+        return res != null ? res : -1;
+    }
+
+    /**
+     * Finds the first entry assigned to an address.
+     *
+     * @param address Address.
+     * @return Index of entry or -1 if there is no symbol at the given address.
+     */
+    public int indexOf(Address address) {
+        return indexOfPackedAddress(address.pack());
+    }
+
+    /**
+     * Finds the first entry assigned to a packed address.
+     *
+     * @param packedAddress Packed address (see {@link Address#pack()}).
+     * @return Index of entry or -1 if there is no symbol at the given address.
+     */
+    public int indexOfPackedAddress(int packedAddress) {
+        int res = lowerBound(packedAddress);
+
+        return res < packedAddresses.length && packedAddresses[res] == packedAddress ? res : -1;
+    }
+
+    /**
+     * Finds the entries in a range of packed addresses. Since entries are ordered by packed address,
+     * the result is a contiguous range of entries.
+     *
+     * @param fromPackedAddress First packed address (inclusive).
+     * @param toPackedAddress Last packed address (exclusive).
+     * @return Array of two elements: first entry (inclusive) and last entry (exclusive).
+     */
+    public int[] rangeOfPackedAddresses(int fromPackedAddress, int toPackedAddress) {
+        return new int[] { lowerBound(fromPackedAddress), lowerBound(toPackedAddress) };
+    }
+
+    /**
+     * Finds the entries whose symbol name starts with the given prefix.
+     *
+     * @param prefix Prefix of symbol name.
+     * @return Indexes of entries in symbol name order.
+     */
+    public int[] findByPrefix(String prefix) {
+        int low = 0;
+        int high = nameOrder.length;
+
+        // First name not less than prefix
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (names[nameOrder[mid]].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int end = low;
+
+        while (end < nameOrder.length && names[nameOrder[end]].startsWith(prefix)) {
+            end++;
+        }
+
+        return Arrays.copyOfRange(nameOrder, low, end);
+    }
+
+    /**
+     * Adds the size of the table to a footprint (names and comments are counted with the symbols).
+     *
+     * @param footprint
+     */
+    void collectFootprint(MemoryFootprint footprint) {
+        int size = size();
+        long boxes = nameIndex.values().stream().filter(entry -> entry > 127).count() * MemoryFootprint.shallowSize(size);
+
+        footprint.add(MemoryFootprint.Kind.INDEXES, MemoryFootprint.shallowSize(this)
+                + 2 * MemoryFootprint.arraySize(size, 4)
+                + 3 * MemoryFootprint.arraySize(size, MemoryFootprint.REFERENCE_SIZE)
+                + MemoryFootprint.mapSize(nameIndex) + boxes, 1);
+    }
+
+    private int lowerBound(int packedAddress) {
+        int low = 0;
+        int high = packedAddresses.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (packedAddresses[mid] < packedAddress) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,444 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Full-text index over the names and data values (e.g. COMMENT, ASSET_ID) of the elements of stations.
+ *
+ * The indexed elements are the station, its racks, modules and subnets. Texts are split into tokens of letters and
+ * digits, compared case-insensitively, so "Winder drive 12" is found by "winder", "DRIVE 12" or "drive-12". A query
+ * matches the elements containing all of its tokens. Hits are ranked by TF-IDF: rare tokens count more than common
+ * ones, tokens of names count more than tokens of data values, and short texts rank above long ones.
+ *
+ * Stations are added and removed one by one (e.g. as files are parsed or reloaded), without rebuilding the index.
+ * Postings of removed stations are dropped when they make up more than half of the index. Indexed stations must be
+ * frozen. The index is thread-safe, searches run in parallel with each other.
+ */
+public class TextIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DATA_WEIGHT = 1;
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    /**
+     * Element found by a search.
+     */
+    public static final class Hit {
+        private final Station station;
+        private final HWConfigElement element;
+        private final double score;
+
+        private Hit(Station station, HWConfigElement element, double score) {
+            this.station = station;
+            this.element = element;
+            this.score = score;
+        }
+
+        public Station getStation() {
+            return station;
+        }
+
+        /**
+         * Gets the element found.
+         *
+         * @return Station, rack, module or subnet.
+         */
+        public HWConfigElement getElement() {
+            return element;
+        }
+
+        /**
+         * Gets the relevance of the hit, higher is better.
+         *
+         * @return
+         */
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Hit{" +
+                    "station='" + station.getStationName() + '\'' +
+                    ", element=" + element +
+                    ", score=" + score +
+                    '}';
+        }
+    }
+
+    /**
+     * Elements containing a token, in ascending document order, with the weighted frequency of the token.
+     */
+    private static final class Postings {
+        private int[] documents = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+        private int liveCount;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            liveCount++;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Station, int[]> documentRanges = new IdentityHashMap<>();
+    private HWConfigElement[] elements = new HWConfigElement[16];
+    private Station[] stations = new Station[16];
+    private float[] norms = new float[16];
+    private final BitSet removed = new BitSet();
+    private int documentCount;
+    private int removedCount;
+
+    /**
+     * Adds the elements of a station. Adding an indexed station has no effect.
+     *
+     * @param station Frozen station.
+     * @throws IllegalArgumentException if the station is not frozen.
+     */
+    public void add(Station station) {
+        lock.writeLock().lock();
+
+        try {
+            addStation(station);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the elements of a station. Removing a station which is not indexed has no effect.
+     *
+     * @param station
+     */
+    public void remove(Station station) {
+        lock.writeLock().lock();
+
+        try {
+            removeStation(station);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a station atomically, searches see either the old or the new station.
+     *
+     * @param oldStation Station to remove, may be null.
+     * @param newStation Frozen station to add, may be null.
+     */
+    public void replace(Station oldStation, Station newStation) {
+        lock.writeLock().lock();
+
+        try {
+            if (oldStation != null) {
+                removeStation(oldStation);
+            }
+
+            if (newStation != null) {
+                addStation(newStation);
+            }
+
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the elements containing all tokens of a query.
+     *
+     * @param query Free text (e.g. "winder drive 12").
+     * @param limit Maximum number of hits.
+     * @return Hits, best first. Empty if the query has no tokens.
+     */
+    public List<Hit> search(String query, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, Integer> queryTokens = new LinkedHashMap<>();
+        tokenize(query, 1, queryTokens);
+
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+
+        try {
+            List<Postings> lists = new ArrayList<>(queryTokens.size());
+
+            for (String token : queryTokens.keySet()) {
+                Postings list = postings.get(token);
+
+                if (list == null || list.liveCount == 0) {
+                    return List.of();
+                }
+
+                lists.add(list);
+            }
+
+            // Walk the shortest list, look up the documents in the others
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int liveDocuments = documentCount - removedCount;
+            double[] idf = new double[lists.size()];
+            int[] positions = new int[lists.size()];
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::getScore));
+
+            for (int i = 0; i < lists.size(); i++) {
+                idf[i] = Math.log(1.0 + (double) liveDocuments / lists.get(i).liveCount);
+            }
+
+            Postings first = lists.get(0);
+
+            candidates:
+            for (int p = 0; p < first.size; p++) {
+                int document = first.documents[p];
+
+                if (removed.get(document)) {
+                    continue;
+                }
+
+                double score = idf[0] * first.frequencies[p];
+
+                for (int i = 1; i < lists.size(); i++) {
+                    Postings list = lists.get(i);
+                    int position = Arrays.binarySearch(list.documents, positions[i], list.size, document);
+
+                    if (position < 0) {
+                        positions[i] = -position - 1;
+                        continue candidates;
+                    }
+
+                    positions[i] = position;
+                    score += idf[i] * list.frequencies[position];
+                }
+
+                score /= norms[document];
+
+                if (best.size() < limit) {
+                    best.add(new Hit(stations[document], elements[document], score));
+                } else if (score > best.peek().score) {
+                    best.poll();
+                    best.add(new Hit(stations[document], elements[document], score));
+                }
+            }
+
+            List<Hit> res = new ArrayList<>(best);
+            res.sort(Comparator.comparingDouble(Hit::getScore).reversed());
+
+            return res;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a station is indexed.
+     *
+     * @param station
+     * @return
+     */
+    public boolean contains(Station station) {
+        lock.readLock().lock();
+
+        try {
+            return documentRanges.containsKey(station);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed elements.
+     *
+     * @return
+     */
+    public int getElementCount() {
+        lock.readLock().lock();
+
+        try {
+            return documentCount - removedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of distinct tokens, including tokens of removed stations not yet dropped.
+     *
+     * @return
+     */
+    public int getTokenCount() {
+        lock.readLock().lock();
+
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into lower case tokens of letters and digits, adding their weight to a map.
+     *
+     * @param text Text, may be null.
+     * @param weight
+     * @param tokens Token to weighted frequency.
+     */
+    static void tokenize(String text, int weight, Map<String, Integer> tokens) {
+        if (text == null) {
+            return;
+        }
+
+        int length = text.length();
+        int pos = 0;
+
+        while (pos < length) {
+            while (pos < length && !Character.isLetterOrDigit(text.charAt(pos))) {
+                pos++;
+            }
+
+            int start = pos;
+
+            while (pos < length && Character.isLetterOrDigit(text.charAt(pos))) {
+                pos++;
+            }
+
+            if (pos > start) {
+                tokens.merge(text.substring(start, pos).toLowerCase(Locale.ROOT), weight, Integer::sum);
+            }
+        }
+    }
+
+    private void addStation(Station station) {
+        if (!station.isFrozen()) {
+            throw new IllegalArgumentException("Station is not frozen: " + station.getStationName());
+        }
+
+        if (documentRanges.containsKey(station)) {
+            return;
+        }
+
+        int from = documentCount;
+
+        forEachElement(station, element -> {
+            Map<String, Integer> tokens = tokens(element);
+            int document = documentCount++;
+
+            if (document == elements.length) {
+                elements = Arrays.copyOf(elements, document * 2);
+                stations = Arrays.copyOf(stations, document * 2);
+                norms = Arrays.copyOf(norms, document * 2);
+            }
+
+            int length = 0;
+
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                postings.computeIfAbsent(token.getKey(), key -> new Postings()).add(document, token.getValue());
+                length += token.getValue();
+            }
+
+            elements[document] = element;
+            stations[document] = station;
+            norms[document] = (float) Math.sqrt(Math.max(length, 1));
+        });
+
+        documentRanges.put(station, new int[] { from, documentCount });
+    }
+
+    private void removeStation(Station station) {
+        int[] range = documentRanges.remove(station);
+
+        if (range == null) {
+            return;
+        }
+
+        for (int document = range[0]; document < range[1]; document++) {
+            // Elements of a frozen station yield the same tokens again
+            for (String token : tokens(elements[document]).keySet()) {
+                postings.get(token).liveCount--;
+            }
+
+            removed.set(document);
+            elements[document] = null;
+            stations[document] = null;
+        }
+
+        removedCount += range[1] - range[0];
+    }
+
+    /**
+     * Rebuilds the index from the indexed stations if removed elements make up more than half of it.
+     */
+    private void compactIfNeeded() {
+        if (removedCount < COMPACT_THRESHOLD || removedCount * 2 < documentCount) {
+            return;
+        }
+
+        List<Station> live = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(stations).subList(0, documentCount)));
+        live.remove(null);
+
+        postings.clear();
+        documentRanges.clear();
+        removed.clear();
+        documentCount = 0;
+        removedCount = 0;
+        Arrays.fill(elements, null);
+        Arrays.fill(stations, null);
+
+        live.forEach(this::addStation);
+    }
+
+    private static Map<String, Integer> tokens(HWConfigElement element) {
+        Map<String, Integer> res = new HashMap<>();
+
+        tokenize(name(element), NAME_WEIGHT, res);
+        element.getData().values().forEach(value -> tokenize(value, DATA_WEIGHT, res));
+
+        return res;
+    }
+
+    private static String name(HWConfigElement element) {
+        if (element instanceof Module) {
+            return ((Module) element).getName();
+        } else if (element instanceof Rack) {
+            return ((Rack) element).getRackName();
+        } else if (element instanceof Subsystem) {
+            return ((Subsystem) element).getName();
+        } else if (element instanceof Station) {
+            return ((Station) element).getStationName();
+        }
+
+        return null;
+    }
+
+    private static void forEachElement(Station station, Consumer<HWConfigElement> action) {
+        action.accept(station);
+        station.getRacks().values().forEach(action);
+
+        for (Module module : station.getModules()) {
+            action.accept((HWConfigElement) module);
+        }
+
+        station.getSubnets().values().forEach(action);
+    }
+}
@@ -0,0 +1,75 @@
+package org.feherdave.s7hwcfg.s7;
+
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+
+/**
+ * Reference of a component to a parent or subsystem that does not exist in the station.
+ *
+ * The component is kept out of the station tree (or out of the subsystem), the parser records the reference instead
+ * of failing so that the station can be validated.
+ */
+public final class UnresolvedReference {
+
+    public enum Kind {
+        /** Slot or subslot module of a missing rack. */
+        RACK,
+        /** Subslot module of a missing slot module. */
+        SLOT,
+        /** Module of a missing subsystem rack (DP slave or IO device). */
+        SUBSYSTEM_RACK,
+        /** Member of a missing subsystem. */
+        SUBSYSTEM
+    }
+
+    private final Kind kind;
+    private final HWComponent component;
+    private final Integer number;
+    private final Integer address;
+    private final Enum<?> role;
+
+    /**
+     * @param kind What is missing.
+     * @param component Component with the reference.
+     * @param number Number of the missing rack, slot or subsystem.
+     * @param address Address within the subsystem, null if not applicable.
+     * @param role Role of the component in the missing subsystem, null if not applicable.
+     */
+    public UnresolvedReference(Kind kind, HWComponent component, Integer number, Integer address, Enum<?> role) {
+        this.kind = kind;
+        this.component = component;
+        this.number = number;
+        this.address = address;
+        this.role = role;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public HWComponent getComponent() {
+        return component;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public Integer getAddress() {
+        return address;
+    }
+
+    public Enum<?> getRole() {
+        return role;
+    }
+
+    @Override
+    public String toString() {
+        return "UnresolvedReference{" +
+                "kind=" + kind +
+                ", number=" + number +
+                ", address=" + address +
+                ", role=" + role +
+                ", component=" + component +
+                '}';
+    }
+}
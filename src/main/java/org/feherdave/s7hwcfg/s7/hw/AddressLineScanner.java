@@ -0,0 +1,198 @@
+package org.feherdave.s7hwcfg.s7.hw;
+
+import org.feherdave.s7hwcfg.s7.system.Address;
+
+/**
+ * Scanner of the ADDRESS lines of LOCAL_IN_ADDRESSES and LOCAL_OUT_ADDRESSES blocks
+ * (e.g. "ADDRESS  512, 0, 16, 0, 7, 0").
+ *
+ * Accepts exactly the lines of the pattern
+ * {@code ^\s*ADDRESS\s*\d+\s*,\s*\d+\s*,\s*\d+\s*,\s*\d+\s*,\s*\d+\s*,\s*\d+\s*$}, reading the six numbers in a single
+ * pass without creating objects. The start address and the length of the area are mapped to packed addresses
+ * (see {@link Address#pack()}).
+ *
+ * A scanner is reused for the lines of a component and must not be shared between threads.
+ */
+public final class AddressLineScanner {
+
+    private static final String KEYWORD = "ADDRESS";
+    private static final int FIELD_COUNT = 6;
+
+    private final int[] fields = new int[FIELD_COUNT];
+    private boolean overflow;
+
+    /**
+     * Scans a line.
+     *
+     * @param line
+     * @return true if the line is an ADDRESS line, the values can be read then.
+     * @throws NumberFormatException if a number of an ADDRESS line doesn't fit in an int.
+     */
+    public boolean scan(CharSequence line) {
+        int length = line.length();
+        int pos = skipWhitespace(line, 0, length);
+
+        if (length - pos < KEYWORD.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < KEYWORD.length(); i++) {
+            if (line.charAt(pos + i) != KEYWORD.charAt(i)) {
+                return false;
+            }
+        }
+
+        pos += KEYWORD.length();
+        overflow = false;
+
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (field > 0) {
+                if (pos == length || line.charAt(pos) != ',') {
+                    return false;
+                }
+
+                pos++;
+            }
+
+            pos = skipWhitespace(line, pos, length);
+            int start = pos;
+            int value = 0;
+
+            while (pos < length && isDigit(line.charAt(pos))) {
+                int digit = line.charAt(pos++) - '0';
+
+                if (value > (Integer.MAX_VALUE - digit) / 10) {
+                    overflow = true;
+                } else {
+                    value = value * 10 + digit;
+                }
+            }
+
+            if (pos == start) {
+                return false;
+            }
+
+            fields[field] = value;
+            pos = skipWhitespace(line, pos, length);
+        }
+
+        if (pos != length) {
+            return false;
+        }
+
+        if (overflow) {
+            throw new NumberFormatException("Number out of range in line: " + line);
+        }
+
+        return true;
+    }
+
+    public int getStartByte() {
+        return fields[0];
+    }
+
+    public int getStartBit() {
+        return fields[1];
+    }
+
+    public int getLengthByte() {
+        return fields[2];
+    }
+
+    public int getLengthBit() {
+        return fields[3];
+    }
+
+    public int getAddressType1() {
+        return fields[4];
+    }
+
+    public int getAddressType2() {
+        return fields[5];
+    }
+
+    /**
+     * Gets the start address of the scanned area as a packed address.
+     *
+     * The address type 1 (and 2 for the length) selects the data type: 0, 1 and 2 are byte areas (0 with type 2 of
+     * 16 is measured in bits), 7 and 8 are word areas, others are bit areas.
+     *
+     * @param input true for an input area, false for an output area.
+     * @return Packed address.
+     * @throws IllegalStateException if the address doesn't fit in a packed address (see {@link #isPackable()}).
+     */
+    public int packedStartAddress(boolean input) {
+        checkPackable();
+
+        Address.AddressType addressType = input ? Address.AddressType.INPUT : Address.AddressType.OUTPUT;
+
+        switch (getAddressType1()) {
+            case 0:
+            case 1:
+            case 2:
+                return Address.pack(addressType, Address.AddressDataType.BYTE, getStartByte(), 0);
+            case 7:
+            case 8:
+                return Address.pack(addressType, Address.AddressDataType.WORD, getStartByte(), 0);
+            default:
+                return Address.pack(addressType, Address.AddressDataType.BIT, getStartByte(), getStartBit());
+        }
+    }
+
+    /**
+     * Gets the length of the scanned area as a packed plain address.
+     *
+     * @return Packed address.
+     */
+    public int packedAreaLength() {
+        checkPackable();
+
+        if (getAddressType1() == 0 && getAddressType2() == 16) {
+            return Address.pack(Address.AddressType.PLAIN, Address.AddressDataType.BIT, getLengthByte(), 0);
+        }
+
+        return Address.pack(Address.AddressType.PLAIN, Address.AddressDataType.BYTE, getLengthByte(), 0);
+    }
+
+    /**
+     * Checks whether the start and the length of the scanned area fit in packed addresses (byte addresses up to
+     * {@link Address#MAX_PACKED_BYTE}, bit addresses up to 7).
+     *
+     * @return
+     */
+    public boolean isPackable() {
+        boolean bitArea = getAddressType1() != 0 && getAddressType1() != 1 && getAddressType1() != 2 &&
+                getAddressType1() != 7 && getAddressType1() != 8;
+
+        return getStartByte() <= Address.MAX_PACKED_BYTE && getLengthByte() <= Address.MAX_PACKED_BYTE &&
+                (!bitArea || getStartBit() <= 7);
+    }
+
+    private void checkPackable() {
+        if (!isPackable()) {
+            throw new IllegalStateException("Address out of range: " + getStartByte() + "." + getStartBit() + ", length " + getLengthByte());
+        }
+    }
+
+    private static int skipWhitespace(CharSequence line, int pos, int length) {
+        while (pos < length && isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    /**
+     * Whitespace as matched by \s.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Digit as matched by \d.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,10 +1,13 @@
 package org.feherdave.s7hwcfg.s7.hw;
 
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionFormatErrorException;
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
 import org.feherdave.s7hwcfg.s7.HWConfigElement;
 import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
 import org.feherdave.s7hwcfg.s7.system.Address;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -15,23 +18,56 @@ import java.util.stream.Collectors;
  */
 public abstract class HWComponent extends HWConfigElement {
 
-    public class AddressArea {
-        public Address startAddress;
-        public Address areaLength;
+    public static class AddressArea {
+        public final Address startAddress;
+        public final Address areaLength;
 
         public AddressArea(Address startAddress, Address areaLength) {
             this.startAddress = startAddress;
             this.areaLength = areaLength;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof AddressArea)) return false;
+            AddressArea that = (AddressArea) o;
+            return Objects.equals(startAddress, that.startAddress) &&
+                    Objects.equals(areaLength, that.areaLength);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startAddress, areaLength);
+        }
     }
 
     public class Symbol {
-        public Address address;
-        public String symbolName;
-        public String comment;
+        public final Address address;
+        public final String symbolName;
+        public final String comment;
+
+        public Symbol(Address address, String symbolName, String comment) {
+            this.address = address;
+            this.symbolName = symbolName;
+            this.comment = comment;
+        }
+
+        /**
+         * Gets the component the symbol belongs to.
+         *
+         * @return HWComponent
+         */
+        public HWComponent getComponent() {
+            return HWComponent.this;
+        }
     }
 
     protected Map<String, List<AddressArea>> addressAreas = new LinkedHashMap<>();
+    protected List<Symbol> symbols = new ArrayList<>();
+    protected byte[] parameters;
+
+    private static final byte[] NO_PARAMETERS = new byte[0];
     protected SubsystemMemberShip subsystemMemberShip;
 
     /**
@@ -44,108 +80,173 @@ public abstract class HWComponent extends HWConfigElement {
 
         super.parseConfigurationData(configSection);
 
-        // Process input/output addresses
-        String addressRegex = "^\\s*ADDRESS\\s*(?<startByte>\\d+)\\s*,\\s*(?<startBit>\\d+)\\s*,\\s*(?<lengthByte>\\d+)\\s*,\\s*(?<lengthBit>\\d+)\\s*,\\s*(?<addressType1>\\d+)\\s*,\\s*(?<addressType2>\\d+)\\s*$";
+        // Parse input/output address definitions
+        AddressLineScanner scanner = new AddressLineScanner();
 
-        // Parse input address definitions
-        List<String> inputAddressLines = configSection.stream()
-                .dropWhile(line -> !line.equals("LOCAL_IN_ADDRESSES"))
+        parseAddressLines(configSection, "LOCAL_IN_ADDRESSES", scanner, true);
+        parseAddressLines(configSection, "LOCAL_OUT_ADDRESSES", scanner, false);
+
+        // Parse parameter block
+        List<String> parameterLines = configSection.stream()
+                .dropWhile(line -> !line.equals("PARAMETER"))
                 .skip(1)
-                .takeWhile(line -> !CONFIG_DATA_KEYWORDS.contains(line))
-                .filter(line -> line.matches(addressRegex))
+                .takeWhile(line -> !CONFIG_DATA_KEYWORDS.contains(line) && !line.startsWith("SYMBOL") && !line.equals("END"))
                 .collect(Collectors.toList());
 
-        for (String line : inputAddressLines) {
-            addressAreas.putIfAbsent("input", new ArrayList<>());
-            List<AddressArea> inputAddresses = addressAreas.get("input");
+        if (!parameterLines.isEmpty()) {
+            this.parameters = decodeParameters(parameterLines);
+        }
+
+        // Parse symbols (e.g. SYMBOL  I , 0, "Motor_On", "Comment")
+        Pattern symbolPattern = Pattern.compile("^SYMBOL\\s+(?<area>[IQEA])\\s*,\\s*(?<channel>\\d+)\\s*,\\s*\"(?<name>.*?)\"\\s*,\\s*\"(?<comment>.*?)\"\\s*$");
 
-            Pattern p = Pattern.compile(addressRegex);
-            Matcher m = p.matcher(line);
+        for (String line : configSection) {
+            if (!line.startsWith("SYMBOL")) {
+                continue;
+            }
+
+            Matcher m = symbolPattern.matcher(line);
 
             if (m.matches()) {
-                Integer startByte = Integer.parseInt(m.group("startByte"));
-                Integer startBit = Integer.parseInt(m.group("startBit"));
-                Integer areaLength = Integer.parseInt(m.group("lengthByte"));
-                Integer areaLengthOffset = Integer.parseInt(m.group("lengthBit"));
-                Integer addressType1 = Integer.parseInt(m.group("addressType1"));
-                Integer addressType2 = Integer.parseInt(m.group("addressType2"));
-
-                // That's only a guess... :)
-                Address startAddress;
-                Address addrAreaLength = Address.Plain().b(areaLength);
-
-                switch (addressType1) {
-                    case 0:
-                        if (addressType2 == 16) {
-                            addrAreaLength = Address.Plain().x(areaLength, 0);
-                        }
-                    case 1:
-                    case 2:
-                        startAddress = Address.Input().b(startByte);
-                        break;
-                    case 7:
-                    case 8:
-                        startAddress = Address.Input().w(startByte);
-                        break;
-                    default:
-                        startAddress = Address.Input().x(startByte, startBit);
+                boolean input = m.group("area").equals("I") || m.group("area").equals("E");
+                List<AddressArea> areas = addressAreas.get(input ? "input" : "output");
+
+                if (areas == null || areas.isEmpty()) {
+                    throw new STEP7HWCfgFileSectionFormatErrorException("Symbol without " + (input ? "input" : "output") + " address area: " + line);
                 }
 
-                inputAddresses.add(new AddressArea(startAddress, addrAreaLength));
-            } else {
-                throw new STEP7HWCfgFileSectionFormatErrorException("The following line in section LOCAL_IN_ADDRESSES couldn't be parsed: " + line);
+                symbols.add(new Symbol(channelAddress(areas.get(0).startAddress, Integer.parseInt(m.group("channel"))), m.group("name"), m.group("comment")));
+            } else if (!line.equals("SYMBOL")) {
+                throw new STEP7HWCfgFileSectionFormatErrorException("The following SYMBOL line couldn't be parsed: " + line);
             }
         }
+    }
 
-        // Parse output address definitions
-        List<String> outputAddressLines = configSection.stream()
-                .dropWhile(line -> !line.equals("LOCAL_OUT_ADDRESSES"))
-                .skip(1)
-                .takeWhile(line -> !CONFIG_DATA_KEYWORDS.contains(line))
-                .filter(line -> line.matches(addressRegex))
-                .collect(Collectors.toList());
+    /**
+     * Parses the ADDRESS lines of the first LOCAL_IN_ADDRESSES or LOCAL_OUT_ADDRESSES block into address areas. Other
+     * lines of the block are skipped.
+     *
+     * @param configSection
+     * @param keyword LOCAL_IN_ADDRESSES or LOCAL_OUT_ADDRESSES
+     * @param scanner
+     * @param input true for input areas.
+     */
+    private void parseAddressLines(List<String> configSection, String keyword, AddressLineScanner scanner, boolean input) throws STEP7HWCfgFileSectionFormatErrorException {
+        int start = configSection.indexOf(keyword);
 
-        for (String line : outputAddressLines) {
-            addressAreas.putIfAbsent("output", new ArrayList<>());
-            List<AddressArea> outputAddresses = addressAreas.get("output");
+        if (start < 0) {
+            return;
+        }
 
-            Pattern p = Pattern.compile(addressRegex);
-            Matcher m = p.matcher(line);
+        for (String line : configSection.subList(start + 1, configSection.size())) {
+            if (CONFIG_DATA_KEYWORDS.contains(line)) {
+                break;
+            }
 
-            if (m.matches()) {
-                Integer startByte = Integer.parseInt(m.group("startByte"));
-                Integer startBit = Integer.parseInt(m.group("startBit"));
-                Integer areaLength = Integer.parseInt(m.group("lengthByte"));
-                Integer areaLengthOffset = Integer.parseInt(m.group("lengthBit"));
-                Integer addressType1 = Integer.parseInt(m.group("addressType1"));
-                Integer addressType2 = Integer.parseInt(m.group("addressType2"));
-
-                // That's only a guess... :)
-                Address startAddress;
-                Address addrAreaLength = Address.Plain().b(areaLength);
-
-                switch (addressType1) {
-                    case 0:
-                        if (addressType2 == 16) {
-                            addrAreaLength = Address.Plain().x(areaLength, 0);
-                        }
-                    case 1:
-                    case 2:
-                        startAddress = Address.Output().b(startByte);
-                        break;
-                    case 7:
-                    case 8:
-                        startAddress = Address.Output().w(startByte);
-                        break;
-                    default:
-                        startAddress = Address.Output().x(startByte, startBit);
+            if (!scanner.scan(line)) {
+                continue;
+            }
+
+            if (!scanner.isPackable()) {
+                throw new STEP7HWCfgFileSectionFormatErrorException("The following line in section " + keyword + " couldn't be parsed: " + line);
+            }
+
+            addressAreas.computeIfAbsent(input ? "input" : "output", key -> new ArrayList<>())
+                    .add(new AddressArea(Address.unpack(scanner.packedStartAddress(input)), Address.unpack(scanner.packedAreaLength())));
+        }
+    }
+
+    /**
+     * Decodes the lines of a PARAMETER block (comma separated hexadecimal or decimal byte values) into a byte array.
+     *
+     * @param parameterLines Lines of the PARAMETER block.
+     * @return Parameter bytes.
+     */
+    private static byte[] decodeParameters(List<String> parameterLines) throws STEP7HWCfgFileSectionFormatErrorException {
+        int count = 0;
+
+        for (String line : parameterLines) {
+            count += line.isBlank() ? 0 : line.split(",").length;
+        }
+
+        byte[] res = new byte[count];
+        int pos = 0;
+
+        for (String line : parameterLines) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            for (String token : line.split(",")) {
+                String value = token.trim();
+                int parsed;
+
+                try {
+                    if (value.startsWith("0x") || value.startsWith("0X")) {
+                        parsed = Integer.parseInt(value.substring(2), 16);
+                    } else {
+                        parsed = Integer.parseInt(value);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new STEP7HWCfgFileSectionFormatErrorException("The following line in section PARAMETER couldn't be parsed: " + line);
                 }
 
-                outputAddresses.add(new AddressArea(startAddress, addrAreaLength));
-            } else {
-                throw new STEP7HWCfgFileSectionFormatErrorException("The following line in section LOCAL_OUT_ADDRESSES couldn't be parsed: " + line);
+                if (parsed < 0 || parsed > 0xFF) {
+                    throw new STEP7HWCfgFileSectionFormatErrorException("Parameter value out of byte range in line: " + line);
+                }
+
+                res[pos++] = (byte) parsed;
             }
         }
+
+        return res;
+    }
+
+    /**
+     * Calculates the address of a channel relative to the start address of an address area.
+     * Channels of word areas (analog modules) are words, all other channels are bits.
+     *
+     * @param startAddress Start address of the area.
+     * @param channel Channel number.
+     * @return Address of the channel.
+     */
+    private static Address channelAddress(Address startAddress, int channel) {
+        Address res = startAddress.getAddressType() == Address.AddressType.INPUT ? Address.Input() : Address.Output();
+
+        if (startAddress.getAddressDataType() == Address.AddressDataType.WORD) {
+            return res.w(startAddress.getAddressByte() + 2 * channel);
+        }
+
+        int bitOffset = (startAddress.getAddressBit() != null ? startAddress.getAddressBit() : 0) + channel;
+
+        return res.x(startAddress.getAddressByte() + bitOffset / 8, bitOffset % 8);
+    }
+
+    /**
+     * Gets the address areas of the component.
+     *
+     * @return Map of area kind ("input" or "output") to address areas.
+     */
+    public Map<String, List<AddressArea>> getAddressAreas() {
+        return addressAreas;
+    }
+
+    /**
+     * Gets the decoded PARAMETER block of the component.
+     *
+     * @return Read-only buffer of the parameter bytes (empty if the component has no PARAMETER block).
+     */
+    public ByteBuffer getParameters() {
+        return ByteBuffer.wrap(parameters != null ? parameters : NO_PARAMETERS).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets symbols assigned to the channels of the component.
+     *
+     * @return List of symbols.
+     */
+    public List<Symbol> getSymbols() {
+        return symbols;
     }
 
     /**
@@ -163,6 +264,72 @@ public abstract class HWComponent extends HWConfigElement {
      * @param subsystemMemberShip
      */
     public void setSubsystemMemberShip(SubsystemMemberShip subsystemMemberShip) {
+        checkNotFrozen();
         this.subsystemMemberShip = subsystemMemberShip;
     }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(addressAreas.size());
+        addressAreas.forEach((key, areas) -> {
+            res.add(key).add(areas.size());
+            areas.forEach(area -> {
+                fingerprintAddress(res, area.startAddress);
+                fingerprintAddress(res, area.areaLength);
+            });
+        });
+
+        res.add(parameters);
+
+        res.add(symbols.size());
+        symbols.forEach(symbol -> {
+            fingerprintAddress(res, symbol.address);
+            res.add(symbol.symbolName).add(symbol.comment);
+        });
+
+        if (subsystemMemberShip != null) {
+            res.add(subsystemMemberShip.getSubsystem().getNumber()).add(subsystemMemberShip.getAddress()).add(subsystemMemberShip.getRole());
+        } else {
+            res.add((String) null);
+        }
+    }
+
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        addressAreas = deduplicator.share(addressAreas);
+        parameters = deduplicator.share(parameters);
+    }
+
+    @Override
+    protected byte[] getParameterBytes() {
+        return parameters;
+    }
+
+    private static void fingerprintAddress(Fingerprint res, Address address) {
+        res.add(address.getAddressType()).add(address.getAddressDataType()).add(address.getAddressByte()).add(address.getAddressBit());
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        Map<String, List<AddressArea>> frozenAreas = new LinkedHashMap<>();
+
+        addressAreas.forEach((key, areas) -> {
+            areas.forEach(area -> {
+                area.startAddress.freeze();
+                area.areaLength.freeze();
+            });
+            frozenAreas.put(key, List.copyOf(areas));
+        });
+
+        symbols.forEach(symbol -> symbol.address.freeze());
+
+        addressAreas = frozenCopy(frozenAreas);
+        symbols = List.copyOf(symbols);
+    }
 }
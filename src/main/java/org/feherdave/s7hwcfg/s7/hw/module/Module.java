@@ -22,4 +22,25 @@ public interface Module {
      * @return Optional<Module> Optional containing the Module object or an empty optional is there is no module in the given slot.
      */
     Optional<Module> getModule(Integer slotNumber);
+
+    /**
+     * Gets the order number of the module.
+     *
+     * @return Order number (e.g. "6ES7 321-1BL00-0AA0").
+     */
+    String getOrderNumber();
+
+    /**
+     * Gets the name (designation) of the module.
+     *
+     * @return Name of the module.
+     */
+    String getName();
+
+    /**
+     * Gets the version of the module.
+     *
+     * @return Version string or null if the version is not specified.
+     */
+    String getVersion();
 }
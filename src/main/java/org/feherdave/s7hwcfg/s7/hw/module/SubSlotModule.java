@@ -1,5 +1,7 @@
 package org.feherdave.s7hwcfg.s7.hw.module;
 
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
 import org.feherdave.s7hwcfg.s7.hw.HWComponent;
 
 import java.util.Optional;
@@ -29,7 +31,7 @@ public class SubSlotModule extends HWComponent implements Module {
      * @param value
      */
     public void putData(String key, String value) {
-        data.put(key, value);
+        super.putData(key, value);
     }
 
     public Integer getSlotNumber() {
@@ -44,6 +46,37 @@ public class SubSlotModule extends HWComponent implements Module {
         return rackNumber;
     }
 
+    @Override
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        orderNumber = deduplicator.share(orderNumber);
+        name = deduplicator.share(name);
+        version = deduplicator.share(version);
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(rackNumber).add(slotNumber).add(subslotNumber).add(orderNumber).add(name).add(version);
+    }
+
     @Override
     public String toString() {
         return "Module{" +
@@ -67,7 +100,7 @@ public class SubSlotModule extends HWComponent implements Module {
     }
 
     public void setSubsystemMemberShip(SubsystemMemberShip subsystemMemberShip) {
-        this.subsystemMemberShip = subsystemMemberShip;
+        super.setSubsystemMemberShip(subsystemMemberShip);
     }
 
 }
@@ -14,4 +14,11 @@ public abstract class SubsystemMemberShip {
     public Integer getAddress() {
         return address;
     }
+
+    /**
+     * Gets the role of the member in the subsystem.
+     *
+     * @return Role (e.g. MASTER, SLAVE, CONTROLLER or DEVICE).
+     */
+    public abstract Enum<?> getRole();
 }
@@ -1,15 +1,20 @@
 package org.feherdave.s7hwcfg.s7.hw.module;
 
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
+import org.feherdave.s7hwcfg.s7.HWConfigElement;
+import org.feherdave.s7hwcfg.s7.SlotTable;
 import org.feherdave.s7hwcfg.s7.hw.HWComponent;
 
 import java.util.*;
+import java.util.Map;
 
 public class SubsystemRackSlotModule extends HWComponent implements Module {
 
     private Integer address;
     private Integer subsystemNumber;
     private Integer slotNumber;
-    private Map<Integer, SubSlotModule> subModules = new LinkedHashMap<>();
+    private SlotTable<SubSlotModule> subModules = new SlotTable<>();
     private String orderNumber;
     private String name;
     private String version;
@@ -35,6 +40,21 @@ public class SubsystemRackSlotModule extends HWComponent implements Module {
         return slotNumber;
     }
 
+    @Override
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
     /**
      * Inserts a module into the given slot.
      *
@@ -42,6 +62,8 @@ public class SubsystemRackSlotModule extends HWComponent implements Module {
      * @param module
      */
     public void addModule(Integer slotNumber, Module module) {
+        checkNotFrozen();
+
         if (module instanceof SubSlotModule) {
             subModules.put(slotNumber, (SubSlotModule) module);
         }
@@ -67,8 +89,37 @@ public class SubsystemRackSlotModule extends HWComponent implements Module {
                 '}';
     }
 
-    public Map<Integer, SubSlotModule> getSubModules() {
+    public SlotTable<SubSlotModule> getSubModules() {
         return subModules;
     }
 
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        orderNumber = deduplicator.share(orderNumber);
+        name = deduplicator.share(name);
+        version = deduplicator.share(version);
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(subsystemNumber).add(address).add(slotNumber).add(orderNumber).add(name).add(version);
+    }
+
+    @Override
+    protected Map<String, HWConfigElement> fingerprintChildren() {
+        return positions("SUBSLOT", subModules);
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        subModules.values().forEach(module -> module.freeze(deduplicator));
+        subModules = frozenTable(subModules);
+    }
+
 }
@@ -1,11 +1,14 @@
 package org.feherdave.s7hwcfg.s7.hw.rack;
 
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
+import org.feherdave.s7hwcfg.s7.HWConfigElement;
+import org.feherdave.s7hwcfg.s7.SlotTable;
 import org.feherdave.s7hwcfg.s7.hw.HWComponent;
 import org.feherdave.s7hwcfg.s7.hw.module.Module;
 import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
 
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Rack extends HWComponent {
@@ -13,7 +16,7 @@ public class Rack extends HWComponent {
     private Integer rackNumber;
     private String rackName;
     private String orderNumber;
-    private Map<Integer, SlotModule> slots = new LinkedHashMap<>();
+    private SlotTable<SlotModule> slots = new SlotTable<>();
 
     public Rack(int rackNumber, String orderNumber, String rackName) {
         this.rackNumber = rackNumber;
@@ -27,6 +30,7 @@ public class Rack extends HWComponent {
      * @param module
      */
     public void addModule(SlotModule module) {
+        checkNotFrozen();
         slots.put(module.getSlotNumber(), module);
     }
 
@@ -34,6 +38,23 @@ public class Rack extends HWComponent {
         return rackNumber;
     }
 
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public String getRackName() {
+        return rackName;
+    }
+
+    /**
+     * Gets the modules inserted into the rack.
+     *
+     * @return Map of slot number to module.
+     */
+    public SlotTable<SlotModule> getSlots() {
+        return slots;
+    }
+
      /**
      * Inserts a module into the given slot.
      *
@@ -41,6 +62,7 @@ public class Rack extends HWComponent {
      * @param module
      */
     public void addModule(Integer slotNumber, SlotModule module) {
+        checkNotFrozen();
         slots.put(slotNumber, module);
     }
 
@@ -54,6 +76,34 @@ public class Rack extends HWComponent {
         return slots.get(slotNumber);
     }
 
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        rackName = deduplicator.share(rackName);
+        orderNumber = deduplicator.share(orderNumber);
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(rackNumber).add(rackName).add(orderNumber);
+    }
+
+    @Override
+    protected Map<String, HWConfigElement> fingerprintChildren() {
+        return positions("SLOT", slots);
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        slots.values().forEach(module -> module.freeze(deduplicator));
+        slots = frozenTable(slots);
+    }
+
     @Override
     public String toString() {
         return "Rack{" +
@@ -1,10 +1,13 @@
 package org.feherdave.s7hwcfg.s7.hw.rack;
 
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
+import org.feherdave.s7hwcfg.s7.HWConfigElement;
+import org.feherdave.s7hwcfg.s7.SlotTable;
 import org.feherdave.s7hwcfg.s7.hw.HWComponent;
 import org.feherdave.s7hwcfg.s7.hw.module.Module;
 import org.feherdave.s7hwcfg.s7.hw.module.SubsystemRackSlotModule;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -15,7 +18,7 @@ public class SubsystemRack extends HWComponent implements Module {
     private String orderNumber;
     private String designation;
     private String version;
-    private Map<Integer, SubsystemRackSlotModule> modules = new LinkedHashMap<>();
+    private SlotTable<SubsystemRackSlotModule> modules = new SlotTable<>();
 
     public SubsystemRack(Integer subsystemNumber, Integer address, String orderNumber, String version, String designation) {
         this.subsystemNumber = subsystemNumber;
@@ -27,6 +30,8 @@ public class SubsystemRack extends HWComponent implements Module {
 
     @Override
     public void addModule(Integer slotNumber, Module module) {
+        checkNotFrozen();
+
         if (module instanceof SubsystemRackSlotModule) {
             modules.put(slotNumber, (SubsystemRackSlotModule) module);
         }
@@ -37,6 +42,72 @@ public class SubsystemRack extends HWComponent implements Module {
         return Optional.ofNullable(modules.get(slotNumber));
     }
 
+    public Integer getSubsystemNumber() {
+        return subsystemNumber;
+    }
+
+    public Integer getAddress() {
+        return address;
+    }
+
+    @Override
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    /**
+     * Gets the designation of the subsystem rack.
+     *
+     * @return Designation (e.g. "IM 153-1").
+     */
+    @Override
+    public String getName() {
+        return designation;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the modules inserted into the subsystem rack.
+     *
+     * @return Map of slot number to module.
+     */
+    public SlotTable<SubsystemRackSlotModule> getModules() {
+        return modules;
+    }
+
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        orderNumber = deduplicator.share(orderNumber);
+        designation = deduplicator.share(designation);
+        version = deduplicator.share(version);
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(subsystemNumber).add(address).add(orderNumber).add(designation).add(version);
+    }
+
+    @Override
+    protected Map<String, HWConfigElement> fingerprintChildren() {
+        return positions("SLOT", modules);
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        modules.values().forEach(module -> module.freeze(deduplicator));
+        modules = frozenTable(modules);
+    }
+
     @Override
     public String toString() {
         return "SubsystemRack{" +
@@ -1,5 +1,7 @@
 package org.feherdave.s7hwcfg.s7.system;
 
+import java.util.Objects;
+
 public class Address {
 
     public enum AddressType {
@@ -44,10 +46,14 @@ public class Address {
         }
     }
 
+    /** Highest byte address a packed address can hold. */
+    public static final int MAX_PACKED_BYTE = 0x3FFFFF;
+
     AddressType addressType;
     AddressDataType addressDataType;
     Integer addressByte;
     Integer addressBit;
+    private boolean frozen;
 
     private Address(AddressType addressType) {
         this.addressType = addressType;
@@ -85,14 +91,17 @@ public class Address {
 
     /** Let this address represent a bit address. */
     public Address x(Integer addressByte, Integer addressBit) {
+        checkNotFrozen();
         this.addressDataType = AddressDataType.BIT;
         this.addressByte = addressByte;
+        this.addressBit = addressBit;
 
         return this;
     }
 
     /** Let this address represent a byte address. */
     public Address b(Integer addressByte) {
+        checkNotFrozen();
         this.addressDataType = AddressDataType.BYTE;
         this.addressByte = addressByte;
 
@@ -101,6 +110,7 @@ public class Address {
 
     /** Let this address represent a word address. */
     public Address w(Integer addressWord) {
+        checkNotFrozen();
         this.addressDataType = AddressDataType.WORD;
         this.addressByte = addressWord;
 
@@ -109,6 +119,7 @@ public class Address {
 
     /** Let this address represent a dword address. */
     public Address dw(Integer addressDWord) {
+        checkNotFrozen();
         this.addressDataType = AddressDataType.DWORD;
         this.addressByte = addressDWord;
 
@@ -117,12 +128,112 @@ public class Address {
 
     /** Let this address represent a timer/counter. */
     public Address number(Integer number) {
+        checkNotFrozen();
         this.addressDataType = AddressDataType.ID_NUMBER;
         this.addressByte = number;
 
         return this;
     }
 
+    /**
+     * Makes the address immutable, builder methods throw IllegalStateException afterwards.
+     *
+     * @return This address.
+     */
+    public Address freeze() {
+        this.frozen = true;
+
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Address is frozen: " + this);
+        }
+    }
+
+    public AddressType getAddressType() {
+        return addressType;
+    }
+
+    public AddressDataType getAddressDataType() {
+        return addressDataType;
+    }
+
+    public Integer getAddressByte() {
+        return addressByte;
+    }
+
+    public Integer getAddressBit() {
+        return addressBit;
+    }
+
+    /**
+     * Packs the address into a single int.
+     *
+     * Layout (from bit 30 down): 3 bits address type, 3 bits data type, 22 bits byte address, 3 bits bit address.
+     * The sign bit is never set, so the natural order of packed addresses follows area, data type, byte and bit.
+     *
+     * @return Packed address.
+     */
+    public int pack() {
+        int dataType = addressDataType != null ? addressDataType.ordinal() : 0;
+        int bytePart = addressByte != null ? addressByte : 0;
+        int bitPart = addressBit != null ? addressBit : 0;
+
+        return pack(addressType, dataType, bytePart, bitPart);
+    }
+
+    /**
+     * Packs an address without creating it, see {@link #pack()}.
+     *
+     * @param addressType
+     * @param addressDataType
+     * @param addressByte Byte address (at most {@link #MAX_PACKED_BYTE}).
+     * @param addressBit Bit address (0..7), 0 if not a bit address.
+     * @return Packed address.
+     */
+    public static int pack(AddressType addressType, AddressDataType addressDataType, int addressByte, int addressBit) {
+        return pack(addressType, addressDataType.ordinal(), addressByte, addressBit);
+    }
+
+    private static int pack(AddressType addressType, int dataType, int addressByte, int addressBit) {
+        return (addressType.ordinal() << 28) | (dataType << 25) | ((addressByte & MAX_PACKED_BYTE) << 3) | (addressBit & 0x7);
+    }
+
+    /**
+     * Creates an address from its packed form.
+     *
+     * @param packedAddress Address packed by {@link #pack()}.
+     * @return Address
+     */
+    public static Address unpack(int packedAddress) {
+        Address res = new Address(AddressType.values()[packedAddress >>> 28]);
+        res.addressDataType = AddressDataType.values()[(packedAddress >>> 25) & 0x7];
+        res.addressByte = (packedAddress >>> 3) & 0x3FFFFF;
+
+        if (res.addressDataType == AddressDataType.BIT) {
+            res.addressBit = packedAddress & 0x7;
+        }
+
+        return res;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Address)) return false;
+        Address address = (Address) o;
+        return addressType == address.addressType &&
+                addressDataType == address.addressDataType &&
+                Objects.equals(addressByte, address.addressByte) &&
+                Objects.equals(addressBit, address.addressBit);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(addressType, addressDataType, addressByte, addressBit);
+    }
 
     @Override
     public String toString() {
@@ -1,10 +1,11 @@
 package org.feherdave.s7hwcfg.s7.system;
 
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.Fingerprint;
 import org.feherdave.s7hwcfg.s7.HWConfigElement;
+import org.feherdave.s7hwcfg.s7.SlotTable;
 import org.feherdave.s7hwcfg.s7.hw.module.Module;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 public class Subsystem extends HWConfigElement {
 
@@ -13,7 +14,7 @@ public class Subsystem extends HWConfigElement {
     private SubnetType subnetType;
     private String name;
     private Integer number;
-    private Map<Integer, Module> nodes = new LinkedHashMap<>();
+    private SlotTable<Module> nodes = new SlotTable<>();
 
     public Subsystem(SubnetType type, String name, Integer number) {
         this.subnetType = type;
@@ -28,6 +29,7 @@ public class Subsystem extends HWConfigElement {
      * @param node
      */
     public void attachNode(Integer address, Module node) {
+        checkNotFrozen();
         this.nodes.put(address, node);
     }
 
@@ -35,6 +37,10 @@ public class Subsystem extends HWConfigElement {
         return nodes.get(address);
     }
 
+    public SubnetType getSubnetType() {
+        return subnetType;
+    }
+
     public String getName() {
         return name;
     }
@@ -43,6 +49,37 @@ public class Subsystem extends HWConfigElement {
         return number;
     }
 
+    /**
+     * Gets the nodes attached to the subsystem.
+     *
+     * @return Map of address to node.
+     */
+    public SlotTable<Module> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    protected void shareContent(Deduplicator deduplicator) {
+        super.shareContent(deduplicator);
+
+        name = deduplicator.share(name);
+    }
+
+    @Override
+    protected void fingerprintContent(Fingerprint res) {
+        super.fingerprintContent(res);
+
+        res.add(subnetType).add(name).add(number).add(nodes.size());
+        nodes.keySet().forEach(res::add);
+    }
+
+    @Override
+    protected void freezeContent(Deduplicator deduplicator) {
+        super.freezeContent(deduplicator);
+
+        nodes = frozenTable(nodes);
+    }
+
     @Override
     public String toString() {
         return "Subnet{" +
@@ -0,0 +1,53 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.SubsystemMemberShip;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports modules attached to a subsystem at the same address (e.g. a DP slave at the address of the master).
+ *
+ * Attaching a node to a subsystem replaces the node at the address, so the conflict is looked up in the subsystem
+ * memberships of the modules.
+ */
+public class DuplicateAddressRule implements ValidationRule {
+
+    public static final String ID = "DUPLICATE_ADDRESS";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public List<Finding> check(Station station) {
+        List<Finding> res = new ArrayList<>();
+        Map<Long, HWComponent> nodes = new HashMap<>();
+
+        for (Module module : station.getModules()) {
+            HWComponent component = (HWComponent) module;
+            SubsystemMemberShip memberShip = component.getSubsystemMemberShip();
+
+            if (memberShip == null) {
+                continue;
+            }
+
+            long key = ((long) memberShip.getSubsystem().getNumber() << 32) | (memberShip.getAddress() & 0xFFFFFFFFL);
+            HWComponent first = nodes.putIfAbsent(key, component);
+
+            if (first != null) {
+                res.add(new Finding(ID, Finding.Severity.ERROR, station, component,
+                        "Address " + memberShip.getAddress() + " of " + memberShip.getSubsystem().getName() +
+                                " is used by " + ((Module) first).getName() + " and " + module.getName()));
+            }
+        }
+
+        return res;
+    }
+}
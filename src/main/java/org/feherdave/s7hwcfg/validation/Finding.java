@@ -0,0 +1,58 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+
+/**
+ * Problem found in a station by a validation rule.
+ */
+public final class Finding {
+
+    public enum Severity { INFO, WARNING, ERROR }
+
+    private final String ruleId;
+    private final Severity severity;
+    private final Station station;
+    private final HWComponent component;
+    private final String message;
+
+    /**
+     * @param ruleId Id of the rule reporting the finding.
+     * @param severity
+     * @param station Station validated.
+     * @param component Component the finding is about, null if it is about the whole station.
+     * @param message Human readable description.
+     */
+    public Finding(String ruleId, Severity severity, Station station, HWComponent component, String message) {
+        this.ruleId = ruleId;
+        this.severity = severity;
+        this.station = station;
+        this.component = component;
+        this.message = message;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public Station getStation() {
+        return station;
+    }
+
+    public HWComponent getComponent() {
+        return component;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return severity + " [" + ruleId + "] " + station.getStationName() + ": " + message;
+    }
+}
@@ -0,0 +1,36 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.UnresolvedReference;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports masters, controllers, slaves and devices attached to a subsystem which does not exist in the station.
+ */
+public class MissingSubsystemRule implements ValidationRule {
+
+    public static final String ID = "MISSING_SUBSYSTEM";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public List<Finding> check(Station station) {
+        List<Finding> res = new ArrayList<>();
+
+        for (UnresolvedReference reference : station.getUnresolvedReferences()) {
+            if (reference.getKind() == UnresolvedReference.Kind.SUBSYSTEM) {
+                res.add(new Finding(ID, Finding.Severity.ERROR, station, reference.getComponent(),
+                        ((Module) reference.getComponent()).getName() + " is " + reference.getRole() + " of subsystem " +
+                                reference.getNumber() + ", which does not exist"));
+            }
+        }
+
+        return res;
+    }
+}
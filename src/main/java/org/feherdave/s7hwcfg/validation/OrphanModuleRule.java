@@ -0,0 +1,49 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.UnresolvedReference;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports modules whose rack, slot module or subsystem rack does not exist in the station.
+ */
+public class OrphanModuleRule implements ValidationRule {
+
+    public static final String ID = "ORPHAN_MODULE";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public List<Finding> check(Station station) {
+        List<Finding> res = new ArrayList<>();
+
+        for (UnresolvedReference reference : station.getUnresolvedReferences()) {
+            String parent;
+
+            switch (reference.getKind()) {
+                case RACK:
+                    parent = "rack " + reference.getNumber();
+                    break;
+                case SLOT:
+                    parent = "slot " + reference.getNumber();
+                    break;
+                case SUBSYSTEM_RACK:
+                    parent = "subsystem " + reference.getNumber() + " address " + reference.getAddress();
+                    break;
+                default:
+                    continue;
+            }
+
+            res.add(new Finding(ID, Finding.Severity.ERROR, station, reference.getComponent(),
+                    ((Module) reference.getComponent()).getName() + " is in " + parent + ", which does not exist"));
+        }
+
+        return res;
+    }
+}
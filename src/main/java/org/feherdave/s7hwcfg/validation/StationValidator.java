@@ -0,0 +1,101 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs validation rules over stations.
+ *
+ * A fleet of stations is validated by running every rule on every station as a separate task, the findings are
+ * merged in station order, then rule order, so the report does not depend on scheduling.
+ */
+public class StationValidator {
+
+    private final List<ValidationRule> rules;
+
+    /**
+     * @param rules Rules to run, in reporting order.
+     */
+    public StationValidator(List<ValidationRule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * Creates a validator with the built-in rules.
+     *
+     * @return StationValidator
+     */
+    public static StationValidator withDefaultRules() {
+        return new StationValidator(defaultRules());
+    }
+
+    /**
+     * Gets the built-in rules: orphan modules, members of missing subsystems, duplicate subsystem addresses and
+     * subsystems without a master.
+     *
+     * @return List of rules.
+     */
+    public static List<ValidationRule> defaultRules() {
+        return List.of(new OrphanModuleRule(), new MissingSubsystemRule(), new DuplicateAddressRule(), new SubsystemWithoutMasterRule());
+    }
+
+    public List<ValidationRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Validates a station on the calling thread.
+     *
+     * @param station
+     * @return ValidationReport
+     */
+    public ValidationReport validate(Station station) {
+        List<Finding> findings = new ArrayList<>();
+
+        for (ValidationRule rule : rules) {
+            findings.addAll(rule.check(station));
+        }
+
+        return new ValidationReport(findings);
+    }
+
+    /**
+     * Validates stations in parallel.
+     *
+     * @param stations
+     * @param executor Executor the rules are run on.
+     * @return ValidationReport
+     */
+    public ValidationReport validate(Collection<Station> stations, ExecutorService executor) {
+        List<Future<List<Finding>>> futures = new ArrayList<>(stations.size() * rules.size());
+
+        for (Station station : stations) {
+            for (ValidationRule rule : rules) {
+                futures.add(executor.submit(() -> rule.check(station)));
+            }
+        }
+
+        List<Finding> findings = new ArrayList<>();
+
+        try {
+            for (Future<List<Finding>> future : futures) {
+                findings.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Validation failed", e.getCause());
+        }
+
+        return new ValidationReport(findings);
+    }
+}
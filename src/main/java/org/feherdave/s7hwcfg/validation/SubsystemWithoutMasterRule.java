@@ -0,0 +1,42 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.hw.module.DPSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.PNIOSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports subsystems having slaves or devices but no master or controller in the station.
+ */
+public class SubsystemWithoutMasterRule implements ValidationRule {
+
+    public static final String ID = "SUBSYSTEM_WITHOUT_MASTER";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public List<Finding> check(Station station) {
+        List<Finding> res = new ArrayList<>();
+
+        for (Subsystem subsystem : station.getSubnets().values()) {
+            Integer number = subsystem.getNumber();
+            int masters = station.getSubsystemMembers(number, DPSubsystemMemberShip.Role.MASTER).size() +
+                    station.getSubsystemMembers(number, PNIOSubsystemMemberShip.Role.CONTROLLER).size();
+            int slaves = station.getSubsystemMembers(number, DPSubsystemMemberShip.Role.SLAVE).size() +
+                    station.getSubsystemMembers(number, PNIOSubsystemMemberShip.Role.DEVICE).size();
+
+            if (masters == 0 && slaves > 0) {
+                res.add(new Finding(ID, Finding.Severity.WARNING, station, null,
+                        subsystem.getName() + " has " + slaves + " slave(s) but no master"));
+            }
+        }
+
+        return res;
+    }
+}
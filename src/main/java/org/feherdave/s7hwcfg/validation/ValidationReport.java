@@ -0,0 +1,73 @@
+package org.feherdave.s7hwcfg.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Findings of validating one or more stations, in station order, then rule order.
+ */
+public class ValidationReport {
+
+    private final List<Finding> findings;
+    private final int[] counts = new int[Finding.Severity.values().length];
+
+    ValidationReport(List<Finding> findings) {
+        this.findings = List.copyOf(findings);
+        this.findings.forEach(finding -> counts[finding.getSeverity().ordinal()]++);
+    }
+
+    /**
+     * Gets all findings.
+     *
+     * @return Read-only list of findings.
+     */
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    /**
+     * Gets the findings of a severity.
+     *
+     * @param severity
+     * @return List of findings.
+     */
+    public List<Finding> getFindings(Finding.Severity severity) {
+        List<Finding> res = new ArrayList<>(counts[severity.ordinal()]);
+
+        for (Finding finding : findings) {
+            if (finding.getSeverity() == severity) {
+                res.add(finding);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Gets the number of findings of a severity.
+     *
+     * @param severity
+     * @return
+     */
+    public int count(Finding.Severity severity) {
+        return counts[severity.ordinal()];
+    }
+
+    /**
+     * Checks whether any finding is an error.
+     *
+     * @return
+     */
+    public boolean hasErrors() {
+        return count(Finding.Severity.ERROR) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationReport{" +
+                "errors=" + count(Finding.Severity.ERROR) +
+                ", warnings=" + count(Finding.Severity.WARNING) +
+                ", infos=" + count(Finding.Severity.INFO) +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package org.feherdave.s7hwcfg.validation;
+
+import org.feherdave.s7hwcfg.s7.Station;
+
+import java.util.List;
+
+/**
+ * Check of a station.
+ *
+ * Rules are run concurrently on different stations, so they must not keep state between calls. They may be run on
+ * stations which are not frozen, but the station must not be modified while it is validated.
+ */
+public interface ValidationRule {
+
+    /**
+     * Gets the id of the rule, reported with its findings.
+     *
+     * @return Id (e.g. "DUPLICATE_ADDRESS").
+     */
+    String getId();
+
+    /**
+     * Checks a station.
+     *
+     * @param station
+     * @return Findings, empty if the station passes the check.
+     */
+    List<Finding> check(Station station);
+}
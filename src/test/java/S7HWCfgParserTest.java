@@ -1,10 +1,91 @@
 import org.feherdave.s7hwcfg.HWConfig;
+import org.feherdave.s7hwcfg.Project;
+import org.feherdave.s7hwcfg.StationRepository;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFile;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileDiagnosticsSink;
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileFormatException;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileHeader;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileReadMonitor;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSection;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionContext;
 import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionFormatErrorException;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionHandler;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileSectionHandlers;
+import org.feherdave.s7hwcfg.cfgfile.STEP7HWCfgFileTextView;
+import org.feherdave.s7hwcfg.export.StationBinaryWriter;
+import org.feherdave.s7hwcfg.export.StationJsonWriter;
+import org.feherdave.s7hwcfg.export.StationTableExporter;
+import org.feherdave.s7hwcfg.s7.Deduplicator;
+import org.feherdave.s7hwcfg.s7.FingerprintDiff;
+import org.feherdave.s7hwcfg.s7.MemoryFootprint;
+import org.feherdave.s7hwcfg.s7.ModuleCatalog;
+import org.feherdave.s7hwcfg.s7.OrderNumberIndex;
+import org.feherdave.s7hwcfg.s7.SlotTable;
+import org.feherdave.s7hwcfg.s7.Station;
+import org.feherdave.s7hwcfg.s7.StationBuilder;
+import org.feherdave.s7hwcfg.s7.SubsystemTopology;
+import org.feherdave.s7hwcfg.s7.SymbolTable;
+import org.feherdave.s7hwcfg.s7.TextIndex;
+import org.feherdave.s7hwcfg.s7.UnresolvedReference;
+import org.feherdave.s7hwcfg.s7.hw.AddressLineScanner;
+import org.feherdave.s7hwcfg.s7.hw.HWComponent;
+import org.feherdave.s7hwcfg.s7.system.Address;
+import org.feherdave.s7hwcfg.s7.system.Subsystem;
+import org.feherdave.s7hwcfg.s7.hw.module.DPSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.Module;
+import org.feherdave.s7hwcfg.s7.hw.module.PNIOSubsystemMemberShip;
+import org.feherdave.s7hwcfg.s7.hw.module.SlotModule;
+import org.feherdave.s7hwcfg.s7.hw.rack.Rack;
+import org.feherdave.s7hwcfg.validation.DuplicateAddressRule;
+import org.feherdave.s7hwcfg.validation.Finding;
+import org.feherdave.s7hwcfg.validation.MissingSubsystemRule;
+import org.feherdave.s7hwcfg.validation.OrphanModuleRule;
+import org.feherdave.s7hwcfg.validation.StationValidator;
+import org.feherdave.s7hwcfg.validation.SubsystemWithoutMasterRule;
+import org.feherdave.s7hwcfg.validation.ValidationReport;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class S7HWCfgParserTest {
 
@@ -23,4 +104,1406 @@ public class S7HWCfgParserTest {
 
     }
 
+    @Test
+    public void testStationIndexes() throws Exception {
+        Station station = readSample().getStation();
+
+        assertEquals(2, station.getModulesByOrderNumber("6ES7 331-7KF02-0AB0").size());
+        assertEquals(2, station.getModulesByName("IM 153-1").size());
+        assertEquals(3, station.getModulesByVersion("V6.0").size());
+        assertTrue(station.getModulesByOrderNumber("6ES7 000-0AA00-0AA0").isEmpty());
+
+        assertEquals(1, station.getSubsystemMembers(1, DPSubsystemMemberShip.Role.MASTER).size());
+        assertEquals(2, station.getSubsystemMembers(1, DPSubsystemMemberShip.Role.SLAVE).size());
+        assertEquals(3, station.getSubsystemMembers(1).size());
+        assertEquals(1, station.getSubsystemMembers(100, PNIOSubsystemMemberShip.Role.CONTROLLER).size());
+
+        assertThrows(UnsupportedOperationException.class, () -> station.getModules().clear());
+    }
+
+    @Test
+    public void testSymbolTable() throws Exception {
+        SymbolTable symbolTable = readSample().getStation().getSymbolTable();
+
+        assertEquals(5, symbolTable.size());
+
+        int entry = symbolTable.indexOf(Address.Input().x(1, 1));
+        assertEquals("Winder_Ready", symbolTable.getName(entry));
+        assertEquals(entry, symbolTable.indexOf("Winder_Ready"));
+
+        assertEquals(Address.Input().w(514), symbolTable.getAddress(symbolTable.indexOf("Tension_Actual")));
+        assertEquals("Drive 12 run", symbolTable.getComment(symbolTable.indexOf("Winder_Run")));
+        assertEquals(4, symbolTable.findByPrefix("Winder_").length);
+        assertEquals(-1, symbolTable.indexOf("Unwinder_Start"));
+    }
+
+    @Test
+    public void testParameters() throws Exception {
+        Station station = readSample().getStation();
+
+        ByteBuffer parameters = ((HWComponent) station.getModulesByName("DI32xDC 24V").get(0)).getParameters();
+        assertEquals(6, parameters.remaining());
+        assertEquals((byte) 0xFF, parameters.get(5));
+        assertTrue(parameters.isReadOnly());
+
+        assertEquals(0, ((HWComponent) station.getModulesByName("IM 153-1").get(0)).getParameters().remaining());
+    }
+
+    @Test
+    public void testFreeze() throws Exception {
+        Station station = readSample().freeze().getStation();
+
+        assertTrue(station.isFrozen());
+        assertTrue(station.getRacks().get(0).isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> station.getRacks().clear());
+        assertThrows(UnsupportedOperationException.class, () -> station.getSubnets().get(1).getNodes().clear());
+        assertThrows(IllegalStateException.class, () -> station.getRacks().get(0).getSlots().get(5).putData("COMMENT", ""));
+        assertThrows(IllegalStateException.class, () -> station.getSubsystemRacks().get(0).addModule(9, null));
+        assertThrows(UnsupportedOperationException.class, () -> station.getModulesByName("IM 153-1").get(0).getModule(4)
+                .map(module -> ((HWComponent) module).getData()).orElseThrow().clear());
+    }
+
+    @Test
+    public void testMemoryFootprint() throws Exception {
+        Station station = readSample().freeze().getStation();
+        MemoryFootprint footprint = station.memoryFootprint();
+
+        assertEquals(1, footprint.getCount(MemoryFootprint.Kind.RACKS));
+        assertEquals(4, footprint.getCount(MemoryFootprint.Kind.SLOT_MODULES));
+        assertEquals(3, footprint.getCount(MemoryFootprint.Kind.SUBSYSTEM_RACKS));
+        assertEquals(5, footprint.getCount(MemoryFootprint.Kind.SYMBOLS));
+        assertTrue(footprint.getBytes(MemoryFootprint.Kind.STRINGS) > 0);
+        assertTrue(footprint.getBytes(MemoryFootprint.Kind.INDEXES) > 0);
+        assertEquals(footprint.getTotalBytes(), station.memoryFootprint().getTotalBytes());
+
+        MemoryFootprint rack = MemoryFootprint.of(station.getRacks().get(0));
+        assertEquals(0, rack.getCount(MemoryFootprint.Kind.SUBSYSTEM_RACKS));
+        assertTrue(rack.getTotalBytes() < footprint.getTotalBytes());
+    }
+
+    @Test
+    public void testSlotTable() throws Exception {
+        SlotTable<String> table = new SlotTable<>();
+        table.put(6, "DO");
+        table.put(1, "PS");
+        table.put(3, "CPU");
+
+        assertEquals(List.of(1, 3, 6), List.copyOf(table.keySet()));
+        assertEquals(List.of("PS", "CPU", "DO"), List.copyOf(table.values()));
+        assertEquals("CPU", table.get(3));
+        assertEquals("CPU", table.get(Integer.valueOf(3)));
+        assertNull(table.get(2));
+        assertNull(table.get(100));
+        assertEquals("PS", table.remove(1));
+        assertEquals(2, table.size());
+        assertThrows(IllegalArgumentException.class, () -> table.put(-1, "X"));
+
+        // Huge keys don't grow the array
+        table.put(Integer.MAX_VALUE, "IM");
+        table.put(SlotTable.DENSE_KEY_LIMIT, "CP");
+        assertEquals(List.of(3, 6, SlotTable.DENSE_KEY_LIMIT, Integer.MAX_VALUE), List.copyOf(table.keySet()));
+        assertEquals("IM", table.get(Integer.MAX_VALUE));
+        assertEquals(4, table.size());
+        assertEquals("CP", table.remove(SlotTable.DENSE_KEY_LIMIT));
+        assertEquals(1, table.sparseSize());
+
+        table.freeze();
+        assertEquals(7, table.capacity());
+        assertThrows(UnsupportedOperationException.class, () -> table.put(2, "X"));
+        assertThrows(UnsupportedOperationException.class, () -> table.values().clear());
+
+        Station station = readSample().getStation();
+        assertEquals(List.of(1, 3, 5, 6), List.copyOf(station.getRacks().get(0).getSlots().keySet()));
+        assertEquals("CPU 414-3 PN/DP", station.getRacks().get(0).getSlots().get(3).getName());
+    }
+
+    @Test
+    public void testHugeSlotAndAddressNumbers() throws Exception {
+        String content = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))
+                .replace("RACK 0, SLOT 6,", "RACK 0, SLOT 2147483647,")
+                .replace("DPADDRESS 3,", "DPADDRESS 2000000000,");
+        Path file = Files.createTempFile("sample-huge", ".cfg");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Files.writeString(file, content);
+            Station station = HWConfig.readFromFile(file.toFile()).freeze().getStation();
+
+            SlotTable<SlotModule> slots = station.getRacks().get(0).getSlots();
+            assertEquals(List.of(1, 3, 5, Integer.MAX_VALUE), List.copyOf(slots.keySet()));
+            assertEquals("DO32xDC 24V/0.5A", slots.get(Integer.MAX_VALUE).getName());
+            assertTrue(slots.capacity() <= SlotTable.DENSE_KEY_LIMIT);
+
+            Subsystem profibus = station.getSubnets().get(1);
+            assertEquals("IM 153-1", profibus.getNodes().get(2000000000).getName());
+            assertTrue(profibus.getNodes().capacity() <= SlotTable.DENSE_KEY_LIMIT);
+
+            StringWriter json = new StringWriter();
+            try (StationJsonWriter writer = new StationJsonWriter(json)) {
+                writer.write(station);
+            }
+            assertTrue(json.toString().contains("\"address\":2000000000"));
+
+            Project project = Project.readFromFiles(List.of(file.toFile()), executor);
+            assertEquals(1, project.getSubnet("PROFIBUS(1)", 1).orElseThrow().getMembers(2000000000).size());
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testQueriesFollowChangesOfUnfrozenStation() throws Exception {
+        Station station = readSample().getStation();
+        int moduleCount = station.getModules().size();
+        int nodeCount = station.getTopology().size();
+
+        assertEquals(1, station.getModulesByOrderNumber("6ES7 421-1BL01-0AA0").size());
+
+        station.getRacks().get(0).addModule(new SlotModule(0, 7, "6ES7 421-1BL01-0AA0", null, "DI32xDC 24V"));
+
+        assertEquals(moduleCount + 1, station.getModules().size());
+        assertEquals(2, station.getModulesByOrderNumber("6ES7 421-1BL01-0AA0").size());
+        assertEquals(2, station.getModulesByName("DI32xDC 24V").size());
+        assertEquals(nodeCount + 1, station.getTopology().size());
+
+        // Built once while freezing
+        station.freeze();
+        assertSame(station.getModules(), station.getModules());
+        assertSame(station.getTopology(), station.getTopology());
+        assertSame(station.getSymbolTable(), station.getSymbolTable());
+        assertEquals(moduleCount + 1, station.getModules().size());
+    }
+
+    @Test
+    public void testSubsystemTopology() throws Exception {
+        Station station = readSample().getStation();
+        SubsystemTopology topology = station.getTopology();
+        int cpu = topology.indexOf(station.getModulesByName("CPU 414-3 PN/DP").get(0));
+        int ai = topology.indexOf(station.getModulesByName("AI8x12Bit").get(0));
+        int dp = topology.indexOfSubsystem(1);
+
+        assertTrue(topology.isSubsystem(dp));
+        assertEquals(1, topology.getMasterCount(dp));
+        assertEquals(2, topology.getSlaveCount(dp));
+        assertEquals(2, topology.getMemberCount(topology.indexOfSubsystem(100)));
+
+        SubsystemTopology.Traversal traversal = topology.newTraversal().bfs(cpu, SubsystemTopology.Direction.DOWNSTREAM);
+        int reachable = 0;
+        while (traversal.hasNext()) {
+            traversal.nextInt();
+            reachable++;
+        }
+        assertEquals(12, reachable);
+
+        traversal.dfs(ai, SubsystemTopology.Direction.UPSTREAM);
+        assertEquals(ai, traversal.nextInt());
+
+        int[] path = topology.findPath(cpu, ai, SubsystemTopology.Direction.DOWNSTREAM);
+        assertEquals(5, path.length);
+        assertEquals("MPI/DP", topology.getModule(path[1]).getName());
+        assertEquals(dp, path[2]);
+        assertEquals("IM 153-1", topology.getModule(path[3]).getName());
+        assertArrayEquals(new int[] { ai, path[3], dp, path[1], cpu }, topology.findPath(ai, cpu, SubsystemTopology.Direction.UPSTREAM));
+        assertEquals(0, topology.findPath(ai, cpu, SubsystemTopology.Direction.DOWNSTREAM).length);
+
+        // Path queries with a traversal of the caller
+        assertArrayEquals(path, topology.findPath(cpu, ai, SubsystemTopology.Direction.DOWNSTREAM, traversal));
+        assertArrayEquals(path, topology.findPath(cpu, ai, SubsystemTopology.Direction.DOWNSTREAM, traversal));
+    }
+
+    @Test
+    public void testSubsystemTopologyDepthFirstWithMoreMasters() throws Exception {
+        // The PN-IO interface becomes a second master of PROFIBUS(1), which is reached from the CPU on two paths
+        String content = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))
+                .replace("CONTROLLER IOSUBSYSTEM 100, \"Ethernet(1): PROFINET-IO-System (100)\", IOADDRESS 0",
+                        "MASTER DPSUBSYSTEM 1, \"PROFIBUS(1)\", DPADDRESS 5");
+        Path file = Files.createTempFile("sample-masters", ".cfg");
+
+        try {
+            Files.writeString(file, content);
+            Station station = HWConfig.readFromFile(file.toFile()).getStation();
+            SubsystemTopology topology = station.getTopology();
+            int cpu = topology.indexOf(station.getModulesByName("CPU 414-3 PN/DP").get(0));
+            int dp = topology.indexOfSubsystem(1);
+
+            assertEquals(2, topology.getMasterCount(dp));
+
+            // Preorder: every node is visited right below its parent on the current path, and once
+            SubsystemTopology.Traversal traversal = topology.newTraversal().dfs(cpu, SubsystemTopology.Direction.DOWNSTREAM);
+            Deque<Integer> currentPath = new ArrayDeque<>();
+            Set<Integer> visited = new HashSet<>();
+
+            while (traversal.hasNext()) {
+                int node = traversal.nextInt();
+
+                while (!currentPath.isEmpty() && currentPath.peek() != traversal.parent(node)) {
+                    currentPath.pop();
+                }
+
+                assertEquals(node == cpu, currentPath.isEmpty());
+                assertEquals(currentPath.size(), traversal.depth(node));
+                assertTrue(visited.add(node));
+                currentPath.push(node);
+            }
+
+            assertEquals(9, visited.size());
+            assertTrue(visited.contains(dp));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testProjectSubnetMerge() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Project project = Project.readFromFiles(List.of(sample, sample), executor);
+
+            assertEquals(2, project.getStations().size());
+            assertEquals(2, project.getSubnets().size());
+
+            Project.Subnet profibus = project.getSubnet("PROFIBUS(1)", 1).orElseThrow();
+            assertEquals(2, profibus.getSubsystems().size());
+            assertEquals(6, profibus.getMembers().size());
+            assertEquals(6, project.getNodes("PROFIBUS(1)").size());
+            assertEquals(2, profibus.getMembers(3).size());
+            assertEquals(DPSubsystemMemberShip.Role.MASTER, profibus.getMembers(2).get(0).getRole());
+            assertNotSame(profibus.getMembers(3).get(0).getStation(), profibus.getMembers(3).get(1).getStation());
+            assertTrue(project.getSubnet("PROFIBUS(1)", 2).isEmpty());
+            assertTrue(project.getNodes("PROFIBUS(2)").isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncReadProgressAndCancellation() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger sectionsRead = new AtomicInteger();
+        AtomicLong bytesRead = new AtomicLong();
+        AtomicInteger sectionsParsed = new AtomicInteger();
+
+        try {
+            HWConfig hwConfig = HWConfig.readFromFileAsync(sample, executor, new STEP7HWCfgFileReadMonitor() {
+                @Override
+                public void sectionRead(long bytes, long fileSize, int sectionCount) {
+                    bytesRead.set(bytes);
+                    sectionsRead.set(sectionCount);
+                }
+
+                @Override
+                public void sectionParsed(int parsedCount, int sectionCount) {
+                    // Once per section
+                    assertEquals(sectionsParsed.incrementAndGet(), parsedCount);
+                }
+            }).get();
+
+            assertEquals("SIMATIC 400(1)", hwConfig.getStation().getStationName());
+            assertEquals(17, sectionsRead.get());
+            assertEquals(17, sectionsParsed.get());
+            assertEquals(sample.length(), bytesRead.get());
+
+            // Cancelled by the monitor after 5 parsed sections, no further section is handled
+            AtomicInteger parsedBeforeCancel = new AtomicInteger();
+            CompletableFuture<HWConfig> cancelled = HWConfig.readFromFileAsync(sample, executor, new STEP7HWCfgFileReadMonitor() {
+                @Override
+                public boolean isCancelled() {
+                    return parsedBeforeCancel.get() >= 5;
+                }
+
+                @Override
+                public void sectionParsed(int parsedCount, int sectionCount) {
+                    parsedBeforeCancel.set(parsedCount);
+                }
+            });
+
+            assertThrows(CancellationException.class, cancelled::join);
+            assertTrue(cancelled.isCancelled());
+            assertEquals(5, parsedBeforeCancel.get());
+
+            // Cancelled through the future while reading is blocked in the monitor
+            CountDownLatch reading = new CountDownLatch(1);
+            CountDownLatch resume = new CountDownLatch(1);
+            AtomicInteger readBeforeCancel = new AtomicInteger();
+            AtomicInteger parsedAfterCancel = new AtomicInteger();
+            CompletableFuture<HWConfig> future = HWConfig.readFromFileAsync(sample, executor, new STEP7HWCfgFileReadMonitor() {
+                @Override
+                public void sectionRead(long bytes, long fileSize, int sectionCount) {
+                    readBeforeCancel.set(sectionCount);
+
+                    if (sectionCount == 3) {
+                        reading.countDown();
+
+                        try {
+                            resume.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public void sectionParsed(int parsedCount, int sectionCount) {
+                    parsedAfterCancel.set(parsedCount);
+                }
+            });
+
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            assertTrue(future.cancel(true));
+            resume.countDown();
+            // The executor is single threaded, the read task has finished when this one runs
+            executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+
+            assertThrows(CancellationException.class, future::join);
+            assertEquals(3, readBeforeCancel.get());
+            assertEquals(0, parsedAfterCancel.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOffHeapReadMatchesSequentialRead() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        Path crlfSample = Files.createTempFile("sample-crlf", ".cfg");
+
+        Files.writeString(crlfSample, Files.readString(sample.toPath()).replace("\n", "\r\n"));
+
+        try {
+            for (File file : List.of(sample, crlfSample.toFile())) {
+                STEP7HWCfgFile sequential = new STEP7HWCfgFile(file);
+
+                for (boolean mapped : List.of(true, false)) {
+                    STEP7HWCfgFile offHeap = STEP7HWCfgFile.readOffHeap(file, mapped);
+
+                    assertEquals(sequential.getMetaData(), offHeap.getMetaData());
+                    assertEquals(sequential.getSections().size(), offHeap.getSections().size());
+
+                    for (int i = 0; i < sequential.getSections().size(); i++) {
+                        STEP7HWCfgFileSection expected = sequential.getSections().get(i);
+                        STEP7HWCfgFileSection actual = offHeap.getSections().get(i);
+
+                        assertEquals(expected.getSectionType(), actual.getSectionType());
+                        assertEquals(expected.getTitle(), actual.getTitle());
+                        assertEquals(expected.getHead(), actual.getHead());
+                        assertEquals(expected.getBody(), actual.getBody());
+                    }
+
+                    CharSequence end = offHeap.getSections().get(0).getRawBody().get(offHeap.getSections().get(0).getRawBody().size() - 1);
+                    assertTrue(end instanceof STEP7HWCfgFileTextView);
+                    assertEquals("END", end.toString());
+                    assertEquals("SIMATIC 400(1)", offHeap.parseSections().getStationName());
+                }
+            }
+        } finally {
+            Files.delete(crlfSample);
+        }
+    }
+
+    @Test
+    public void testStationRepositoryReload() throws Exception {
+        Path directory = Files.createTempDirectory("stations");
+        Path file = directory.resolve("winder.cfg");
+        Path sample = Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Files.copy(sample, file);
+
+        try (StationRepository repository = StationRepository.open(directory, executor, Duration.ofMillis(50))) {
+            Station first = repository.getStation(file).orElseThrow();
+            assertTrue(first.isFrozen());
+
+            Files.writeString(file, Files.readString(sample).replace("SIMATIC 400(1)", "SIMATIC 400(2)"));
+
+            long deadline = System.currentTimeMillis() + 30000;
+            while (repository.getStation(file).orElseThrow() == first && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertNotSame(first, repository.getStation(file).orElseThrow());
+            assertTrue(repository.getMetrics().getReloads() >= 2);
+
+            List<TextIndex.Hit> hits = repository.getTextIndex().search("SIMATIC 400(2)", 10);
+            assertEquals(1, hits.size());
+            assertSame(repository.getStation(file).orElseThrow(), hits.get(0).getElement());
+            assertEquals(1, repository.getTextIndex().search("simatic", 10).size());
+            assertTrue(repository.getLastFailure(file).isEmpty());
+
+            // Broken files keep the station, the error is kept for diagnosis
+            Station second = repository.getStation(file).orElseThrow();
+            Files.writeString(file, "garbage");
+
+            deadline = System.currentTimeMillis() + 30000;
+            while (repository.getLastFailure(file).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertTrue(repository.getLastFailure(file).orElseThrow() instanceof STEP7HWCfgFileFormatException);
+            assertTrue(repository.getMetrics().getFailedReloads() >= 1);
+            assertSame(second, repository.getStation(file).orElseThrow());
+
+            // Reloads rejected by the executor are recorded as failures and leave the queue
+            executor.shutdown();
+            Files.copy(sample, file, StandardCopyOption.REPLACE_EXISTING);
+
+            deadline = System.currentTimeMillis() + 30000;
+            while (!(repository.getLastFailure(file).orElseThrow() instanceof RejectedExecutionException) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertTrue(repository.getLastFailure(file).orElseThrow() instanceof RejectedExecutionException);
+            assertEquals(0, repository.getMetrics().getQueueDepth());
+            assertThrows(RejectedExecutionException.class, () -> StationRepository.open(directory, executor, Duration.ofMillis(50)));
+        } finally {
+            executor.shutdown();
+            deleteTree(directory);
+        }
+    }
+
+    @Test
+    public void testParallelReadMatchesSequentialRead() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        Path crlfSample = Files.createTempFile("sample-crlf", ".cfg");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        Files.writeString(crlfSample, Files.readString(sample.toPath()).replace("\n", "\r\n"));
+
+        try {
+            for (File file : List.of(sample, crlfSample.toFile())) {
+                STEP7HWCfgFile sequential = new STEP7HWCfgFile(file);
+                assertEquals(17, sequential.getSections().size());
+
+                for (int chunkSize : List.of(1, 64, 1000, 1 << 20)) {
+                    STEP7HWCfgFile parallel = STEP7HWCfgFile.readParallel(file, executor, chunkSize);
+
+                    assertEquals(sequential.getFileVersion(), parallel.getFileVersion());
+                    assertEquals(sequential.getMetaData(), parallel.getMetaData());
+                    assertEquals(sequential.getSections().size(), parallel.getSections().size());
+
+                    for (int i = 0; i < sequential.getSections().size(); i++) {
+                        STEP7HWCfgFileSection expected = sequential.getSections().get(i);
+                        STEP7HWCfgFileSection actual = parallel.getSections().get(i);
+
+                        assertEquals(expected.getSectionType(), actual.getSectionType());
+                        assertEquals(expected.getHead(), actual.getHead());
+                        assertEquals(expected.getBody(), actual.getBody());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+            Files.delete(crlfSample);
+        }
+    }
+
+    @Test
+    public void testEncodingDetection() throws Exception {
+        String content = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))
+                .replace("SIMATIC 400(1)", "Wickler S\u00fcd \u2013 Halle 3");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (Charset charset : List.of(Charset.forName("windows-1252"), StandardCharsets.UTF_16LE, StandardCharsets.UTF_16BE, StandardCharsets.UTF_8)) {
+                Path file = Files.createTempFile("sample-" + charset.name(), ".cfg");
+                byte[] bom = charset.equals(StandardCharsets.UTF_16LE) ? new byte[] { (byte) 0xFF, (byte) 0xFE }
+                        : charset.equals(StandardCharsets.UTF_8) ? new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF } : new byte[0];
+
+                try {
+                    Files.write(file, bom);
+                    Files.write(file, content.getBytes(charset), StandardOpenOption.APPEND);
+
+                    assertEquals(charset, new STEP7HWCfgFile(file.toFile()).getCharset());
+                    assertEquals("Wickler S\u00fcd \u2013 Halle 3", HWConfig.readFromFile(file.toFile()).getStation().getStationName());
+                    assertEquals("Wickler S\u00fcd \u2013 Halle 3", HWConfig.readFromFileParallel(file.toFile(), executor).getStation().getStationName());
+                    assertEquals("3.2", new STEP7HWCfgFile(file.toFile()).getFileVersion());
+                } finally {
+                    Files.delete(file);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStationValidation() throws Exception {
+        Station valid = readSample().getStation();
+        String content = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))
+                .replace("RACK 0, SLOT 6,", "RACK 1, SLOT 6,")
+                .replace(", DPADDRESS 2\n", ", DPADDRESS 3\n")
+                .replace("CONTROLLER IOSUBSYSTEM 100,", "CONTROLLER IOSUBSYSTEM 101,");
+        Path file = Files.createTempFile("sample-invalid", ".cfg");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Files.writeString(file, content);
+            Station invalid = HWConfig.readFromFile(file.toFile()).freeze().getStation();
+
+            assertEquals(2, invalid.getUnresolvedReferences().size());
+            assertFalse(invalid.getRacks().get(0).getSlots().containsKey(6));
+
+            StationValidator validator = StationValidator.withDefaultRules();
+
+            assertTrue(validator.validate(valid).getFindings().isEmpty());
+
+            ValidationReport report = validator.validate(List.of(valid, invalid, valid), executor);
+
+            assertEquals(3, report.count(Finding.Severity.ERROR));
+            assertEquals(1, report.count(Finding.Severity.WARNING));
+            assertTrue(report.hasErrors());
+            assertEquals(List.of(OrphanModuleRule.ID, MissingSubsystemRule.ID, DuplicateAddressRule.ID, SubsystemWithoutMasterRule.ID),
+                    report.getFindings().stream().map(Finding::getRuleId).collect(Collectors.toList()));
+            assertTrue(report.getFindings().stream().allMatch(finding -> finding.getStation() == invalid));
+            assertEquals("DO32xDC 24V/0.5A", ((Module) report.getFindings().get(0).getComponent()).getName());
+            assertEquals("PN-IO", ((Module) report.getFindings().get(1).getComponent()).getName());
+            assertEquals(UnresolvedReference.Kind.RACK, invalid.getUnresolvedReferences().get(0).getKind());
+            assertEquals(PNIOSubsystemMemberShip.Role.CONTROLLER, invalid.getUnresolvedReferences().get(1).getRole());
+            assertEquals("IM 153-1", ((Module) report.getFindings(Finding.Severity.ERROR).get(2).getComponent()).getName());
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDiagnosticsSink() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        String content = Files.readString(sample.toPath())
+                .replace("RACK 0, SLOT 6,", "RACK 1, SLOT 6,")
+                .replace("CONTROLLER IOSUBSYSTEM 100,", "CONTROLLER IOSUBSYSTEM 101,");
+        Path file = Files.createTempFile("sample-diagnostics", ".cfg");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Files.writeString(file, content);
+
+            // Line numbers of sections are the same whichever way the file is read
+            List<STEP7HWCfgFileSection> sections = new STEP7HWCfgFile(sample).getSections();
+
+            assertEquals(5, sections.get(0).getLineNumber());
+            assertEquals(65, sections.get(9).getLineNumber());
+
+            for (STEP7HWCfgFile other : List.of(STEP7HWCfgFile.readParallel(sample, executor, 256), STEP7HWCfgFile.readOffHeap(sample, true))) {
+                for (int i = 0; i < sections.size(); i++) {
+                    assertEquals(sections.get(i).getLineNumber(), other.getSections().get(i).getLineNumber());
+                }
+            }
+
+            STEP7HWCfgFileDiagnosticsSink.RingBuffer ringBuffer = new STEP7HWCfgFileDiagnosticsSink.RingBuffer(4);
+            HWConfig.readFromFile(file.toFile(), ringBuffer);
+
+            List<STEP7HWCfgFileDiagnosticsSink.Diagnostic> diagnostics = ringBuffer.getDiagnostics();
+
+            assertEquals(2, diagnostics.size());
+            assertEquals(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_RACK, diagnostics.get(0).getCode());
+            assertEquals("RACK 1, SLOT 6, \"6ES7 422-1BL00-0AA0\", \"DO32xDC 24V/0.5A\"", diagnostics.get(0).getSectionTitle());
+            assertEquals(65, diagnostics.get(0).getLineNumber());
+            assertEquals(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_SUBSYSTEM, diagnostics.get(1).getCode());
+            assertEquals(45, diagnostics.get(1).getLineNumber());
+
+            // Parallel and asynchronous reads report to the given sink as well
+            STEP7HWCfgFileDiagnosticsSink.Counter parallel = new STEP7HWCfgFileDiagnosticsSink.Counter();
+            STEP7HWCfgFileDiagnosticsSink.Counter async = new STEP7HWCfgFileDiagnosticsSink.Counter();
+
+            HWConfig.readFromFileParallel(file.toFile(), executor, parallel);
+            HWConfig.readFromFileAsync(file.toFile(), executor, STEP7HWCfgFileReadMonitor.NONE, async).get();
+
+            assertEquals(2, parallel.getTotalCount());
+            assertEquals(1, async.getCount(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_RACK));
+            assertEquals(2, async.getTotalCount());
+
+            // Older problems are dropped when the buffer is full
+            STEP7HWCfgFileDiagnosticsSink.RingBuffer small = new STEP7HWCfgFileDiagnosticsSink.RingBuffer(1);
+            STEP7HWCfgFileDiagnosticsSink.Counter counter = new STEP7HWCfgFileDiagnosticsSink.Counter();
+
+            Project.readFromFiles(List.of(file.toFile(), file.toFile(), sample), executor, (code, title, line) -> {
+                small.report(code, title, line);
+                counter.report(code, title, line);
+            });
+
+            assertEquals(4, small.getCount());
+            assertEquals(3, small.getDroppedCount());
+            assertEquals(1, small.getDiagnostics().size());
+            assertEquals(4, counter.getTotalCount());
+            assertEquals(2, counter.getCount(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_RACK));
+            assertEquals(0, counter.getCount(STEP7HWCfgFileDiagnosticsSink.Code.MISSING_SLOT));
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testAddressLineScannerMatchesRegex() throws Exception {
+        Pattern addressPattern = Pattern.compile("^\\s*ADDRESS\\s*(?<startByte>\\d+)\\s*,\\s*(?<startBit>\\d+)\\s*,\\s*(?<lengthByte>\\d+)\\s*,\\s*(?<lengthBit>\\d+)\\s*,\\s*(?<addressType1>\\d+)\\s*,\\s*(?<addressType2>\\d+)\\s*$");
+        List<String> lines = new ArrayList<>();
+
+        for (String line : Files.readAllLines(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))) {
+            if (line.contains("ADDRESS")) {
+                lines.add(line);
+            }
+        }
+
+        lines.addAll(List.of("ADDRESS 0,0,0,0,0,0", "ADDRESS0,1,2,3,4,5", " \tADDRESS  512 ,0 , 16,0,7,0 \r", "ADDRESS 1,2,3,4,5",
+                "ADDRESS 1,2,3,4,5,6,7", "ADDRESS 1,2,3,4,5,x", "ADDRESS 1,2,3,4,5,6x", "ADDRES 1,2,3,4,5,6", "address 1,2,3,4,5,6",
+                "ADDRESS -1,2,3,4,5,6", "ADDRESS 1;2,3,4,5,6", "ADDRESS \u0663,2,3,4,5,6", "ADDRESS\u00a01,2,3,4,5,6",
+                "ADDRESS 2147483647,0,1,0,1,0", "ADDRESS 2147483648,0,1,0,1,0", "ADDRESS 99999999999,0,1,0,1,x", "ADDRESS", ""));
+
+        // Random lines around the format
+        Random random = new Random(42);
+        String[] separators = { "", " ", "  ", "\t", "\f", "\u000B", " , ", ",", ";" };
+        int[] addressTypes = { 0, 1, 2, 3, 7, 8, 16, 25 };
+
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder line = new StringBuilder(random.nextInt(10) == 0 ? "ADRESS" : "ADDRESS");
+            int fieldCount = 5 + random.nextInt(3);
+
+            for (int field = 0; field < fieldCount; field++) {
+                line.append(field == 0 ? separators[random.nextInt(6)] : random.nextInt(20) == 0 ? separators[random.nextInt(separators.length)] : ",");
+                line.append(field == 4 || field == 5 ? addressTypes[random.nextInt(addressTypes.length)] : random.nextInt(field == 1 ? 10 : 70000));
+            }
+
+            lines.add(random.nextInt(5) == 0 ? " " + line + "\t" : line.toString());
+        }
+
+        AddressLineScanner scanner = new AddressLineScanner();
+        int matched = 0;
+
+        for (String line : lines) {
+            Matcher m = addressPattern.matcher(line);
+            boolean regexMatches = m.matches();
+            Address[] expected = null;
+            boolean expectOverflow = false;
+
+            if (regexMatches) {
+                try {
+                    expected = legacyAddressArea(Integer.parseInt(m.group("startByte")), Integer.parseInt(m.group("startBit")),
+                            Integer.parseInt(m.group("lengthByte")), Integer.parseInt(m.group("addressType1")), Integer.parseInt(m.group("addressType2")));
+                } catch (NumberFormatException e) {
+                    expectOverflow = true;
+                }
+            }
+
+            if (expectOverflow) {
+                assertThrows(NumberFormatException.class, () -> scanner.scan(line), line);
+                continue;
+            }
+
+            assertEquals(regexMatches, scanner.scan(line), line);
+
+            if (regexMatches && scanner.isPackable()) {
+                Address output = Address.unpack(scanner.packedStartAddress(false));
+
+                assertEquals(expected[0], Address.unpack(scanner.packedStartAddress(true)), line);
+                assertEquals(Address.AddressType.OUTPUT, output.getAddressType(), line);
+                assertEquals(expected[0].getAddressDataType(), output.getAddressDataType(), line);
+                assertEquals(expected[0].getAddressByte(), output.getAddressByte(), line);
+                assertEquals(expected[0].getAddressBit(), output.getAddressBit(), line);
+
+                assertEquals(expected[1], Address.unpack(scanner.packedAreaLength()), line);
+                matched++;
+            }
+        }
+
+        assertTrue(matched > 1000);
+
+        // Address areas of the sample still come out as before
+        HWComponent ai = (HWComponent) readSample().getStation().getModulesByName("AI8x12Bit").get(0);
+        assertEquals(Address.Input().w(512), ai.getAddressAreas().get("input").get(0).startAddress);
+        assertEquals(Address.Plain().b(16), ai.getAddressAreas().get("input").get(0).areaLength);
+    }
+
+    /**
+     * Maps the numbers of an ADDRESS line to the start (input) and length of an area, as the parser did with the regex.
+     */
+    private static Address[] legacyAddressArea(Integer startByte, Integer startBit, Integer areaLength, Integer addressType1, Integer addressType2) {
+        Address startAddress;
+        // Type 0 with sub type 16 is a bit area, its length is a bit count
+        Address addrAreaLength = addressType1 == 0 && addressType2 == 16 ? Address.Plain().x(areaLength, 0) : Address.Plain().b(areaLength);
+
+        switch (addressType1) {
+            case 0:
+            case 1:
+            case 2:
+                startAddress = Address.Input().b(startByte);
+                break;
+            case 7:
+            case 8:
+                startAddress = Address.Input().w(startByte);
+                break;
+            default:
+                startAddress = Address.Input().x(startByte, startBit);
+        }
+
+        return new Address[] { startAddress, addrAreaLength };
+    }
+
+    @Test
+    public void testReadHeader() throws Exception {
+        File sample = new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI());
+        STEP7HWCfgFile full = new STEP7HWCfgFile(sample);
+        STEP7HWCfgFileHeader header = STEP7HWCfgFile.readHeader(sample);
+
+        assertEquals("3.2", header.getFileVersion());
+        assertEquals(full.getMetaData(), header.getMetaData());
+        assertEquals(full.getFileFormat(), header.getFileFormat());
+        assertEquals(full.getCharset(), header.getCharset());
+        assertEquals(Station.StationType.S7_400, header.getStationType());
+        assertEquals("SIMATIC 400(1)", header.getStationName());
+
+        // Only the beginning of a large file is read, the rest is not even checked
+        String content = Files.readString(sample.toPath());
+        Path large = Files.createTempFile("sample-large", ".cfg");
+
+        try {
+            for (Charset charset : List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE)) {
+                Files.write(large, (content + "RACK 9, \"broken\"\n".repeat(100_000)).getBytes(charset));
+
+                STEP7HWCfgFileHeader largeHeader = STEP7HWCfgFile.readHeader(large.toFile());
+
+                assertEquals("SIMATIC 400(1)", largeHeader.getStationName());
+                assertEquals(full.getMetaData(), largeHeader.getMetaData());
+                assertTrue(largeHeader.getBytesRead() <= 32 * 1024, "Bytes read: " + largeHeader.getBytesRead());
+                assertThrows(STEP7HWCfgFileFormatException.class, () -> new STEP7HWCfgFile(large.toFile()));
+            }
+        } finally {
+            Files.delete(large);
+        }
+    }
+
+    @Test
+    public void testOrderNumberIndexAndCatalog() throws Exception {
+        Station station = readSample().getStation();
+        Station other = readSample().getStation();
+        OrderNumberIndex index = OrderNumberIndex.of(station);
+
+        assertEquals(station.getModules().size(), index.countModules(""));
+        assertEquals(2, index.countModules("6ES7 331"));
+        assertEquals(List.of("6ES7331-7KF02-0AB0"), index.findOrderNumbers("6es7 33"));
+        assertTrue(index.findModules("6ES7 33").stream().allMatch(module -> module.getName().equals("AI8x12Bit")));
+        assertEquals(3, index.findModules("6ES7414-3EM07").size());
+        assertEquals(index.findModules("6ES74").size(), index.countModules("6 E S 7 4"));
+        assertTrue(index.findModules("6ES7 9").isEmpty());
+        assertTrue(index.findOrderNumbers("6ES7 331-7KF02-0AB0X").isEmpty());
+
+        for (Module module : station.getModules()) {
+            assertTrue(index.findModules(module.getOrderNumber()).contains(module));
+            assertSame(station, index.getStation(module));
+        }
+
+        // Several stations
+        OrderNumberIndex fleet = OrderNumberIndex.of(List.of(station, other));
+        Module otherAi = other.getModulesByName("AI8x12Bit").get(0);
+
+        assertEquals(4, fleet.countModules("6ES7 331"));
+        assertSame(other, fleet.getStation(otherAi));
+        assertEquals(index.getOrderNumberCount(), fleet.getOrderNumberCount());
+        assertEquals(index.getNodeCount(), fleet.getNodeCount());
+
+        // Catalog
+        Path text = Files.createTempFile("catalog", ".txt");
+        Path compiled = Files.createTempFile("catalog", ".bin");
+
+        try {
+            Files.writeString(text, "# Order number;description;input bytes;output bytes\n" +
+                    "6ES7 331-7KF02-0AB0;SM 331; AI 8x12Bit;16;0\n" +
+                    "\n" +
+                    "6ES7 321-1BL00-0AA0;SM 321 DI 32xDC24V;4;0\n" +
+                    "6ES7 322-1BL00-0AA0;SM 322 DO 32xDC24V/0.5A;0;4\n" +
+                    "6ES7 321-1BL00-0AA0;SM 321 DI 32xDC 24V;4;0\n");
+            ModuleCatalog.compile(text, compiled);
+
+            ModuleCatalog catalog = ModuleCatalog.open(compiled);
+
+            assertEquals(3, catalog.size());
+            assertEquals(new ModuleCatalog.Entry("6ES7 331-7KF02-0AB0", "SM 331; AI 8x12Bit", 16, 0), catalog.lookup("6es7331-7kf02-0ab0").get());
+            assertEquals("SM 321 DI 32xDC 24V", catalog.lookup("6ES7 321-1BL00-0AA0").get().getDescription());
+            assertTrue(catalog.lookup("6ES7 331").isEmpty());
+            assertEquals(-1, catalog.indexOf("6ES7 999-0AA00-0AA0"));
+
+            OrderNumberIndex enriched = index.withCatalog(catalog);
+            Module ai = station.getModulesByName("AI8x12Bit").get(0);
+            Module di = station.getModulesByName("DI32xDC24V").get(0);
+
+            assertEquals(16, enriched.getCatalogEntry(ai).get().getInputBytes());
+            assertEquals(4, enriched.getCatalogEntry(di).get().getInputBytes());
+            assertEquals(16, enriched.getCatalogEntry("6ES7 331-7KF02-0AB0").get().getInputBytes());
+            assertTrue(enriched.getCatalogEntry("6ES7 331").isEmpty());
+            assertTrue(enriched.getCatalogEntry(station.getModulesByName("PS 407 10A").get(0)).isEmpty());
+            assertTrue(index.getCatalogEntry(ai).isEmpty());
+
+            // Corrupt entry counts: negative, overflowing into the buffer (20 * count wraps to 4), beyond the buffer
+            byte[] catalogBytes = Files.readAllBytes(compiled);
+
+            for (int count : new int[] { -1, 0x0CCCCCCD, catalogBytes.length / 20 + 1 }) {
+                ByteBuffer.wrap(catalogBytes).putInt(8, count);
+                Files.write(text, catalogBytes);
+                assertThrows(IOException.class, () -> ModuleCatalog.open(text), Integer.toString(count));
+            }
+
+            Files.writeString(text, "6ES7 331-7KF02-0AB0;SM 331;x;0\n");
+            assertThrows(IOException.class, () -> ModuleCatalog.compile(text, compiled));
+            assertThrows(IOException.class, () -> ModuleCatalog.open(text));
+        } finally {
+            Files.delete(text);
+            // Mapped files can't be deleted on every platform
+            compiled.toFile().deleteOnExit();
+        }
+    }
+
+    @Test
+    public void testTextIndex() throws Exception {
+        Station station = readSample().freeze().getStation();
+        Station other = readSample().freeze().getStation();
+        TextIndex index = new TextIndex();
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(readSample().getStation()));
+
+        index.add(station);
+        int elementCount = index.getElementCount();
+
+        // Station, rack, subnets and modules
+        assertEquals(1 + station.getRacks().size() + station.getSubnets().size() + station.getModules().size(), elementCount);
+
+        // Data values
+        List<TextIndex.Hit> hits = index.search("drive 12", 10);
+        assertEquals(2, hits.size());
+        assertEquals(Set.of("DO32xDC 24V/0.5A", "IM151-3PN"),
+                hits.stream().map(hit -> ((Module) hit.getElement()).getName()).collect(Collectors.toSet()));
+        assertSame(station, hits.get(0).getStation());
+
+        assertSame(station, index.search("station-001", 10).get(0).getElement());
+        assertSame(station.getSubnets().get(1), index.search("Field BUS", 10).get(0).getElement());
+        assertEquals(2, index.search("tension", 10).size());
+        assertEquals(1, index.search("tension", 1).size());
+
+        // Short texts rank above long ones
+        assertEquals("IM151-3PN", ((Module) hits.get(0).getElement()).getName());
+        hits = index.search("winder", 10);
+        assertEquals(5, hits.size());
+        assertSame(station.getSubnets().get(1), hits.get(0).getElement());
+        assertSame(station, hits.get(3).getElement());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+
+        // All tokens must match
+        assertTrue(index.search("winder tension", 10).isEmpty());
+        assertTrue(index.search("unknown", 10).isEmpty());
+        assertTrue(index.search(" -/ ", 10).isEmpty());
+
+        // Incremental updates
+        index.add(other);
+        index.add(other);
+        assertEquals(2 * elementCount, index.getElementCount());
+        assertEquals(4, index.search("drive 12", 10).size());
+
+        index.remove(station);
+        assertFalse(index.contains(station));
+        assertEquals(elementCount, index.getElementCount());
+        assertTrue(index.search("drive 12", 10).stream().allMatch(hit -> hit.getStation() == other));
+
+        index.replace(other, station);
+        assertTrue(index.search("drive 12", 10).stream().allMatch(hit -> hit.getStation() == station));
+        assertEquals(elementCount, index.getElementCount());
+    }
+
+    @Test
+    public void testFingerprints() throws Exception {
+        String text = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()));
+        Station station = readSample().freeze().getStation();
+        Station unfrozen = readSample().getStation();
+
+        // Stable across reads, the same for frozen and unfrozen stations
+        assertEquals(station.getFingerprint(), unfrozen.getFingerprint());
+        assertEquals(station.getFingerprint(), readSample().freeze().getStation().getFingerprint());
+        assertTrue(FingerprintDiff.compare(station, unfrozen).isEmpty());
+        assertEquals(1, FingerprintDiff.compare(station, unfrozen).getComparedCount());
+
+        HWComponent ai = station.getSubsystemRacks().get(0).getModules().get(4);
+        assertNotEquals(ai.getFingerprint(), station.getSubsystemRacks().get(1).getModules().get(4).getFingerprint());
+
+        // Changed comment of a slave module
+        Station changed = readString(text.replaceFirst("COMMENT \"Tension\"", "COMMENT \"Tension 2\"")).getStation();
+        FingerprintDiff diff = FingerprintDiff.compare(station, changed);
+
+        assertNotEquals(station.getFingerprint(), changed.getFingerprint());
+        assertEquals(station.getRacks().get(0).getFingerprint(), changed.getRacks().get(0).getFingerprint());
+        assertEquals(1, diff.getChanges().size());
+        assertEquals(FingerprintDiff.Kind.CHANGED, diff.getChanges().get(0).getKind());
+        assertEquals(List.of("SUBNET 1, ADDRESS 3", "SLOT 4"), diff.getChanges().get(0).getPath());
+        assertSame(ai, diff.getChanges().get(0).getOldElement());
+        assertTrue(diff.getComparedCount() < station.getModules().size());
+
+        // Changed order number of a rack module
+        changed = readString(text.replace("RACK 0, SLOT 6, \"6ES7 422-1BL00-0AA0\"", "RACK 0, SLOT 6, \"6ES7 422-1BL00-0AA1\"")).getStation();
+        diff = FingerprintDiff.compare(station, changed);
+        assertEquals(List.of("RACK 0 / SLOT 6"), diff.getChanges().stream().map(change -> String.join(" / ", change.getPath())).collect(Collectors.toList()));
+
+        // Removed slave
+        int slave = text.indexOf("DPSUBSYSTEM 1, DPADDRESS 4");
+        int end = text.indexOf("IOSUBSYSTEM 100, IOADDRESS 1");
+        changed = readString(text.substring(0, slave) + text.substring(end)).getStation();
+        diff = FingerprintDiff.compare(station, changed);
+
+        assertEquals(List.of("CHANGED SUBNET 1", "REMOVED SUBNET 1, ADDRESS 4"),
+                diff.getChanges().stream().map(Object::toString).collect(Collectors.toList()));
+        assertNull(diff.getChanges().get(1).getNewElement());
+        assertEquals(List.of("ADDED SUBNET 1, ADDRESS 4"),
+                FingerprintDiff.compare(changed, station).getChanges().stream()
+                        .filter(change -> change.getKind() != FingerprintDiff.Kind.CHANGED)
+                        .map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testDeduplication() throws Exception {
+        Station plain = readSample().freeze().getStation();
+        Deduplicator deduplicator = new Deduplicator();
+        Station station = readSample().freeze(deduplicator).getStation();
+        Station other = readSample().getStation().freeze(deduplicator);
+
+        HWComponent ai3 = station.getSubsystemRacks().get(0).getModules().get(4);
+        HWComponent ai4 = station.getSubsystemRacks().get(1).getModules().get(4);
+
+        // Equal payloads are shared, per-instance fields are kept
+        assertSame(ai3.getData(), ai4.getData());
+        assertSame(ai3.getData(), other.getSubsystemRacks().get(0).getModules().get(4).getData());
+        assertSame(((Module) ai3).getOrderNumber(), ((Module) ai4).getOrderNumber());
+        assertNotEquals(ai3.getAddressAreas(), ai4.getAddressAreas());
+        assertEquals(1, ai3.getSymbols().size());
+        assertTrue(ai4.getSymbols().isEmpty());
+        assertSame(ai3.getAddressAreas(), other.getSubsystemRacks().get(0).getModules().get(4).getAddressAreas());
+        assertEquals(3, station.getSubsystemRacks().get(0).getModules().get(4).getAddress());
+        assertEquals(4, station.getSubsystemRacks().get(1).getModules().get(4).getAddress());
+        assertNotSame(station.getSubsystemRacks().get(0).getSubsystemMemberShip(), station.getSubsystemRacks().get(1).getSubsystemMemberShip());
+
+        // Same content
+        assertEquals(plain.getFingerprint(), station.getFingerprint());
+        assertEquals(plain.getFingerprint(), other.getFingerprint());
+        assertEquals(List.copyOf(plain.getData().entrySet()), List.copyOf(station.getData().entrySet()));
+        assertTrue(station.getModules().stream().allMatch(module -> ((HWComponent) module).isFrozen()));
+        assertThrows(UnsupportedOperationException.class, () -> ai3.getData().put("COMMENT", ""));
+
+        // Only the first station pays for the payloads
+        assertTrue(other.memoryFootprint().getBytes(MemoryFootprint.Kind.STRINGS) < plain.memoryFootprint().getBytes(MemoryFootprint.Kind.STRINGS));
+        assertTrue(deduplicator.getSharedCount() > 0);
+
+        // Frozen stations are not changed
+        long sharedCount = deduplicator.getSharedCount();
+        plain.freeze(deduplicator);
+        assertEquals(sharedCount, deduplicator.getSharedCount());
+    }
+
+    @Test
+    public void testStationBinaryWriter() throws Exception {
+        Station station = readSample().freeze().getStation();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (StationBinaryWriter writer = new StationBinaryWriter(bytes)) {
+            writer.write(station);
+            writer.write(station);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(StationBinaryWriter.MAGIC, in.readInt());
+        assertEquals(StationBinaryWriter.VERSION, in.readInt());
+
+        // First string of the snapshot: index 0, length, bytes
+        byte[] name = station.getStationName().getBytes(StandardCharsets.UTF_8);
+        assertEquals(0, in.readInt());
+        assertEquals(name.length, in.readInt());
+        assertArrayEquals(name, in.readNBytes(name.length));
+
+        // Repeated strings are written as indexes, so the second record is smaller
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        try (StationBinaryWriter writer = new StationBinaryWriter(single)) {
+            writer.write(readSample().freeze().getStation());
+        }
+        int recordSize = single.size() - 8;
+        assertTrue(bytes.size() - single.size() < recordSize);
+    }
+
+    @Test
+    public void testSectionHandlers() throws Exception {
+        // Keys and types come from one scan of the title
+        STEP7HWCfgFileSection slot = new STEP7HWCfgFileSection(List.of("DPSUBSYSTEM 1, DPADDRESS 3, SLOT 4, \"6ES7 331-7KF02-0AB0\", \"AI8x12Bit\"", "BEGIN", "END"));
+        assertEquals("DPSUBSYSTEM,DPADDRESS,SLOT", slot.getKey());
+        assertEquals(STEP7HWCfgFileSection.SectionType.DPSUBSYS_DPADDR_SLOT, slot.getSectionType());
+        assertEquals("RACK", new STEP7HWCfgFileSection(List.of("RACK 0, \"6ES7, SLOT 4\", \"UR2\"")).getKey());
+        assertEquals("STATION", new STEP7HWCfgFileSection(List.of("STATION S7400 , \"SIMATIC 400(1)\"")).getKey());
+        assertNull(new STEP7HWCfgFileSection(List.of("\"RACK 0\"")).getKey());
+        assertEquals(STEP7HWCfgFileSection.SectionType.UNKNOWN, new STEP7HWCfgFileSection(List.of("NOTE 1, RACK 0, \"x\"")).getSectionType());
+
+        // MPI subnets are parsed by a built-in handler, unknown sections are skipped
+        String content = Files.readString(Path.of(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()))
+                .replace("RACK 0, \"6ES7 400-1JA01-0AA0\"",
+                        "NOTE 1, RACK 0, \"Spare slots\"\nBEGIN\n  COMMENT \"Slot 7\"\nEND\n\n" +
+                        "MPISUBSYSTEM 2, \"MPI(1)\"\nBEGIN\n  COMMENT \"Panel bus\"\nEND\n\n" +
+                        "RACK 0, \"6ES7 400-1JA01-0AA0\"");
+        Station station = readString(content).getStation();
+        Subsystem mpi = station.getSubnets().get(2);
+        assertEquals(Subsystem.SubnetType.MPI, mpi.getSubnetType());
+        assertEquals("MPI(1)", mpi.getName());
+        assertEquals("Panel bus", mpi.getData().get("COMMENT"));
+        assertEquals(3, station.getSubnets().size());
+
+        // Custom handlers run in their phase, after the racks they refer to
+        List<String> notes = new ArrayList<>();
+        STEP7HWCfgFileSectionHandler noteHandler = new STEP7HWCfgFileSectionHandler() {
+            @Override
+            public String getKeyword() {
+                return "NOTE";
+            }
+
+            @Override
+            public List<String> getQualifiers() {
+                return List.of("RACK");
+            }
+
+            @Override
+            public Phase getPhase() {
+                return Phase.FINAL;
+            }
+
+            @Override
+            public void handle(STEP7HWCfgFileSection section, STEP7HWCfgFileSectionContext context) {
+                notes.add(context.getStationBuilder().getRacks().get(0).getRackName() + ": " + section.getBody());
+            }
+        };
+
+        Path file = Files.createTempFile("station", ".cfg");
+        try {
+            Files.writeString(file, content);
+            STEP7HWCfgFile cfgFile = new STEP7HWCfgFile(file.toFile());
+            cfgFile.setSectionHandlers(STEP7HWCfgFileSectionHandlers.defaults().register(noteHandler));
+            assertEquals(station.getFingerprint(), cfgFile.parseSections().getFingerprint());
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(List.of("UR2: [BEGIN, COMMENT \"Slot 7\", END]"), notes);
+        assertEquals(11, STEP7HWCfgFileSectionHandlers.builtIn().getHandlers().size());
+    }
+
+    @Test
+    public void testEmptyModuleVersion() throws Exception {
+        // RACK 0, SLOT 1, "6ES7 407-0KA02-0AA0" "", "PS 407 10A"
+        SlotModule ps = readSample().getStation().getRacks().get(0).getSlots().get(1);
+        assertEquals("6ES7 407-0KA02-0AA0", ps.getOrderNumber());
+        assertEquals("", ps.getVersion());
+        assertEquals("PS 407 10A", ps.getName());
+
+        for (String regex : List.of(STEP7HWCfgFileSection.SECTHEAD_REGEXP_DPSUBSYS_DPADDR, STEP7HWCfgFileSection.SECTHEAD_REGEXP_IOSUBSYS_IOADDR)) {
+            Matcher m = Pattern.compile(regex).matcher(regex.contains("DPSUBSYSTEM")
+                    ? "DPSUBSYSTEM 1, DPADDRESS 3, \"6ES7 153-1AA03-0XB0\" \"\", \"IM 153-1\""
+                    : "IOSUBSYSTEM 100, IOADDRESS 1, \"6ES7 153-1AA03-0XB0\" \"\", \"IM 153-1\"");
+            assertTrue(m.matches());
+            assertEquals("6ES7 153-1AA03-0XB0", m.group("orderNumber"));
+            assertEquals("", m.group("version"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStationJsonWriter() throws Exception {
+        StringWriter json = new StringWriter();
+
+        try (StationJsonWriter writer = new StationJsonWriter(json)) {
+            writer.write(readSample().getStation());
+        }
+
+        Map<String, Object> station = (Map<String, Object>) Json.parse(json.toString());
+        assertEquals("SIMATIC 400(1)", station.get("name"));
+        assertEquals("S7_400", station.get("type"));
+        assertEquals(Map.of("ASSET_ID", "STATION-001", "COMMENT", "Winder line 1"), station.get("data"));
+
+        // Racks, slots and subslots
+        List<Object> racks = (List<Object>) station.get("racks");
+        assertEquals(1, racks.size());
+        List<Map<String, Object>> slots = (List<Map<String, Object>>) ((Map<String, Object>) racks.get(0)).get("slots");
+        assertEquals(List.of(1L, 3L, 5L, 6L), slots.stream().map(slot -> slot.get("slot")).collect(Collectors.toList()));
+        assertEquals("6ES7 407-0KA02-0AA0", slots.get(0).get("orderNumber"));
+        assertEquals("", slots.get(0).get("version"));
+        assertNull(slots.get(2).get("version"));
+        assertEquals(List.of(1L, 5L), ((List<Map<String, Object>>) slots.get(1).get("subModules")).stream().map(sub -> sub.get("subslot")).collect(Collectors.toList()));
+        assertEquals(3, ((List<Object>) slots.get(2).get("symbols")).size());
+        Map<String, Object> symbol = ((List<Map<String, Object>>) slots.get(3).get("symbols")).get(0);
+        assertEquals("Winder_Run", symbol.get("name"));
+        assertEquals("Drive 12 run", symbol.get("comment"));
+
+        // Subnets with their nodes
+        List<Map<String, Object>> subnets = (List<Map<String, Object>>) station.get("subnets");
+        assertEquals(List.of("PROFIBUS_DP", "PROFINET"), subnets.stream().map(subnet -> subnet.get("type")).collect(Collectors.toList()));
+        assertEquals(List.of(2L, 3L, 4L), ((List<Map<String, Object>>) subnets.get(0).get("nodes")).stream().map(node -> node.get("address")).collect(Collectors.toList()));
+
+        // Subsystem racks, their modules and address areas
+        List<Map<String, Object>> subsystemRacks = (List<Map<String, Object>>) station.get("subsystemRacks");
+        assertEquals(3, subsystemRacks.size());
+        Map<String, Object> slave = subsystemRacks.get(0);
+        assertEquals(3L, slave.get("address"));
+        assertEquals(Map.of("subsystem", 1L, "address", 3L, "role", "SLAVE"), slave.get("subsystemMemberShip"));
+        assertEquals("DEVICE", ((Map<String, Object>) subsystemRacks.get(2).get("subsystemMemberShip")).get("role"));
+
+        Map<String, Object> ai = ((List<Map<String, Object>>) slave.get("modules")).get(0);
+        assertEquals(4L, ai.get("slot"));
+        assertEquals("AI8x12Bit", ai.get("name"));
+        List<Map<String, Object>> inputs = (List<Map<String, Object>>) ((Map<String, Object>) ai.get("addressAreas")).get("input");
+        assertEquals(Map.of("area", "INPUT", "type", "WORD", "byte", 512L), inputs.get(0).get("start"));
+        assertEquals(Map.of("area", "PLAIN", "type", "BYTE", "byte", 16L), inputs.get(0).get("length"));
+        Map<String, Object> bitLength = (Map<String, Object>) ((List<Map<String, Object>>) ((Map<String, Object>) ((List<Map<String, Object>>) subsystemRacks.get(2).get("modules")).get(0).get("addressAreas")).get("input")).get(0).get("length");
+        assertEquals(0L, bitLength.get("bit"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStationJsonWriterSections() throws Exception {
+        // Raw sections of the sample
+        StringWriter json = new StringWriter();
+        STEP7HWCfgFile file = new STEP7HWCfgFile(new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()));
+
+        try (StationJsonWriter writer = new StationJsonWriter(json)) {
+            writer.writeSections(file.getSections());
+        }
+
+        List<Map<String, Object>> sections = (List<Map<String, Object>>) Json.parse(json.toString());
+        assertEquals(17, sections.size());
+        assertEquals("STATION", sections.get(0).get("type"));
+        assertEquals("STATION S7400 , \"SIMATIC 400(1)\"", sections.get(0).get("title"));
+        assertEquals(List.of("BEGIN", "ASSET_ID \"STATION-001\"", "COMMENT \"Winder line 1\"", "END"), sections.get(0).get("body"));
+        Map<String, Object> master = sections.stream().filter(section -> "RACK_SLOT_SUBSLOT".equals(section.get("type"))).findFirst().orElseThrow();
+        assertEquals(List.of("MASTER DPSUBSYSTEM 1, \"PROFIBUS(1)\", DPADDRESS 2"), master.get("headOptions"));
+
+        // Escaping of quotes, backslashes, control characters; non-ASCII text is written as it is
+        String text = "Say \"hi\" C:\\plant\\line\ttab\nnew\rline \u0001\u001f\u007f S\u00fcd \u2013 Halle \ud83d\ude00";
+        json = new StringWriter();
+
+        try (StationJsonWriter writer = new StationJsonWriter(json)) {
+            writer.writeSections(List.of(new STEP7HWCfgFileSection(List.of("RACK 0, \"" + text + "\"", "BEGIN", text, "END"))));
+        }
+
+        assertTrue(json.toString().contains("Say \\\"hi\\\" C:\\\\plant\\\\line\\ttab\\nnew\\rline \\u0001\\u001f\u007f S\u00fcd \u2013 Halle \ud83d\ude00"), json.toString());
+        Map<String, Object> section = ((List<Map<String, Object>>) Json.parse(json.toString())).get(0);
+        assertEquals("RACK 0, \"" + text + "\"", section.get("title"));
+        assertEquals(List.of("BEGIN", text, "END"), section.get("body"));
+
+        // Output larger than the buffer, with strings longer than the buffer, is written intact to streams
+        List<STEP7HWCfgFileSection> large = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            large.add(new STEP7HWCfgFileSection(List.of("RACK " + i + ", \"R\"", "BEGIN", ("\u00e9\"" + i).repeat((i + 1) * 20), "END")));
+        }
+
+        StringWriter expected = new StringWriter();
+        try (StationJsonWriter writer = new StationJsonWriter(expected)) {
+            writer.writeSections(large);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (StationJsonWriter writer = new StationJsonWriter(bytes)) {
+            writer.writeSections(large);
+        }
+
+        assertTrue(bytes.size() > 8192 * 10);
+        assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8));
+        List<Map<String, Object>> parsed = (List<Map<String, Object>>) Json.parse(expected.toString());
+        assertEquals(300, parsed.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(List.of("BEGIN", ("\u00e9\"" + i).repeat((i + 1) * 20), "END"), parsed.get(i).get("body"));
+        }
+    }
+
+    @Test
+    public void testStationTableExporter() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Tables of the sample
+            String[] tables = exportTables(new StationTableExporter(StationTableExporter.Format.CSV, executor, 1), List.of(readSample().getStation()));
+            List<String> modules = tables[0].lines().collect(Collectors.toList());
+            List<String> addressAreas = tables[1].lines().collect(Collectors.toList());
+
+            assertEquals(String.join(",", StationTableExporter.MODULE_COLUMNS), modules.get(0));
+            assertEquals(String.join(",", StationTableExporter.ADDRESS_AREA_COLUMNS), addressAreas.get(0));
+            // Rack, 4 slot modules, 2 subslot modules, 3 subsystem racks, 4 subsystem rack modules
+            assertEquals(1 + 14, modules.size());
+            assertEquals("SIMATIC 400(1),SLOT_MODULE,0,,,1,,6ES7 407-0KA02-0AA0,,PS 407 10A", modules.get(2));
+            assertEquals("SIMATIC 400(1),SUBSYSTEM_RACK_SLOT_MODULE,,1,3,4,,6ES7 331-7KF02-0AB0,,AI8x12Bit", modules.get(9));
+            // Slot 5, slot 6 and the 4 subsystem rack modules have one address area each
+            assertEquals(1 + 6, addressAreas.size());
+            assertEquals("SIMATIC 400(1),SUBSYSTEM_RACK_SLOT_MODULE,,1,3,4,,input,INPUT,WORD,512,,BYTE,16", addressAreas.get(3));
+
+            // CSV quoting and TSV cleaning of separators, quotes and line breaks
+            StationBuilder builder = Station.builder().name("Line \"1\", hall\nB\tC").type(Station.StationType.S7_300);
+            Rack rack = new Rack(0, "6ES7 390-1AE80-0AA0", "Rail, 482 mm");
+            rack.addModule(new SlotModule(0, 2, "6ES7 315-2EH14-0AB0", "V3.2", "CPU \"315\"\r\n2 PN/DP"));
+            builder.addRack(rack);
+            Station station = builder.build();
+
+            modules = exportTables(new StationTableExporter(StationTableExporter.Format.CSV, executor, 1), List.of(station))[0].lines().collect(Collectors.toList());
+            assertEquals("\"Line \"\"1\"\", hall", modules.get(1));
+            assertEquals("B\tC\",RACK,0,,,,,6ES7 390-1AE80-0AA0,,\"Rail, 482 mm\"", modules.get(2));
+            assertEquals("\"Line \"\"1\"\", hall", modules.get(3));
+            assertEquals("B\tC\",SLOT_MODULE,0,,,2,,6ES7 315-2EH14-0AB0,V3.2,\"CPU \"\"315\"\"", modules.get(4));
+            assertEquals("2 PN/DP\"", modules.get(5));
+
+            modules = exportTables(new StationTableExporter(StationTableExporter.Format.TSV, executor, 1), List.of(station))[0].lines().collect(Collectors.toList());
+            assertEquals(String.join("\t", StationTableExporter.MODULE_COLUMNS), modules.get(0));
+            assertEquals("Line \"1\", hall B C\tRACK\t0\t\t\t\t\t6ES7 390-1AE80-0AA0\t\tRail, 482 mm", modules.get(1));
+            assertEquals("Line \"1\", hall B C\tSLOT_MODULE\t0\t\t\t2\t\t6ES7 315-2EH14-0AB0\tV3.2\tCPU \"315\"  2 PN/DP", modules.get(2));
+            assertEquals(3, modules.size());
+
+            // Rows stay in station order with several stations rendered in parallel
+            List<Station> stations = new ArrayList<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 40; i++) {
+                StationBuilder stationBuilder = Station.builder().name("S" + i);
+                Rack stationRack = new Rack(0, "6ES7 400-1JA01-0AA0", "UR2");
+                for (int slot = 1, count = 1 + random.nextInt(i % 5 == 0 ? 2000 : 20); slot <= count; slot++) {
+                    stationRack.addModule(new SlotModule(0, slot, "6ES7 421-1BL01-0AA0", null, "DI32"));
+                }
+                stations.add(stationBuilder.addRack(stationRack).build());
+            }
+
+            tables = exportTables(new StationTableExporter(StationTableExporter.Format.CSV, executor, 3), stations);
+            List<String> order = tables[0].lines().skip(1).map(line -> line.substring(0, line.indexOf(','))).distinct().collect(Collectors.toList());
+            assertEquals(stations.stream().map(Station::getStationName).collect(Collectors.toList()), order);
+            assertEquals(1 + stations.stream().mapToInt(st -> 1 + st.getRacks().get(0).getSlots().size()).sum(), tables[0].lines().count());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Exports stations into memory.
+     *
+     * @return Module table and address area table.
+     */
+    static String[] exportTables(StationTableExporter exporter, List<Station> stations) throws IOException {
+        ByteArrayOutputStream modules = new ByteArrayOutputStream();
+        ByteArrayOutputStream addressAreas = new ByteArrayOutputStream();
+
+        exporter.export(stations, Channels.newChannel(modules), Channels.newChannel(addressAreas));
+
+        return new String[] { modules.toString(StandardCharsets.UTF_8), addressAreas.toString(StandardCharsets.UTF_8) };
+    }
+
+    static void deleteTree(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    static HWConfig readString(String text) throws IOException, STEP7HWCfgFileFormatException, STEP7HWCfgFileSectionFormatErrorException {
+        Path file = Files.createTempFile("station", ".cfg");
+
+        try {
+            Files.writeString(file, text);
+            return HWConfig.readFromFile(file.toFile());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static HWConfig readSample() throws URISyntaxException, IOException, STEP7HWCfgFileFormatException, STEP7HWCfgFileSectionFormatErrorException {
+        return HWConfig.readFromFile(new File(S7HWCfgParserTest.class.getResource("/sample.cfg").toURI()));
+    }
+
+    /**
+     * Minimal JSON reader for checking the output of the writers (objects, arrays, strings, integers, null).
+     */
+    static class Json {
+        private final String text;
+        private int position;
+
+        private Json(String text) {
+            this.text = text;
+        }
+
+        static Object parse(String text) {
+            Json json = new Json(text);
+            Object res = json.value();
+
+            assertEquals(text.length(), json.position, "Trailing content");
+
+            return res;
+        }
+
+        private Object value() {
+            char c = text.charAt(position);
+
+            switch (c) {
+                case '{': {
+                    Map<String, Object> res = new LinkedHashMap<>();
+                    position++;
+                    while (text.charAt(position) != '}') {
+                        String name = string();
+                        expect(':');
+                        assertNull(res.put(name, value()), "Duplicate field " + name);
+                        if (text.charAt(position) == ',') {
+                            position++;
+                        }
+                    }
+                    position++;
+                    return res;
+                }
+                case '[': {
+                    List<Object> res = new ArrayList<>();
+                    position++;
+                    while (text.charAt(position) != ']') {
+                        res.add(value());
+                        if (text.charAt(position) == ',') {
+                            position++;
+                        }
+                    }
+                    position++;
+                    return res;
+                }
+                case '"':
+                    return string();
+                case 'n':
+                    position += 4;
+                    return null;
+                default:
+                    int start = position;
+                    while (position < text.length() && (text.charAt(position) == '-' || Character.isDigit(text.charAt(position)))) {
+                        position++;
+                    }
+                    return Long.parseLong(text.substring(start, position));
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder res = new StringBuilder();
+
+            for (char c = text.charAt(position++); c != '"'; c = text.charAt(position++)) {
+                assertTrue(c >= 0x20, "Unescaped control character");
+
+                if (c != '\\') {
+                    res.append(c);
+                    continue;
+                }
+
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n': res.append('\n'); break;
+                    case 'r': res.append('\r'); break;
+                    case 't': res.append('\t'); break;
+                    case 'b': res.append('\b'); break;
+                    case 'f': res.append('\f'); break;
+                    case 'u': res.append((char) Integer.parseInt(text.substring(position, position + 4), 16)); position += 4; break;
+                    default: res.append(escaped);
+                }
+            }
+
+            return res.toString();
+        }
+
+        private void expect(char c) {
+            assertEquals(c, text.charAt(position++));
+        }
+    }
 }